@@ -0,0 +1,262 @@
+package project.house.builders.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import project.house.builders.exception.ExceptionDetails;
+import project.house.builders.service.IdempotencyStore;
+import project.house.builders.service.IdempotentResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the create endpoints safe to retry. A POST with an Idempotency-Key header runs once per user and key;
+ * its successful response is stored and replayed, with an Idempotent-Replayed header, to every retry with the
+ * same body. The key is reserved in the store before the request runs, so requests with the same key that arrive
+ * while the first one is running, on this instance or another, wait for its result instead of running again, and
+ * get a 409 if it takes longer than api.idempotency.wait-timeout. Failed responses are not stored, so the client
+ * can retry them.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Set<String> PATHS = Set.of("/houses", "/houses/async", "/engineers", "/architects");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final String IN_PROGRESS = "A request with this Idempotency-Key is still in progress, retry later.";
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore,
+                             ObjectMapper objectMapper,
+                             @Value("${api.idempotency.wait-timeout:10s}") Duration waitTimeout){
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request){
+        return !"POST".equals(request.getMethod())
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if(idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH){
+            writeError(response, HttpStatus.BAD_REQUEST, "The Idempotency-Key header must have between 1 and " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String requestHash = sha256(body);
+        String key = sha256((principal() + "\n" + request.getRequestURI() + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while(true){
+            Optional<IdempotentResponse> stored = idempotencyStore.find(key);
+            if(stored.isPresent()){
+                replay(stored.get(), requestHash, response);
+                return;
+            }
+            CompletableFuture<IdempotentResponse> running = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> first = inFlight.putIfAbsent(key, running);
+            if(first == null){
+                if(reserve(key, requestHash, running)){
+                    execute(new CachedBodyRequest(request, body), response, filterChain, key, requestHash, running);
+                    return;
+                }
+                // Another instance holds the key, so poll the store until it saves the response or releases the key.
+                if(System.nanoTime() >= deadline){
+                    writeError(response, HttpStatus.CONFLICT, IN_PROGRESS);
+                    return;
+                }
+                sleep(POLL_INTERVAL);
+                continue;
+            }
+            IdempotentResponse result;
+            try {
+                result = first.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException exception){
+                writeError(response, HttpStatus.CONFLICT, IN_PROGRESS);
+                return;
+            } catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+                throw new ServletException(exception);
+            } catch (ExecutionException exception){
+                result = null;
+            }
+            if(result != null){
+                replay(result, requestHash, response);
+                return;
+            }
+            // The first request failed and stored nothing, so this one runs in its place.
+        }
+    }
+
+    private boolean reserve(String key, String requestHash, CompletableFuture<IdempotentResponse> running){
+        boolean reserved = false;
+        try {
+            reserved = idempotencyStore.reserve(key, requestHash);
+            return reserved;
+        } finally {
+            if(!reserved){
+                inFlight.remove(key, running);
+                running.complete(null);
+            }
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String key, String requestHash, CompletableFuture<IdempotentResponse> running) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        IdempotentResponse result = null;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if(HttpStatus.valueOf(responseWrapper.getStatus()).is2xxSuccessful()){
+                IdempotentResponse completed = new IdempotentResponse(requestHash, responseWrapper.getStatus(), responseWrapper.getContentType(),
+                        responseWrapper.getHeader(HttpHeaders.ETAG), responseWrapper.getHeader(HttpHeaders.LOCATION), responseWrapper.getContentAsByteArray());
+                idempotencyStore.save(key, completed);
+                result = completed;
+            }
+        } finally {
+            try {
+                if(result == null) idempotencyStore.release(key);
+            } finally {
+                inFlight.remove(key, running);
+                running.complete(result);
+                responseWrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) throws ServletException {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+            throw new ServletException(exception);
+        }
+    }
+
+    private void replay(IdempotentResponse stored, String requestHash, HttpServletResponse response) throws IOException {
+        if(!stored.requestHash().equals(requestHash)){
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "This Idempotency-Key was already used with a different request body.");
+            return;
+        }
+        response.setStatus(stored.status());
+        if(stored.contentType() != null) response.setContentType(stored.contentType());
+        if(stored.eTag() != null) response.setHeader(HttpHeaders.ETAG, stored.eTag());
+        if(stored.location() != null) response.setHeader(HttpHeaders.LOCATION, stored.location());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String details) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ExceptionDetails.builder()
+                .title(status.getReasonPhrase())
+                .status(status.value())
+                .details(details)
+                .developerMessage(getClass().getName())
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    private static String principal(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+
+    private static String sha256(byte[] bytes){
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException exception){
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body){
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream(){
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read(){
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length){
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished(){
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady(){
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener){
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader(){
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
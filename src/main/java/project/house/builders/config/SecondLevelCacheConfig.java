@@ -0,0 +1,56 @@
+package project.house.builders.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.house.builders.domain.CacheRegions;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Creates the Hibernate second-level cache regions in a Caffeine JCache manager, sized and expired from api.cache.
+ * Every context gets its own manager, and Hibernate fails at startup if an entity names a region that is not created here.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties){
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("builders:second-level-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        for(String region : CacheRegions.ALL){
+            cacheManager.createCache(region, configurationFor(properties.regionOrDefault(region)));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, configurationFor(properties.regionOrDefault(CacheRegions.QUERIES)));
+        // Update timestamps must outlive every cached query result, so this region is never bounded or expired.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager){
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> configurationFor(SecondLevelCacheProperties.Region region){
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if(region == null) return configuration;
+        if(region.maxSize() != null) configuration.setMaximumSize(OptionalLong.of(region.maxSize()));
+        if(region.ttl() != null) configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+        return configuration;
+    }
+}
@@ -0,0 +1,21 @@
+package project.house.builders.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "api.cache")
+public record SecondLevelCacheProperties(Region defaults, Map<String, Region> regions) {
+
+    public Region regionOrDefault(String name){
+        Region region = regions == null ? null : regions.get(name);
+        if(region == null) return defaults;
+        if(defaults == null) return region;
+        return new Region(region.maxSize() != null ? region.maxSize() : defaults.maxSize(),
+                region.ttl() != null ? region.ttl() : defaults.ttl());
+    }
+
+    public record Region(Long maxSize, Duration ttl) {
+    }
+}
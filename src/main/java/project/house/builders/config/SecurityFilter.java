@@ -1,5 +1,6 @@
 package project.house.builders.config;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,11 +8,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import project.house.builders.service.TokenRevocationService;
 import project.house.builders.service.TokenService;
-import project.house.builders.user.UserRepository;
+import project.house.builders.service.VerifiedToken;
+import project.house.builders.service.VerifiedTokenCache;
+import project.house.builders.user.UserRole;
 
 import java.io.IOException;
 
@@ -21,20 +24,41 @@ public class SecurityFilter extends OncePerRequestFilter {
     TokenService tokenService;
 
     @Autowired
-    UserRepository userRepository;
+    VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var token = this.recoverToken(request);
         if(token != null){
-            var subject = tokenService.validateToken(token);
-            UserDetails user = userRepository.findByLogin(subject);
-
-            var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            VerifiedToken verifiedToken = verifiedTokenCache.get(token, this::verify);
+            if(verifiedToken != null && !tokenRevocationService.isRevoked(verifiedToken.subject(), verifiedToken.userVersion())){
+                var authentication = new UsernamePasswordAuthenticationToken(verifiedToken.subject(), null, verifiedToken.authorities());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         }
         filterChain.doFilter(request, response);
     }
 
+    private VerifiedToken verify(String token){
+        return tokenService.verifyToken(token)
+                .map(this::toVerifiedToken)
+                .orElse(null);
+    }
+
+    private VerifiedToken toVerifiedToken(DecodedJWT decodedToken){
+        String role = decodedToken.getClaim(TokenService.ROLE_CLAIM).asString();
+        Long userVersion = decodedToken.getClaim(TokenService.USER_VERSION_CLAIM).asLong();
+        if(role == null || userVersion == null) return null;
+        try {
+            return new VerifiedToken(decodedToken.getSubject(), UserRole.valueOf(role).getAuthorities(), userVersion, decodedToken.getExpiresAtAsInstant());
+        } catch (IllegalArgumentException exception){
+            return null;
+        }
+    }
+
     private String recoverToken(HttpServletRequest request){
         var authHeader = request.getHeader("Authorization");
         if(authHeader == null) return null;
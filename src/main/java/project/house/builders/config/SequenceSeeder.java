@@ -0,0 +1,70 @@
+package project.house.builders.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+
+/**
+ * Moves every id sequence past the highest id of its table at startup. Databases created while ids came from
+ * IDENTITY columns start the sequences at 1, which would hand out ids that are already taken. On MySQL the sequence
+ * tables are only ever moved forward, so instances starting together never hand out the same block twice.
+ */
+@Log4j2
+@Component
+public class SequenceSeeder {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceSupport sequenceSupport;
+
+    public SequenceSeeder(EntityManager entityManager,
+                          EntityManagerFactory entityManagerFactory,
+                          PlatformTransactionManager transactionManager){
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect().getSequenceSupport();
+    }
+
+    @PostConstruct
+    public void seed(){
+        for(EntityType<?> entityType : entityManager.getMetamodel().getEntities()){
+            for(SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()){
+                if(!attribute.isId() || !(attribute.getJavaMember() instanceof Field field)) continue;
+                SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+                if(generator == null) continue;
+                transactionTemplate.executeWithoutResult(status -> seed(entityType.getName(), attribute.getName(), generator));
+            }
+        }
+    }
+
+    private void seed(String entityName, String idName, SequenceGenerator generator){
+        long lastId = entityManager.createQuery("select coalesce(max(e." + idName + "), 0) from " + entityName + " e", Long.class).getSingleResult();
+        if(lastId == 0) return;
+        // The pooled optimizer hands out the allocationSize ids ending at the value it reads, so they all stay above lastId.
+        long next = lastId + generator.allocationSize();
+        String sequence = generator.sequenceName();
+        boolean moved;
+        if(sequenceSupport.supportsSequences()){
+            long current = ((Number) entityManager.createNativeQuery(sequenceSupport.getSequenceNextValString(sequence)).getSingleResult()).longValue();
+            // Only the first start after the upgrade finds the sequence behind its table.
+            moved = current < next;
+            if(moved) entityManager.createNativeQuery("alter sequence " + sequence + " restart with " + next).executeUpdate();
+        } else {
+            // Hibernate emulates the sequence with a table holding the next value, which it only ever increases.
+            moved = entityManager.createNativeQuery("update " + sequence + " set next_val = :next where next_val < :next")
+                    .setParameter("next", next)
+                    .executeUpdate() > 0;
+        }
+        if(moved) log.info("Moved the {} sequence to {}, past the ids already in use", sequence, next);
+    }
+}
@@ -0,0 +1,58 @@
+package project.house.builders.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request, and the application task executor behind @Async and async MVC handlers, on a new virtual
+ * thread when api.threads.virtual is true. A request blocked on JDBC then parks its virtual thread instead of
+ * holding one of Tomcat's platform threads, so the connection pool, not the thread pool, bounds concurrency.
+ * The background pools of the services stay on platform threads, since their sizes are limits on purpose.
+ * Virtual threads need Java 21; the build still targets 17, so the executor is looked up at startup, and
+ * turning the mode on under an older runtime fails fast.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor(){
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor){
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor){
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor(){
+        MethodHandle factory;
+        try {
+            factory = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException exception){
+            throw new IllegalStateException("api.threads.virtual needs Java 21 or later, this is Java " + Runtime.version().feature() + ".", exception);
+        }
+        try {
+            return (ExecutorService) factory.invoke();
+        } catch (Throwable throwable){
+            throw new IllegalStateException("Could not create the virtual thread executor.", throwable);
+        }
+    }
+}
@@ -7,16 +7,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import project.house.builders.domain.Architect;
+import project.house.builders.domain.House;
 import project.house.builders.requests.ArchitectPostRequestBody;
 import project.house.builders.requests.ArchitectPutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.requests.ArchitectUpsertRequestBody;
+import project.house.builders.responses.ArchitectResponse;
+import project.house.builders.responses.UpsertResult;
+import project.house.builders.service.ArchitectBulkService;
 import project.house.builders.service.ArchitectService;
+import project.house.builders.service.ChangeCounter;
+import project.house.builders.service.EntityVersion;
+import project.house.builders.service.ResultPage;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("architects")
@@ -25,40 +37,61 @@ import java.util.List;
 public class ArchitectController {
 
     private final ArchitectService architectService;
+    private final ArchitectBulkService architectBulkService;
+    private final ChangeCounter changeCounter;
 
 
     @GetMapping(path = "/all")
-    @Operation(summary = "List all achitects", security = { @SecurityRequirement(name = "bearer-key") } )
+    @Operation(summary = "List all achitects", description = "Pages are ordered by id. Pass the X-Next-Cursor header of a response as cursor to get the next page, or use page for offset pagination with an X-Total-Count header. size is capped by the server", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content)
     })
-    public ResponseEntity<List<Architect>> listAll(){
-        return new ResponseEntity<>(architectService.listAll(), HttpStatus.OK);
+    public ResponseEntity<List<ArchitectResponse>> listAll(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer page,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = EntityVersion.eTag(changeCounter.token(Architect.class, House.class));
+        if(EntityVersion.matches(ifNoneMatch, eTag)) return EntityVersion.notModified(eTag);
+        ResultPage<ArchitectResponse> result = architectService.listAll(cursor, page, size);
+        return EntityVersion.ok(eTag).headers(result.headers()).body(result.content());
     }
 
     @GetMapping(path = "/{id}")
     @Operation(summary = "Find an architect by id", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "400", description = "Architect not found", content = @Content),
     })
-    public ResponseEntity<Architect> findById(@PathVariable long id){
-        return ResponseEntity.ok(architectService.findByIdOrThrowBadRequestException(id));
+    public ResponseEntity<ArchitectResponse> findById(@PathVariable long id,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String houses = changeCounter.token(House.class);
+        if(ifNoneMatch != null){
+            Optional<String> current = architectService.findVersion(id).map(version -> EntityVersion.eTag(version, houses));
+            if(current.isPresent() && EntityVersion.matches(ifNoneMatch, current.get())) return EntityVersion.notModified(current.get());
+        }
+        ArchitectResponse architect = architectService.findByIdOrThrowBadRequestException(id);
+        return EntityVersion.ok(EntityVersion.eTag(architect.version(), houses)).body(architect);
     }
 
     @GetMapping(path = "/find") // /architects/find?name=architectname
     @Operation(summary = "Find an architect by name", description = "/houses/find?name=Architect+name+here", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content)
     })
-    public ResponseEntity <List<Architect>> findByName(@RequestParam(required = false) String name){
-        return ResponseEntity.ok(architectService.findByName(name));
+    public ResponseEntity <List<ArchitectResponse>> findByName(@RequestParam(required = false) String name,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = EntityVersion.eTag(changeCounter.token(Architect.class, House.class));
+        if(EntityVersion.matches(ifNoneMatch, eTag)) return EntityVersion.notModified(eTag);
+        return EntityVersion.ok(eTag).body(architectService.findByName(name));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -71,7 +104,8 @@ public class ArchitectController {
             @ApiResponse(responseCode = "500", description = "The architect must have a name", content = @Content)
     })
     public ResponseEntity<Architect> save(@RequestBody ArchitectPostRequestBody architectPostRequestBody){
-        return new ResponseEntity<>(architectService.save(architectPostRequestBody), HttpStatus.CREATED);
+        Architect savedArchitect = architectService.save(architectPostRequestBody);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityVersion.eTag(savedArchitect.getVersion())).body(savedArchitect);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -82,10 +116,12 @@ public class ArchitectController {
             @ApiResponse(responseCode = "403", description = "Forbidden. You cannot delete an architect that is linked to a house, " +
                     "need to get the architect out of this house via the house endpoints"),
             @ApiResponse(responseCode = "204", description = "Successful operation, deleted"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
             @ApiResponse(responseCode = "400", description = "Architect not found")
     })
-    public ResponseEntity<Void> delete(@PathVariable long id){
-        architectService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        architectService.delete(id, ifMatch);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -96,11 +132,44 @@ public class ArchitectController {
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
             @ApiResponse(responseCode = "400", description = "Architect not found"),
             @ApiResponse(responseCode = "500", description = "The architect must have a name, or you dont or you didn't pass id field")
     })
-    public ResponseEntity<Void> replace(@RequestBody ArchitectPutRequestBody architectPutRequestBody){
-        architectService.replace(architectPutRequestBody);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<Void> replace(@RequestBody ArchitectPutRequestBody architectPutRequestBody,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        long version = architectService.replace(architectPutRequestBody, ifMatch);
+        return ResponseEntity.noContent().eTag(EntityVersion.eTag(version)).build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping(path = "/bulk")
+    @Operation(summary = "Create or update many architects by external id", description = "Architects whose external id is unknown are created, the others get the name sent. Returns how many were inserted, updated and already up to date"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "400", description = "The request is empty or too large, or an item has no external id or name, or repeats an external id", content = @Content)
+    })
+    public ResponseEntity<UpsertResult> upsertAll(@RequestBody List<ArchitectUpsertRequestBody> architectUpsertRequestBodies){
+        return ResponseEntity.ok(architectBulkService.upsertAll(architectUpsertRequestBodies));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping(path = "/{id}", consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Partially updates an architect", description = "JSON Merge Patch, only the fields sent are changed. Accepted fields: name"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
+            @ApiResponse(responseCode = "400", description = "Architect not found, or the result is invalid")
+    })
+    public ResponseEntity<Void> patch(@PathVariable long id, @RequestBody MergePatch patch,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        long version = architectService.patch(id, patch, ifMatch);
+        return ResponseEntity.noContent().eTag(EntityVersion.eTag(version)).build();
     }
-}
\ No newline at end of file
+}
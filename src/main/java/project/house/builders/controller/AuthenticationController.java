@@ -4,17 +4,20 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
 import project.house.builders.service.AuthenticationService;
 import project.house.builders.user.AuthenticationRequestBody;
 import project.house.builders.user.LoginResponseBody;
 import project.house.builders.user.RegisterRequestBody;
+import project.house.builders.user.RoleChangeRequestBody;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("auth")
@@ -26,11 +29,12 @@ public class AuthenticationController {
     @Operation(summary = "You should copy the JWT token that will be displayed in the response body when logging successfuly.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
-            @ApiResponse(responseCode = "403", description = "Forbidden")
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress, retry after the Retry-After header")
     })
-    public ResponseEntity login(@RequestBody @Valid AuthenticationRequestBody data){
-        String token = authenticationService.authenticateAndGenerateToken(data);
-        return ResponseEntity.ok(new LoginResponseBody(token));
+    public CompletableFuture<ResponseEntity<LoginResponseBody>> login(@RequestBody @Valid AuthenticationRequestBody data){
+        return authenticationService.authenticateAndGenerateToken(data)
+                .thenApply(token -> ResponseEntity.ok(new LoginResponseBody(token)));
     }
 
     @PostMapping("/register")
@@ -38,9 +42,36 @@ public class AuthenticationController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
             @ApiResponse(responseCode = "400", description = "Bad Request, password cannot be null or empty, or login already exists"),
-            @ApiResponse(responseCode = "403", description = "Check the role name, login and password cannot be null or empty.")
+            @ApiResponse(responseCode = "403", description = "Check the role name, login and password cannot be null or empty."),
+            @ApiResponse(responseCode = "503", description = "Too many registrations in progress, retry after the Retry-After header")
     })
-    public ResponseEntity register(@RequestBody @Valid RegisterRequestBody data){
+    public CompletableFuture<ResponseEntity> register(@RequestBody @Valid RegisterRequestBody data){
         return authenticationService.registerNewUser(data);
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/role")
+    @Operation(summary = "Change the role of a user", description = "Tokens issued before the change stop being accepted", security = { @SecurityRequirement(name = "bearer-key") })
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "400", description = "User not found, or the role is missing"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    public ResponseEntity<Void> changeRole(@RequestBody RoleChangeRequestBody data){
+        authenticationService.changeRole(data);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/disable/{login}")
+    @Operation(summary = "Disable a user", description = "Tokens issued before the change stop being accepted", security = { @SecurityRequirement(name = "bearer-key") })
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successful operation, disabled"),
+            @ApiResponse(responseCode = "400", description = "User not found"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    public ResponseEntity<Void> disable(@PathVariable String login){
+        authenticationService.disableUser(login);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 }
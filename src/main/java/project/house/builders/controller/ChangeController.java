@@ -0,0 +1,41 @@
+package project.house.builders.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.service.ChangeLog;
+import project.house.builders.service.ResultPage;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("changes")
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private final ChangeLog changeLog;
+
+    @GetMapping
+    @Operation(summary = "List the houses, engineers and architects changed since a cursor", description = "Returns the changes in the order they were made, each with the entity type, its id and UPSERT or DELETE. "
+            + "Start without since, then pass the X-Next-Cursor header of each response as since to get only what changed afterwards. limit is capped by the server"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content)
+    })
+    public ResponseEntity<List<ChangeLogEntry>> changesSince(@RequestParam(required = false) String since,
+                                                             @RequestParam(required = false) Integer limit){
+        ResultPage<ChangeLogEntry> result = changeLog.changesSince(since, limit);
+        return ResponseEntity.ok().headers(result.headers()).body(result.content());
+    }
+}
@@ -7,16 +7,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
 import project.house.builders.requests.EngineerPostRequestBody;
 import project.house.builders.requests.EngineerPutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.requests.EngineerUpsertRequestBody;
+import project.house.builders.responses.EngineerResponse;
+import project.house.builders.responses.UpsertResult;
+import project.house.builders.service.EngineerBulkService;
 import project.house.builders.service.EngineerService;
+import project.house.builders.service.ChangeCounter;
+import project.house.builders.service.EntityVersion;
+import project.house.builders.service.ResultPage;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("engineers")
@@ -25,40 +37,61 @@ import java.util.List;
 public class EngineerController {
 
     private final EngineerService engineerService;
+    private final EngineerBulkService engineerBulkService;
+    private final ChangeCounter changeCounter;
 
 
     @GetMapping(path = "/all")
-    @Operation(summary = "List all engineers", security = { @SecurityRequirement(name = "bearer-key") } )
+    @Operation(summary = "List all engineers", description = "Pages are ordered by id. Pass the X-Next-Cursor header of a response as cursor to get the next page, or use page for offset pagination with an X-Total-Count header. size is capped by the server", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content)
     })
-    public ResponseEntity<List<Engineer>> listAll(){
-        return new ResponseEntity<>(engineerService.listAll(), HttpStatus.OK);
+    public ResponseEntity<List<EngineerResponse>> listAll(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer page,
+                                                          @RequestParam(required = false) Integer size,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = EntityVersion.eTag(changeCounter.token(Engineer.class, House.class));
+        if(EntityVersion.matches(ifNoneMatch, eTag)) return EntityVersion.notModified(eTag);
+        ResultPage<EngineerResponse> result = engineerService.listAll(cursor, page, size);
+        return EntityVersion.ok(eTag).headers(result.headers()).body(result.content());
     }
 
     @GetMapping(path = "/{id}")
     @Operation(summary = "Find an engineer by id", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "400", description = "Engineer not found", content = @Content),
     })
-    public ResponseEntity<Engineer> findById(@PathVariable long id){
-        return ResponseEntity.ok(engineerService.findByIdOrThrowBadRequestException(id));
+    public ResponseEntity<EngineerResponse> findById(@PathVariable long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String houses = changeCounter.token(House.class);
+        if(ifNoneMatch != null){
+            Optional<String> current = engineerService.findVersion(id).map(version -> EntityVersion.eTag(version, houses));
+            if(current.isPresent() && EntityVersion.matches(ifNoneMatch, current.get())) return EntityVersion.notModified(current.get());
+        }
+        EngineerResponse engineer = engineerService.findByIdOrThrowBadRequestException(id);
+        return EntityVersion.ok(EntityVersion.eTag(engineer.version(), houses)).body(engineer);
     }
 
     @GetMapping(path = "/find") // /engineers/find?name=engineername
     @Operation(summary = "Find an engineer by name", description = "/houses/find?name=Engineer+name+here", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content)
     })
-    public ResponseEntity <List<Engineer>> findByName(@RequestParam(required = false) String name){
-        return ResponseEntity.ok(engineerService.findByName(name));
+    public ResponseEntity <List<EngineerResponse>> findByName(@RequestParam(required = false) String name,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = EntityVersion.eTag(changeCounter.token(Engineer.class, House.class));
+        if(EntityVersion.matches(ifNoneMatch, eTag)) return EntityVersion.notModified(eTag);
+        return EntityVersion.ok(eTag).body(engineerService.findByName(name));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -71,7 +104,8 @@ public class EngineerController {
             @ApiResponse(responseCode = "500", description = "The engineer must have a name", content = @Content)
     })
     public ResponseEntity<Engineer> save(@RequestBody EngineerPostRequestBody engineerPostRequestBody){
-        return new ResponseEntity<>(engineerService.save(engineerPostRequestBody), HttpStatus.CREATED);
+        Engineer savedEngineer = engineerService.save(engineerPostRequestBody);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityVersion.eTag(savedEngineer.getVersion())).body(savedEngineer);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -82,10 +116,12 @@ public class EngineerController {
             @ApiResponse(responseCode = "403", description = "Forbidden. You cannot delete an engineer that is linked to a house, " +
                     "need to get the engineer out of this house via the house endpoints"),
             @ApiResponse(responseCode = "204", description = "Successful operation, deleted"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
             @ApiResponse(responseCode = "400", description = "Engineer not found")
     })
-    public ResponseEntity<Void> delete(@PathVariable long id){
-        engineerService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        engineerService.delete(id, ifMatch);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -96,11 +132,44 @@ public class EngineerController {
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
             @ApiResponse(responseCode = "400", description = "Engineer not found"),
             @ApiResponse(responseCode = "500", description = "The engineer must have a name, or you dont or you didn't pass id field")
     })
-    public ResponseEntity<Void> replace(@RequestBody EngineerPutRequestBody engineerPutRequestBody){
-        engineerService.replace(engineerPutRequestBody);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<Void> replace(@RequestBody EngineerPutRequestBody engineerPutRequestBody,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        long version = engineerService.replace(engineerPutRequestBody, ifMatch);
+        return ResponseEntity.noContent().eTag(EntityVersion.eTag(version)).build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping(path = "/bulk")
+    @Operation(summary = "Create or update many engineers by external id", description = "Engineers whose external id is unknown are created, the others get the name sent. Returns how many were inserted, updated and already up to date"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "400", description = "The request is empty or too large, or an item has no external id or name, or repeats an external id", content = @Content)
+    })
+    public ResponseEntity<UpsertResult> upsertAll(@RequestBody List<EngineerUpsertRequestBody> engineerUpsertRequestBodies){
+        return ResponseEntity.ok(engineerBulkService.upsertAll(engineerUpsertRequestBodies));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping(path = "/{id}", consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Partially updates an engineer", description = "JSON Merge Patch, only the fields sent are changed. Accepted fields: name"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
+            @ApiResponse(responseCode = "400", description = "Engineer not found, or the result is invalid")
+    })
+    public ResponseEntity<Void> patch(@PathVariable long id, @RequestBody MergePatch patch,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        long version = engineerService.patch(id, patch, ifMatch);
+        return ResponseEntity.noContent().eTag(EntityVersion.eTag(version)).build();
     }
 }
@@ -0,0 +1,43 @@
+package project.house.builders.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.service.ChangeEventHub;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final ChangeEventHub changeEventHub;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the changes to houses, engineers and architects as server-sent events", description = "Sends a change event, with the same id as the /changes cursor, as soon as each change commits. "
+            + "types, engineer and architect narrow the stream; engineer and architect also match the houses they had or have. "
+            + "A client that falls behind is disconnected; it resumes with /changes?since= and the id of the last event it received"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many clients are subscribed", content = @Content)
+    })
+    public SseEmitter subscribe(@RequestParam(required = false) Set<ChangeLogEntry.EntityType> types,
+                                @RequestParam(required = false) Long engineer,
+                                @RequestParam(required = false) Long architect){
+        return changeEventHub.subscribe(new ChangeEventHub.Filter(types, engineer, architect));
+    }
+}
@@ -5,18 +5,36 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import project.house.builders.domain.House;
 import project.house.builders.requests.HousePostRequestBody;
 import project.house.builders.requests.HousePutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.AffectedRows;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.HouseResponse;
+import project.house.builders.responses.IngestionTicket;
+import project.house.builders.service.ChangeCounter;
+import project.house.builders.service.EntityVersion;
+import project.house.builders.service.HouseBulkService;
+import project.house.builders.service.HouseExportService;
+import project.house.builders.service.HouseIngestionService;
 import project.house.builders.service.HouseService;
+import project.house.builders.service.ResultPage;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("houses")
@@ -24,41 +42,80 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HouseController {
 
+    static final String NDJSON = "application/x-ndjson";
+
     private final HouseService houseService;
+    private final HouseExportService houseExportService;
+    private final HouseBulkService houseBulkService;
+    private final HouseIngestionService houseIngestionService;
+    private final ChangeCounter changeCounter;
 
 
     @GetMapping(path = "/all")
-    @Operation(summary = "List all house projects", security = { @SecurityRequirement(name = "bearer-key") } )
+    @Operation(summary = "List all house projects", description = "Pages are ordered by id. Pass the X-Next-Cursor header of a response as cursor to get the next page, or use page for offset pagination with an X-Total-Count header. size is capped by the server", security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content)
+    })
+    public ResponseEntity<List<HouseResponse>> listAll(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer page,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = EntityVersion.eTag(changeCounter.token(House.class));
+        if(EntityVersion.matches(ifNoneMatch, eTag)) return EntityVersion.notModified(eTag);
+        ResultPage<HouseResponse> result = houseService.listAll(cursor, page, size);
+        return EntityVersion.ok(eTag).headers(result.headers()).body(result.content());
+    }
+
+    @GetMapping(path = "/export", produces = HouseController.NDJSON)
+    @Operation(summary = "Export all house projects", description = "Streams every house as newline-delimited JSON, one object per line, ordered by id"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content)
     })
-    public ResponseEntity<List<House>> listAll(){
-        return new ResponseEntity<>(houseService.listAll(), HttpStatus.OK);
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        long exported = houseExportService.exportTo(response.getOutputStream());
+        log.info("Exported {} house projects", exported);
     }
 
     @GetMapping(path = "/{id}")
     @Operation(summary = "Find a house by id", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
             @ApiResponse(responseCode = "400", description = "House project not found", content = @Content),
     })
-    public ResponseEntity<House> findById(@PathVariable long id){
-        return ResponseEntity.ok(houseService.findByIdOrThrowBadRequestException(id));
+    public ResponseEntity<HouseResponse> findById(@PathVariable long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if(ifNoneMatch != null){
+            Optional<String> current = houseService.findVersion(id).map(EntityVersion::eTag);
+            if(current.isPresent() && EntityVersion.matches(ifNoneMatch, current.get())) return EntityVersion.notModified(current.get());
+        }
+        HouseResponse house = houseService.findByIdOrThrowBadRequestException(id);
+        return EntityVersion.ok(EntityVersion.eTag(house.version())).body(house);
     }
 
     @GetMapping(path = "/find")
     @Operation(summary = "Find a house by name", description = "/houses/find?name=Houseproject+name+here", security = { @SecurityRequirement(name = "bearer-key") } )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content)
     })
-    public ResponseEntity <List<House>> findByName(@RequestParam(required = false) String name){
-        return ResponseEntity.ok(houseService.findByName(name));
+    public ResponseEntity <List<HouseResponse>> findByName(@RequestParam(required = false) String name,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = EntityVersion.eTag(changeCounter.token(House.class));
+        if(EntityVersion.matches(ifNoneMatch, eTag)) return EntityVersion.notModified(eTag);
+        return EntityVersion.ok(eTag).body(houseService.findByName(name));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -72,7 +129,95 @@ public class HouseController {
             @ApiResponse(responseCode = "500", description = "The house project must have a name or a nickname", content = @Content)
     })
     public ResponseEntity<House> save(@RequestBody HousePostRequestBody housePostRequestBody){
-        return new ResponseEntity<>(houseService.save(housePostRequestBody), HttpStatus.CREATED);
+        House savedHouse = houseService.save(housePostRequestBody);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityVersion.eTag(savedHouse.getVersion())).body(savedHouse);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(path = "/bulk")
+    @Operation(summary = "Create many houses at once", description = "Returns one result per item, with the created id or the reason it was rejected. With atomic=true nothing is created when any item is rejected"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "200", description = "Successful operation, see the result of each item", content = @Content),
+            @ApiResponse(responseCode = "400", description = "The request is empty or too large, or it is atomic and an item was rejected", content = @Content)
+    })
+    public ResponseEntity<List<BulkItemResult>> saveAll(@RequestBody List<HousePostRequestBody> housePostRequestBodies,
+                                                        @RequestParam(defaultValue = "false") boolean atomic){
+        List<BulkItemResult> results = houseBulkService.saveAll(housePostRequestBodies, atomic);
+        boolean rejected = results.stream().anyMatch(BulkItemResult::isRejected);
+        return new ResponseEntity<>(results, atomic && rejected ? HttpStatus.BAD_REQUEST : HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(path = "/async")
+    @Operation(summary = "Queue a new house to be created in the background", description = "Returns a ticket right away. The house is written with others in a batch; ask /houses/async/{ticket} for the outcome"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "202", description = "Accepted, the house is queued", content = @Content),
+            @ApiResponse(responseCode = "503", description = "The queue is full, retry after the Retry-After header", content = @Content)
+    })
+    public ResponseEntity<IngestionTicket> saveAsync(@RequestBody HousePostRequestBody housePostRequestBody){
+        IngestionTicket ticket = houseIngestionService.submit(housePostRequestBody);
+        return ResponseEntity.accepted().location(URI.create("/houses/async/" + ticket.ticket())).body(ticket);
+    }
+
+    @GetMapping(path = "/async/{ticket}")
+    @Operation(summary = "Find the outcome of a queued house", description = "QUEUED until the house is written, then CREATED with the house id or REJECTED with the reason. Tickets expire after a while"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Ticket not found", content = @Content)
+    })
+    public ResponseEntity<IngestionTicket> findTicket(@PathVariable String ticket){
+        return ResponseEntity.ok(houseIngestionService.findTicketOrThrowBadRequestException(ticket));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(path = "/reassign/engineer")
+    @Operation(summary = "Move every house of an engineer to another one", description = "/houses/reassign/engineer?from=1&to=2 moves the houses in one update. Without to, the houses are left without an engineer"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "200", description = "Successful operation, returns how many houses changed", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Engineer not found", content = @Content)
+    })
+    public ResponseEntity<AffectedRows> reassignEngineer(@RequestParam long from, @RequestParam(required = false) Long to){
+        return ResponseEntity.ok(houseBulkService.reassignEngineer(from, to));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(path = "/reassign/architect")
+    @Operation(summary = "Move every house of an architect to another one", description = "/houses/reassign/architect?from=1&to=2 moves the houses in one update. Without to, the houses are left without an architect"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "200", description = "Successful operation, returns how many houses changed", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Architect not found", content = @Content)
+    })
+    public ResponseEntity<AffectedRows> reassignArchitect(@RequestParam long from, @RequestParam(required = false) Long to){
+        return ResponseEntity.ok(houseBulkService.reassignArchitect(from, to));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping
+    @Operation(summary = "Delete many houses by id", description = "/houses?ids=1,2,3 deletes the houses in one statement. Unknown ids are ignored"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "200", description = "Successful operation, returns how many houses were deleted", content = @Content),
+            @ApiResponse(responseCode = "400", description = "No ids, or more than the bulk limit", content = @Content)
+    })
+    public ResponseEntity<AffectedRows> deleteAll(@RequestParam List<Long> ids){
+        return ResponseEntity.ok(houseBulkService.deleteAll(ids));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -82,10 +227,12 @@ public class HouseController {
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "204", description = "Successful operation, deleted"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
             @ApiResponse(responseCode = "400", description = "House project not found")
     })
-    public ResponseEntity<Void> delete(@PathVariable long id){
-        houseService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        houseService.delete(id, ifMatch);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -97,11 +244,30 @@ public class HouseController {
             @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
             @ApiResponse(responseCode = "400", description = "Engineer, Architect or House not found"),
             @ApiResponse(responseCode = "500", description = "The house project must have a name or a nickname, or you dont or you didn't pass id field")
     })
-    public ResponseEntity<Void> replace(@RequestBody HousePutRequestBody housePutRequestBody){
-        houseService.replace(housePutRequestBody);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<Void> replace(@RequestBody HousePutRequestBody housePutRequestBody,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        long version = houseService.replace(housePutRequestBody, ifMatch);
+        return ResponseEntity.noContent().eTag(EntityVersion.eTag(version)).build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping(path = "/{id}", consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Partially updates a house", description = "JSON Merge Patch, only the fields sent are changed. Accepted fields: projectName, and engineer or architect ids, where null removes them"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "204", description = "Successful operation, updated"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not name the current version of the resource"),
+            @ApiResponse(responseCode = "400", description = "Engineer, Architect or House not found, or the result is invalid")
+    })
+    public ResponseEntity<Void> patch(@PathVariable long id, @RequestBody MergePatch patch,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        long version = houseService.patch(id, patch, ifMatch);
+        return ResponseEntity.noContent().eTag(EntityVersion.eTag(version)).build();
     }
 }
@@ -0,0 +1,85 @@
+package project.house.builders.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import project.house.builders.domain.ImportJob;
+import project.house.builders.domain.ImportRowError;
+import project.house.builders.service.ImportService;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("imports")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final ImportService importService;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(path = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import houses, engineers or architects from a file", description = "type is houses, engineers or architects. Upload a CSV file with a header row, or a JSON array, as the file part. "
+            + "Engineer and architect rows have externalId and name; house rows have projectName and optionally engineerExternalId and architectExternalId. "
+            + "The file is imported in the background; follow /imports/{id} for the progress"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "202", description = "Accepted, the import is running", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Unknown type, or a file that is not CSV or JSON", content = @Content)
+    })
+    public ResponseEntity<ImportJob> start(@PathVariable String type, @RequestPart("file") MultipartFile file){
+        ImportJob job = importService.start(type, file);
+        return ResponseEntity.accepted().location(URI.create("/imports/" + job.getId())).body(job);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(path = "/{id}/resume", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Resume a failed import", description = "Upload the same file again. The rows up to lastCommittedRow are skipped, the import goes on from the next one"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "202", description = "Accepted, the import is running again", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Import not found, or it did not fail", content = @Content)
+    })
+    public ResponseEntity<ImportJob> resume(@PathVariable long id, @RequestPart("file") MultipartFile file){
+        ImportJob job = importService.resume(id, file);
+        return ResponseEntity.accepted().location(URI.create("/imports/" + job.getId())).body(job);
+    }
+
+    @GetMapping(path = "/{id}")
+    @Operation(summary = "Find the progress of an import", description = "The counters move after each committed batch. The status ends as COMPLETED, or FAILED with the reason"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Import not found", content = @Content)
+    })
+    public ResponseEntity<ImportJob> findById(@PathVariable long id){
+        return ResponseEntity.ok(importService.findByIdOrThrowBadRequestException(id));
+    }
+
+    @GetMapping(path = "/{id}/errors")
+    @Operation(summary = "List the rejected rows of an import", description = "One entry per rejected row with its number and the reason, up to a limit set by the server"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Import not found", content = @Content)
+    })
+    public ResponseEntity<List<ImportRowError>> findErrors(@PathVariable long id){
+        return ResponseEntity.ok(importService.findErrors(id));
+    }
+}
@@ -0,0 +1,82 @@
+package project.house.builders.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import project.house.builders.domain.WebhookEndpoint;
+import project.house.builders.requests.WebhookPostRequestBody;
+import project.house.builders.service.WebhookService;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("webhooks")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final WebhookService webhookService;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    @Operation(summary = "List the webhook endpoints", description = "Each endpoint shows how far it has been delivered and, while it fails, the last error and the next attempt"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content)
+    })
+    public ResponseEntity<List<WebhookEndpoint>> listAll(){
+        return ResponseEntity.ok(webhookService.listAll());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(path = "/{id}")
+    @Operation(summary = "Find a webhook endpoint by id", security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Webhook not found", content = @Content)
+    })
+    public ResponseEntity<WebhookEndpoint> findById(@PathVariable long id){
+        return ResponseEntity.ok(webhookService.findByIdOrThrowBadRequestException(id));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    @Operation(summary = "Register a webhook endpoint", description = "From now on, the changes to houses, engineers and architects are posted to the URL in batches, as JSON arrays of /changes entries. "
+            + "types limits them to some entity types. Failed deliveries are retried with a growing backoff, so an entry may arrive more than once"
+            , security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content),
+            @ApiResponse(responseCode = "201", description = "Successful operation, created", content = @Content),
+            @ApiResponse(responseCode = "400", description = "The URL is not an absolute http or https URL", content = @Content)
+    })
+    public ResponseEntity<WebhookEndpoint> save(@RequestBody WebhookPostRequestBody webhookPostRequestBody){
+        WebhookEndpoint savedEndpoint = webhookService.save(webhookPostRequestBody);
+        return ResponseEntity.created(URI.create("/webhooks/" + savedEndpoint.getId())).body(savedEndpoint);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping(path = "/{id}")
+    @Operation(summary = "Remove a webhook endpoint by id", security = { @SecurityRequirement(name = "bearer-key") } )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "401", description = "Unauthorized, without any authentication"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "204", description = "Successful operation, deleted"),
+            @ApiResponse(responseCode = "400", description = "Webhook not found")
+    })
+    public ResponseEntity<Void> delete(@PathVariable long id){
+        webhookService.delete(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
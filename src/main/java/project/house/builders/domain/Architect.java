@@ -1,6 +1,7 @@
 package project.house.builders.domain;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
@@ -8,6 +9,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,15 +21,28 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ARCHITECT)
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Architect {
     @NotEmpty(message = "Architect name cannot be empty")
     private String name;
 
+    @Column(unique = true)
+    private String externalId;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "architect_seq")
+    @SequenceGenerator(name = "architect_seq", sequenceName = "architect_seq", allocationSize = 100)
     private Long id;
 
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ARCHITECT_HOUSES)
     @OneToMany(mappedBy = "architect", cascade = CascadeType.MERGE)
     private List<House> houses = new ArrayList<>();
 }
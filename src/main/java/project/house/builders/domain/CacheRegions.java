@@ -0,0 +1,17 @@
+package project.house.builders.domain;
+
+import java.util.List;
+
+public final class CacheRegions {
+    public static final String ENGINEER = "engineer";
+    public static final String ENGINEER_HOUSES = "engineer.houses";
+    public static final String ARCHITECT = "architect";
+    public static final String ARCHITECT_HOUSES = "architect.houses";
+    public static final String HOUSE = "house";
+    public static final String QUERIES = "queries";
+
+    public static final List<String> ALL = List.of(ENGINEER, ENGINEER_HOUSES, ARCHITECT, ARCHITECT_HOUSES, HOUSE, QUERIES);
+
+    private CacheRegions(){
+    }
+}
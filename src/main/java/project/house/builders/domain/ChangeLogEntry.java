@@ -0,0 +1,72 @@
+package project.house.builders.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "change_log", indexes = {@Index(columnList = "changedAt"), @Index(columnList = "entityType, position")})
+public class ChangeLogEntry {
+    /**
+     * The row id, taken from a pooled sequence when the entry is written. It says nothing about the commit order.
+     */
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_seq")
+    @SequenceGenerator(name = "change_log_seq", sequenceName = "change_log_seq", allocationSize = 100)
+    @Column(name = "id")
+    private Long entryId;
+
+    /**
+     * The position in the feed, which ChangeLogSequencer sets once the entry is committed. Entries without one are not read yet.
+     */
+    @Schema(description = "This is the position of the change in the feed, increasing with every change", example = "1042")
+    @Column(name = "position", unique = true)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Schema(description = "This is UPSERT when the entity was created or changed, DELETE when it was removed", example = "UPSERT")
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    @Schema(description = "For a house, this is the engineer it has after the change", example = "3")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long engineerId;
+
+    @Schema(description = "For a house, this is the architect it has after the change", example = "4")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long architectId;
+
+    @Schema(description = "For a house, this is the engineer it had before the change", example = "2")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long previousEngineerId;
+
+    @Schema(description = "For a house, this is the architect it had before the change", example = "4")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long previousArchitectId;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    public enum EntityType { HOUSE, ENGINEER, ARCHITECT }
+
+    public enum Operation { UPSERT, DELETE }
+}
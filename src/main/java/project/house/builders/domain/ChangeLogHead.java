@@ -0,0 +1,32 @@
+package project.house.builders.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "change_log_head")
+public class ChangeLogHead {
+    public static final long ID = 1;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long lastId;
+
+    /**
+     * Every change up to this id may have been pruned. It is raised before the entries are deleted.
+     */
+    @Column(nullable = false)
+    private long prunedUpTo;
+}
@@ -1,6 +1,7 @@
 package project.house.builders.domain;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
@@ -9,6 +10,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,15 +22,28 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ENGINEER)
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Engineer {
     @NotEmpty(message = "Engineer name cannot be empty")
     private String name;
 
+    @Column(unique = true)
+    private String externalId;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "engineer_seq")
+    @SequenceGenerator(name = "engineer_seq", sequenceName = "engineer_seq", allocationSize = 100)
     private Long id;
 
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ENGINEER_HOUSES)
     @OneToMany(mappedBy = "engineer", cascade = CascadeType.MERGE)
     private List<House> houses = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package project.house.builders.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(indexes = @Index(columnList = "createdAt"))
+public class IdempotencyRecord {
+    public static final int PENDING = 0;
+
+    @Id
+    @Column(length = 64)
+    private String idempotencyKey;
+
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    private int status;
+
+    private String contentType;
+
+    private String eTag;
+
+    private String location;
+
+    @Lob
+    @Column(length = 1_048_576)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
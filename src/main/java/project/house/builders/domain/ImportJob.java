@@ -0,0 +1,72 @@
+package project.house.builders.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+public class ImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_job_seq")
+    @SequenceGenerator(name = "import_job_seq", sequenceName = "import_job_seq", allocationSize = 1)
+    private Long id;
+
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Schema(description = "This is what the file imports", example = "HOUSES")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "import_type", nullable = false, length = 16)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Format format;
+
+    @Schema(description = "This is RUNNING while rows are written, then COMPLETED, or FAILED when the file could not be read to the end", example = "RUNNING")
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private String fileName;
+
+    @Schema(description = "This is the number of the last row written, counting from 1. A resumed import starts after it", example = "1500")
+    private long lastCommittedRow;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    @Column(length = 1000)
+    private String failure;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    @JsonIgnore
+    @Column(length = 64)
+    private String owner;
+
+    @JsonIgnore
+    private Instant heartbeatAt;
+
+    public enum Type { HOUSES, ENGINEERS, ARCHITECTS }
+
+    public enum Format { CSV, JSON }
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+}
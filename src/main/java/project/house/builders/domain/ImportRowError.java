@@ -0,0 +1,31 @@
+package project.house.builders.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(indexes = @Index(columnList = "jobId, rowNumber"))
+public class ImportRowError {
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_row_error_seq")
+    @SequenceGenerator(name = "import_row_error_seq", sequenceName = "import_row_error_seq", allocationSize = 100)
+    private Long id;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long jobId;
+
+    private long rowNumber;
+
+    @Column(length = 500)
+    private String message;
+}
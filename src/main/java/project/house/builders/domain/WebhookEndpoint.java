@@ -0,0 +1,66 @@
+package project.house.builders.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+public class WebhookEndpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_endpoint_seq")
+    @SequenceGenerator(name = "webhook_endpoint_seq", sequenceName = "webhook_endpoint_seq", allocationSize = 1)
+    private Long id;
+
+    @Schema(description = "This is the URL the changes are posted to", example = "https://billing.internal/hooks/houses")
+    @Column(nullable = false, length = 2000)
+    private String url;
+
+    @Schema(description = "When set, each delivery carries an X-Webhook-Signature header with the HMAC-SHA256 of the body under this secret")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String secret;
+
+    @Schema(description = "This is the entity types delivered, all of them when empty", example = "[\"HOUSE\"]")
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "webhook_endpoint_type", joinColumns = @JoinColumn(name = "endpoint_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private Set<ChangeLogEntry.EntityType> types = new HashSet<>();
+
+    @Schema(description = "This is the position in the /changes feed delivered so far", example = "1042")
+    private long deliveredUpTo;
+
+    @Schema(description = "This is the number of failed attempts since the last successful delivery", example = "0")
+    private int failures;
+
+    @Schema(description = "While the endpoint fails, this is when the next attempt is made")
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant lastDeliveredAt;
+
+    @JsonIgnore
+    @Column(length = 64)
+    private String leaseOwner;
+
+    @JsonIgnore
+    private Instant leaseUntil;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
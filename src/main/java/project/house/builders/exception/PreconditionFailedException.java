@@ -0,0 +1,13 @@
+package project.house.builders.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException{
+    public static final String CHANGED_CONCURRENTLY = "The resource was changed by another request.";
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package project.house.builders.exception;
+
+import lombok.Getter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@SuperBuilder
+public class PreconditionFailedExceptionDetails extends ExceptionDetails {
+
+}
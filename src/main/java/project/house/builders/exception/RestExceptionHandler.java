@@ -0,0 +1,49 @@
+package project.house.builders.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.time.LocalDateTime;
+
+@ControllerAdvice
+public class RestExceptionHandler {
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ServiceUnavailableExceptionDetails> handleServiceUnavailableException(ServiceUnavailableException exception){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(ServiceUnavailableExceptionDetails.builder()
+                        .title("Service Unavailable, try again later")
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .details(exception.getMessage())
+                        .developerMessage(exception.getClass().getName())
+                        .timestamp(LocalDateTime.now())
+                        .retryAfterSeconds(exception.getRetryAfterSeconds())
+                        .build());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<PreconditionFailedExceptionDetails> handlePreconditionFailedException(PreconditionFailedException exception){
+        return preconditionFailed(exception);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<PreconditionFailedExceptionDetails> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception){
+        return preconditionFailed(new PreconditionFailedException(PreconditionFailedException.CHANGED_CONCURRENTLY));
+    }
+
+    private ResponseEntity<PreconditionFailedExceptionDetails> preconditionFailed(PreconditionFailedException exception){
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(PreconditionFailedExceptionDetails.builder()
+                        .title("Precondition Failed, fetch the resource again and retry")
+                        .status(HttpStatus.PRECONDITION_FAILED.value())
+                        .details(exception.getMessage())
+                        .developerMessage(exception.getClass().getName())
+                        .timestamp(LocalDateTime.now())
+                        .build());
+    }
+}
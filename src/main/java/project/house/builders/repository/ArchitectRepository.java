@@ -1,10 +1,51 @@
 package project.house.builders.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import project.house.builders.domain.CacheRegions;
 import project.house.builders.domain.Architect;
+import project.house.builders.responses.ArchitectResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ArchitectRepository extends JpaRepository<Architect, Long> {
+    String SELECT_ARCHITECT_RESPONSE = "select new project.house.builders.responses.ArchitectResponse(a.name, a.id, a.version) from Architect a ";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Architect> findByName(String name);
+
+    List<Architect> findByExternalIdIn(Collection<String> externalIds);
+
+    @Query("select new project.house.builders.repository.ExternalIdMapping(a.externalId, a.id) from Architect a where a.externalId is not null")
+    List<ExternalIdMapping> findExternalIds();
+
+    @Query(SELECT_ARCHITECT_RESPONSE + "where a.id = :id")
+    Optional<ArchitectResponse> findResponseById(@Param("id") Long id);
+
+    @Query("select a.version from Architect a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
+    @Query(SELECT_ARCHITECT_RESPONSE + "where a.name = :name order by a.id")
+    List<ArchitectResponse> findResponsesByName(@Param("name") String name);
+
+    @Query(SELECT_ARCHITECT_RESPONSE + "where a.id > :id")
+    Slice<ArchitectResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_ARCHITECT_RESPONSE)
+    Slice<ArchitectResponse> findAllResponses(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package project.house.builders.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import project.house.builders.domain.ChangeLogEntry;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeLogEntryRepository extends JpaRepository<ChangeLogEntry, Long> {
+    Slice<ChangeLogEntry> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select coalesce(max(c.id), 0) from ChangeLogEntry c")
+    long findLastId();
+
+    @Query("select coalesce(min(c.id), 0) from ChangeLogEntry c")
+    long findFirstId();
+
+    @Query("select coalesce(max(c.id), 0) from ChangeLogEntry c where c.changedAt < :changedBefore")
+    long findLastIdChangedBefore(Instant changedBefore);
+
+    /**
+     * Returns, for each of the given entity types that has any changes, its last id and how many of its committed
+     * changes have no id yet, ordered by entity type.
+     */
+    @Query("select new project.house.builders.repository.ChangeLogTypeHead(coalesce(max(c.id), 0), " +
+            "(select count(u) from ChangeLogEntry u where u.entityType = c.entityType and u.id is null)) " +
+            "from ChangeLogEntry c where c.entityType in :entityTypes group by c.entityType order by c.entityType")
+    List<ChangeLogTypeHead> findHeadsByEntityTypeIn(Collection<ChangeLogEntry.EntityType> entityTypes);
+
+    @Query("select max(c.id) from ChangeLogEntry c group by c.entityType")
+    List<Long> findLastIdOfEachEntityType();
+
+    @Query("select c.entryId from ChangeLogEntry c where c.id is null order by c.entryId")
+    List<Long> findUnsequencedEntryIds(Pageable pageable);
+
+    /**
+     * Gives the entries of the range that have no id yet the id their entry id plus the offset, so they keep their order.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ChangeLogEntry c set c.id = c.entryId + :offset where c.id is null and c.entryId between :from and :to")
+    int sequence(long from, long to, long offset);
+
+    boolean existsByIdNotNull();
+
+    @Query("select coalesce(max(c.entryId), 0) from ChangeLogEntry c")
+    long findLastEntryId();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ChangeLogEntry c set c.id = c.entryId where c.id is null")
+    int sequenceAsEntryIds();
+
+    @Modifying
+    @Query("delete from ChangeLogEntry c where c.id > :after and c.id <= :upTo and c.id not in :keep")
+    int deleteByIdBetween(long after, long upTo, Collection<Long> keep);
+}
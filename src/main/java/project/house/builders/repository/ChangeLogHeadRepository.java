@@ -0,0 +1,34 @@
+package project.house.builders.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import project.house.builders.domain.ChangeLogHead;
+
+public interface ChangeLogHeadRepository extends JpaRepository<ChangeLogHead, Long> {
+    /**
+     * Moves the head past the given number of ids. The updated row stays locked until the transaction ends.
+     */
+    @Modifying
+    @Query("update ChangeLogHead h set h.lastId = h.lastId + :count where h.id = " + ChangeLogHead.ID)
+    int advance(long count);
+
+    @Query("select h.lastId from ChangeLogHead h where h.id = " + ChangeLogHead.ID)
+    long findLastId();
+
+    /**
+     * Reads the last id and keeps the row locked until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h.lastId from ChangeLogHead h where h.id = " + ChangeLogHead.ID)
+    long lockLastId();
+
+    @Modifying
+    @Query("update ChangeLogHead h set h.prunedUpTo = :upTo where h.id = " + ChangeLogHead.ID + " and h.prunedUpTo < :upTo")
+    int raisePrunedUpTo(long upTo);
+
+    @Query("select h.prunedUpTo from ChangeLogHead h where h.id = " + ChangeLogHead.ID)
+    long findPrunedUpTo();
+}
@@ -0,0 +1,4 @@
+package project.house.builders.repository;
+
+public record ChangeLogTypeHead(Long lastId, Long unsequenced) {
+}
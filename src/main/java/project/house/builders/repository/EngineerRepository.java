@@ -1,10 +1,51 @@
 package project.house.builders.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import project.house.builders.domain.CacheRegions;
 import project.house.builders.domain.Engineer;
+import project.house.builders.responses.EngineerResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface EngineerRepository extends JpaRepository<Engineer, Long> {
+    String SELECT_ENGINEER_RESPONSE = "select new project.house.builders.responses.EngineerResponse(e.name, e.id, e.version) from Engineer e ";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Engineer> findByName(String name);
+
+    List<Engineer> findByExternalIdIn(Collection<String> externalIds);
+
+    @Query("select new project.house.builders.repository.ExternalIdMapping(e.externalId, e.id) from Engineer e where e.externalId is not null")
+    List<ExternalIdMapping> findExternalIds();
+
+    @Query(SELECT_ENGINEER_RESPONSE + "where e.id = :id")
+    Optional<EngineerResponse> findResponseById(@Param("id") Long id);
+
+    @Query("select e.version from Engineer e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
+    @Query(SELECT_ENGINEER_RESPONSE + "where e.name = :name order by e.id")
+    List<EngineerResponse> findResponsesByName(@Param("name") String name);
+
+    @Query(SELECT_ENGINEER_RESPONSE + "where e.id > :id")
+    Slice<EngineerResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_ENGINEER_RESPONSE)
+    Slice<EngineerResponse> findAllResponses(Pageable pageable);
 }
\ No newline at end of file
@@ -1,10 +1,97 @@
 package project.house.builders.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import project.house.builders.domain.Architect;
+import project.house.builders.domain.CacheRegions;
+import project.house.builders.domain.Engineer;
 import project.house.builders.domain.House;
+import project.house.builders.responses.HouseResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface HouseRepository extends JpaRepository<House, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+    String SELECT_HOUSE_RESPONSE = "select new project.house.builders.responses.HouseResponse(h.id, h.projectName, h.engineer.id, h.architect.id, h.version) from House h ";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<House> findByProjectName(String projectName);
+
+    @Query(SELECT_HOUSE_RESPONSE + "where h.id = :id")
+    Optional<HouseResponse> findResponseById(@Param("id") Long id);
+
+    @Query("select h.version from House h where h.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
+    @Query(SELECT_HOUSE_RESPONSE + "where h.projectName = :projectName order by h.id")
+    List<HouseResponse> findResponsesByProjectName(@Param("projectName") String projectName);
+
+    @Query(SELECT_HOUSE_RESPONSE + "where h.id in :ids")
+    List<HouseResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_HOUSE_RESPONSE + "where h.id > :id")
+    Slice<HouseResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_HOUSE_RESPONSE)
+    Slice<HouseResponse> findAllResponses(Pageable pageable);
+
+    @Query(SELECT_HOUSE_RESPONSE + "where h.engineer.id in :engineerIds order by h.id")
+    List<HouseResponse> findResponsesByEngineerIdIn(@Param("engineerIds") Collection<Long> engineerIds);
+
+    @Query(SELECT_HOUSE_RESPONSE + "where h.architect.id in :architectIds order by h.id")
+    List<HouseResponse> findResponsesByArchitectIdIn(@Param("architectIds") Collection<Long> architectIds);
+
+    /**
+     * Returns the houses of the engineer and locks them until the transaction ends, so they can only be moved by
+     * the caller, after it has recorded them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_HOUSE_RESPONSE + "where h.engineer.id = :engineerId order by h.id")
+    List<HouseResponse> lockResponsesByEngineerId(@Param("engineerId") Long engineerId);
+
+    /**
+     * Returns the houses of the architect and locks them until the transaction ends, so they can only be moved by
+     * the caller, after it has recorded them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_HOUSE_RESPONSE + "where h.architect.id = :architectId order by h.id")
+    List<HouseResponse> lockResponsesByArchitectId(@Param("architectId") Long architectId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned House h set h.engineer = :to where h.id in :ids")
+    int reassignEngineer(@Param("ids") Collection<Long> ids, @Param("to") Engineer to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned House h set h.architect = :to where h.id in :ids")
+    int reassignArchitect(@Param("ids") Collection<Long> ids, @Param("to") Architect to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from House h where h.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_HOUSE_RESPONSE + "order by h.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<HouseResponse> streamAllForExport();
 }
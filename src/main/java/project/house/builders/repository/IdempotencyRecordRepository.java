@@ -0,0 +1,31 @@
+package project.house.builders.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import project.house.builders.domain.IdempotencyRecord;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    Optional<IdempotencyRecord> findByIdempotencyKeyAndCreatedAtAfter(String idempotencyKey, Instant createdAfter);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :createdBefore")
+    int deleteExpired(Instant createdBefore);
+
+    @Modifying
+    @Query("insert into IdempotencyRecord (idempotencyKey, requestHash, status, createdAt) values (:key, :requestHash, 0, :now)")
+    int insertPending(String key, String requestHash, Instant now);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.requestHash = :requestHash, r.status = 0, r.contentType = null, r.eTag = null, " +
+            "r.location = null, r.body = null, r.createdAt = :now " +
+            "where r.idempotencyKey = :key and ((r.status = 0 and r.createdAt < :pendingBefore) or r.createdAt < :expiredBefore)")
+    int reserveAbandoned(String key, String requestHash, Instant pendingBefore, Instant expiredBefore, Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.status = 0")
+    int deletePending(String key);
+}
@@ -0,0 +1,27 @@
+package project.house.builders.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import project.house.builders.domain.ImportJob;
+
+import java.time.Instant;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ImportJob j set j.heartbeatAt = :now where j.owner = :owner and j.status = :status")
+    int heartbeat(String owner, ImportJob.Status status, Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ImportJob j set j.status = :to, j.failure = :failure, j.updatedAt = :now, j.version = j.version + 1 where j.status = :from and j.owner = :owner")
+    int updateStatusOfOwner(String owner, ImportJob.Status from, ImportJob.Status to, String failure, Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ImportJob j set j.status = :to, j.failure = :failure, j.updatedAt = :now, j.version = j.version + 1 where j.id = :id and j.status = :from and j.owner = :owner")
+    int updateStatusOfJob(long id, String owner, ImportJob.Status from, ImportJob.Status to, String failure, Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ImportJob j set j.status = :to, j.failure = :failure, j.updatedAt = :now, j.version = j.version + 1 " +
+            "where j.status = :from and (j.heartbeatAt is null or j.heartbeatAt < :staleBefore)")
+    int updateStatusOfStale(Instant staleBefore, ImportJob.Status from, ImportJob.Status to, String failure, Instant now);
+}
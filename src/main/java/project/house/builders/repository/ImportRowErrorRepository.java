@@ -0,0 +1,10 @@
+package project.house.builders.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import project.house.builders.domain.ImportRowError;
+
+import java.util.List;
+
+public interface ImportRowErrorRepository extends JpaRepository<ImportRowError, Long> {
+    List<ImportRowError> findByJobIdOrderByRowNumber(Long jobId);
+}
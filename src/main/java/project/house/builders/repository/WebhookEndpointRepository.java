@@ -0,0 +1,40 @@
+package project.house.builders.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import project.house.builders.domain.WebhookEndpoint;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface WebhookEndpointRepository extends JpaRepository<WebhookEndpoint, Long> {
+    @Query("select distinct e from WebhookEndpoint e left join fetch e.types order by e.id")
+    List<WebhookEndpoint> findAllWithTypes();
+
+    /**
+     * Leases the endpoint to the owner until the given time, unless another owner holds an unexpired lease or the
+     * endpoint is waiting out a backoff. Returns 1 when the lease was taken.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update WebhookEndpoint e set e.leaseOwner = :owner, e.leaseUntil = :until where e.id = :id " +
+            "and (e.leaseUntil is null or e.leaseUntil < :now) and (e.nextAttemptAt is null or e.nextAttemptAt <= :now)")
+    int claim(Long id, String owner, Instant now, Instant until);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update WebhookEndpoint e set e.leaseOwner = null, e.leaseUntil = null where e.id = :id and e.leaseOwner = :owner")
+    int release(Long id, String owner);
+
+    /**
+     * Moves the endpoint forward and extends the lease, only while the owner still holds it and only forward.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update WebhookEndpoint e set e.deliveredUpTo = :upTo, e.failures = 0, e.nextAttemptAt = null, e.lastError = null, " +
+            "e.lastDeliveredAt = :now, e.leaseUntil = :until where e.id = :id and e.leaseOwner = :owner and e.deliveredUpTo < :upTo")
+    int markDelivered(Long id, String owner, long upTo, Instant now, Instant until);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update WebhookEndpoint e set e.failures = :failures, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+            "where e.id = :id and e.leaseOwner = :owner")
+    int markFailed(Long id, String owner, int failures, Instant nextAttemptAt, String error);
+}
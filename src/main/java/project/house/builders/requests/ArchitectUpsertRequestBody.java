@@ -0,0 +1,18 @@
+package project.house.builders.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchitectUpsertRequestBody {
+    @Schema(description = "This is the id of the architect in the system that owns the roster, unique for each architect", example = "HR-1042")
+    public String externalId;
+    @Schema(description = "This is the name of the architect", example = "Jack Marston the architect")
+    public String name;
+}
@@ -0,0 +1,18 @@
+package project.house.builders.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EngineerUpsertRequestBody {
+    @Schema(description = "This is the id of the engineer in the system that owns the roster, unique for each engineer", example = "HR-1042")
+    public String externalId;
+    @Schema(description = "This is the name of the engineer", example = "Jack Marston the engineer")
+    public String name;
+}
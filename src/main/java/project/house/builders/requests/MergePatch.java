@@ -0,0 +1,51 @@
+package project.house.builders.requests;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import project.house.builders.exception.BadRequestException;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A JSON Merge Patch (RFC 7396) document. Only the members it contains are applied, and a null member
+ * clears the field. The resources of this API are flat, so every member is read as a single value.
+ */
+public class MergePatch {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectNode document;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public MergePatch(ObjectNode document){
+        this.document = document;
+    }
+
+    public void requireOnly(String... fields){
+        Set<String> allowed = Set.of(fields);
+        Iterator<String> names = document.fieldNames();
+        while(names.hasNext()){
+            String name = names.next();
+            if(!allowed.contains(name)) throw new BadRequestException("Field " + name + " cannot be patched.");
+        }
+    }
+
+    public boolean has(String field){
+        return document.has(field);
+    }
+
+    public String text(String field){
+        JsonNode value = document.get(field);
+        if(value == null || value.isNull()) return null;
+        if(!value.isTextual()) throw new BadRequestException("Field " + field + " must be a string.");
+        return value.textValue();
+    }
+
+    public Long id(String field){
+        JsonNode value = document.get(field);
+        if(value == null || value.isNull()) return null;
+        if(!value.canConvertToLong() || !value.isIntegralNumber()) throw new BadRequestException("Field " + field + " must be an id.");
+        return value.longValue();
+    }
+}
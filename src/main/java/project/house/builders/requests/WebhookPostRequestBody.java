@@ -0,0 +1,23 @@
+package project.house.builders.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import project.house.builders.domain.ChangeLogEntry;
+
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebhookPostRequestBody {
+    @Schema(description = "This is the http or https URL the changes are posted to", example = "https://billing.internal/hooks/houses")
+    public String url;
+    @Schema(description = "This is the secret used to sign each delivery (optional)", example = "s3cr3t")
+    public String secret;
+    @Schema(description = "This is the entity types to deliver, all of them when empty (optional)", example = "[\"HOUSE\"]")
+    public Set<ChangeLogEntry.EntityType> types;
+}
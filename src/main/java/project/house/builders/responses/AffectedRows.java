@@ -0,0 +1,8 @@
+package project.house.builders.responses;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record AffectedRows(
+        @Schema(description = "This is the number of records changed or deleted", example = "12")
+        int affected) {
+}
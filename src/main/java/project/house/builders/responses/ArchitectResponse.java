@@ -0,0 +1,29 @@
+package project.house.builders.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record ArchitectResponse(
+        @Schema(description = "This is the architect's name", example = "Matheus")
+        String name,
+        @Schema(description = "This is the id of the architect", example = "1")
+        Long id,
+        @Schema(description = "These are the house projects this architect participates in")
+        List<HouseResponse> houses,
+        @JsonIgnore
+        long version) {
+
+    public ArchitectResponse(String name, Long id, long version){
+        this(name, id, List.of(), version);
+    }
+
+    public ArchitectResponse(String name, Long id){
+        this(name, id, List.of(), 0);
+    }
+
+    public ArchitectResponse withHouses(List<HouseResponse> houses){
+        return new ArchitectResponse(name, id, houses, version);
+    }
+}
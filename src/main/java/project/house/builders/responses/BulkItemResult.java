@@ -0,0 +1,32 @@
+package project.house.builders.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(
+        @Schema(description = "This is the position of the item in the request", example = "0")
+        int index,
+        @Schema(description = "This is the id of the created record, when the item was created", example = "12")
+        Long id,
+        @Schema(description = "This is the reason the item was rejected, when it was", example = "Engineer not found")
+        String error) {
+
+    public static BulkItemResult created(int index, Long id){
+        return new BulkItemResult(index, id, null);
+    }
+
+    public static BulkItemResult rejected(int index, String error){
+        return new BulkItemResult(index, null, error);
+    }
+
+    public static BulkItemResult skipped(int index){
+        return new BulkItemResult(index, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isRejected(){
+        return error != null;
+    }
+}
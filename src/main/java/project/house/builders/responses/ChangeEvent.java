@@ -0,0 +1,36 @@
+package project.house.builders.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import project.house.builders.domain.ChangeLogEntry;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ChangeEvent(
+        @JsonIgnore
+        long sequence,
+        @Schema(description = "This is the type of the entity that changed", example = "HOUSE")
+        ChangeLogEntry.EntityType entityType,
+        @Schema(description = "This is the id of the entity that changed", example = "12")
+        Long id,
+        @Schema(description = "This is UPSERT when the entity was created or changed, DELETE when it was removed", example = "UPSERT")
+        ChangeLogEntry.Operation operation,
+        @Schema(description = "For houses, the engineers the change concerns: the current one and, when the house moved, the previous one", example = "[3]")
+        Set<Long> engineerIds,
+        @Schema(description = "For houses, the architects the change concerns: the current one and, when the house moved, the previous one", example = "[2]")
+        Set<Long> architectIds) {
+
+    public static ChangeEvent of(ChangeLogEntry entry){
+        return new ChangeEvent(entry.getId(), entry.getEntityType(), entry.getEntityId(), entry.getOperation(),
+                setOf(entry.getEngineerId(), entry.getPreviousEngineerId()), setOf(entry.getArchitectId(), entry.getPreviousArchitectId()));
+    }
+
+    private static Set<Long> setOf(Long current, Long previous){
+        return Stream.of(current, previous).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
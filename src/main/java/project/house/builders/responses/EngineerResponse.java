@@ -0,0 +1,29 @@
+package project.house.builders.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record EngineerResponse(
+        @Schema(description = "This is the engineer's name", example = "Matheus")
+        String name,
+        @Schema(description = "This is the id of the engineer", example = "1")
+        Long id,
+        @Schema(description = "These are the house projects this engineer participates in")
+        List<HouseResponse> houses,
+        @JsonIgnore
+        long version) {
+
+    public EngineerResponse(String name, Long id, long version){
+        this(name, id, List.of(), version);
+    }
+
+    public EngineerResponse(String name, Long id){
+        this(name, id, List.of(), 0);
+    }
+
+    public EngineerResponse withHouses(List<HouseResponse> houses){
+        return new EngineerResponse(name, id, houses, version);
+    }
+}
@@ -0,0 +1,24 @@
+package project.house.builders.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record HouseResponse(
+        @Schema(description = "This is the id of the house", example = "1")
+        Long id,
+        @Schema(description = "This is the project name (house name)", example = "Silva's family house")
+        String projectName,
+        @Schema(description = "This is the id of the engineer of this house, if any", example = "3")
+        @JsonProperty("engineer")
+        Long engineerId,
+        @Schema(description = "This is the id of the architect of this house, if any", example = "2")
+        @JsonProperty("architect")
+        Long architectId,
+        @JsonIgnore
+        long version) {
+
+    public HouseResponse(Long id, String projectName, Long engineerId, Long architectId){
+        this(id, projectName, engineerId, architectId, 0);
+    }
+}
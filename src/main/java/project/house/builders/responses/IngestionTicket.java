@@ -0,0 +1,30 @@
+package project.house.builders.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IngestionTicket(
+        @Schema(description = "This is the ticket to ask for the outcome of the creation", example = "2b1f0c52-8d6e-4d43-9d1c-6f0f3f1a9e27")
+        String ticket,
+        @Schema(description = "This is QUEUED until the house is written, then CREATED or REJECTED", example = "CREATED")
+        Status status,
+        @Schema(description = "This is the id of the created house, when it was created", example = "12")
+        Long houseId,
+        @Schema(description = "This is the reason the house was rejected, when it was", example = "Engineer not found")
+        String error) {
+
+    public enum Status { QUEUED, CREATED, REJECTED }
+
+    public static IngestionTicket queued(String ticket){
+        return new IngestionTicket(ticket, Status.QUEUED, null, null);
+    }
+
+    public static IngestionTicket created(String ticket, Long houseId){
+        return new IngestionTicket(ticket, Status.CREATED, houseId, null);
+    }
+
+    public static IngestionTicket rejected(String ticket, String error){
+        return new IngestionTicket(ticket, Status.REJECTED, null, error);
+    }
+}
@@ -0,0 +1,12 @@
+package project.house.builders.responses;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record UpsertResult(
+        @Schema(description = "This is the number of records created", example = "3")
+        int inserted,
+        @Schema(description = "This is the number of records whose fields changed", example = "1")
+        int updated,
+        @Schema(description = "This is the number of records that were already up to date", example = "250")
+        int unchanged) {
+}
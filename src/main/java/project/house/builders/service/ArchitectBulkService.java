@@ -0,0 +1,92 @@
+package project.house.builders.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.house.builders.domain.Architect;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.requests.ArchitectUpsertRequestBody;
+import project.house.builders.responses.UpsertResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates or updates many architects at once, matched by their external id. The existing architects are
+ * loaded with one query, new ones are inserted in JDBC batches, and the changed ones are flushed as
+ * batched updates. Architects that did not change are not written.
+ */
+@Service
+public class ArchitectBulkService {
+    private final ArchitectRepository architectRepository;
+    private final PaginationService paginationService;
+    private final ChangeLog changeLog;
+    private final int maxSize;
+
+    public ArchitectBulkService(ArchitectRepository architectRepository,
+                               PaginationService paginationService,
+                               ChangeLog changeLog,
+                               @Value("${api.bulk.max-size:1000}") int maxSize){
+        this.architectRepository = architectRepository;
+        this.paginationService = paginationService;
+        this.changeLog = changeLog;
+        this.maxSize = maxSize;
+    }
+
+    @Transactional
+    public UpsertResult upsertAll(List<ArchitectUpsertRequestBody> architectUpsertRequestBodies){
+        validate(architectUpsertRequestBodies);
+        Map<String, Architect> existing = architectRepository.findByExternalIdIn(architectUpsertRequestBodies.stream().map(ArchitectUpsertRequestBody::getExternalId).toList())
+                .stream()
+                .collect(Collectors.toMap(Architect::getExternalId, Function.identity()));
+
+        List<Architect> inserted = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        for(ArchitectUpsertRequestBody architectUpsertRequestBody : architectUpsertRequestBodies){
+            Architect architect = existing.get(architectUpsertRequestBody.getExternalId());
+            if(architect == null){
+                inserted.add(Architect.builder()
+                        .externalId(architectUpsertRequestBody.getExternalId())
+                        .name(architectUpsertRequestBody.getName())
+                        .build());
+            } else if(!Objects.equals(architect.getName(), architectUpsertRequestBody.getName())){
+                architect.setName(architectUpsertRequestBody.getName());
+                updated.add(architect.getId());
+            }
+        }
+        if(!inserted.isEmpty()){
+            architectRepository.saveAll(inserted);
+            paginationService.evictCount(Architect.class);
+        }
+        if(!inserted.isEmpty() || !updated.isEmpty()){
+            changeLog.upserted(Architect.class, Stream.concat(inserted.stream().map(Architect::getId), updated.stream()).toList());
+        }
+        return new UpsertResult(inserted.size(), updated.size(), existing.size() - updated.size());
+    }
+
+    private void validate(List<ArchitectUpsertRequestBody> architectUpsertRequestBodies){
+        if(architectUpsertRequestBodies == null || architectUpsertRequestBodies.isEmpty()) throw new BadRequestException("The request must contain at least one architect.");
+        if(architectUpsertRequestBodies.size() > maxSize) throw new BadRequestException("A bulk request accepts at most " + maxSize + " architects.");
+        Set<String> externalIds = new HashSet<>();
+        for(int i = 0; i < architectUpsertRequestBodies.size(); i++){
+            ArchitectUpsertRequestBody architectUpsertRequestBody = architectUpsertRequestBodies.get(i);
+            if(architectUpsertRequestBody == null || architectUpsertRequestBody.getExternalId() == null || architectUpsertRequestBody.getExternalId().isBlank()){
+                throw new BadRequestException("Architect at index " + i + " must have an external id.");
+            }
+            if(architectUpsertRequestBody.getName() == null || architectUpsertRequestBody.getName().isEmpty()){
+                throw new BadRequestException("Architect at index " + i + " must have a name.");
+            }
+            if(!externalIds.add(architectUpsertRequestBody.getExternalId())){
+                throw new BadRequestException("External id " + architectUpsertRequestBody.getExternalId() + " appears more than once.");
+            }
+        }
+    }
+}
@@ -1,50 +1,123 @@
 package project.house.builders.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import project.house.builders.domain.Architect;
 import project.house.builders.exception.BadRequestException;
-import project.house.builders.mapper.ArchitectMapper;
 import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.ArchitectPostRequestBody;
 import project.house.builders.requests.ArchitectPutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.ArchitectResponse;
+import project.house.builders.responses.HouseResponse;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ArchitectService {
 
     private final ArchitectRepository architectRepository;
+    private final HouseRepository houseRepository;
+    private final PaginationService paginationService;
+    private final ChangeLog changeLog;
+    private final Validator validator;
 
-    public List<Architect> listAll(){
-        return architectRepository.findAll();
+    @Transactional(readOnly = true)
+    public ResultPage<ArchitectResponse> listAll(String cursor, Integer page, Integer size){
+        ResultPage<ArchitectResponse> result;
+        if(page != null){
+            if(cursor != null) throw new BadRequestException("Use either cursor or page, not both.");
+            result = paginationService.offsetPage(architectRepository.findAllResponses(paginationService.offsetPageable(page, size)), Architect.class, architectRepository::count);
+        } else {
+            result = paginationService.keysetPage(architectRepository.findResponsesByIdGreaterThan(paginationService.decodeCursor(cursor), paginationService.keysetPageable(size)), ArchitectResponse::id);
+        }
+        return result.withContent(withHouses(result.content()));
     }
 
-    public List<Architect> findByName(String name){
-        return architectRepository.findByName(name);
+    @Transactional(readOnly = true)
+    public List<ArchitectResponse> findByName(String name){
+        return withHouses(architectRepository.findResponsesByName(name));
     }
 
-    public Architect findByIdOrThrowBadRequestException(long id){
-        return architectRepository.findById(id)
+    @Transactional(readOnly = true)
+    public ArchitectResponse findByIdOrThrowBadRequestException(long id){
+        ArchitectResponse architect = architectRepository.findResponseById(id)
                 .orElseThrow(() -> new BadRequestException("Architect not found."));
+        return withHouses(List.of(architect)).get(0);
+    }
+
+    public Optional<Long> findVersion(long id){
+        return architectRepository.findVersionById(id);
     }
 
+    @Transactional
     public Architect save(final ArchitectPostRequestBody architectPostRequestBody){
         final var architect = Architect.builder()
                 .name(architectPostRequestBody.getName())
                 .build();
-        return architectRepository.save(architect);
+        Architect savedArchitect = architectRepository.save(architect);
+        paginationService.evictCount(Architect.class);
+        changeLog.upserted(Architect.class, List.of(savedArchitect.getId()));
+        return savedArchitect;
+    }
+
+    @Transactional
+    public void delete(long id, String ifMatch){
+        Architect architect = findOrThrowBadRequestException(id);
+        EntityVersion.checkIfMatch(ifMatch, architect.getVersion());
+        architectRepository.delete(architect);
+        paginationService.evictCount(Architect.class);
+        changeLog.deleted(Architect.class, List.of(id));
+    }
+
+    @Transactional
+    public long replace(ArchitectPutRequestBody architectPutRequestBody, String ifMatch){
+        Architect architect = findOrThrowBadRequestException(architectPutRequestBody.getId());
+        EntityVersion.checkIfMatch(ifMatch, architect.getVersion());
+        architect.setName(architectPutRequestBody.getName());
+        architectRepository.saveAndFlush(architect);
+        changeLog.upserted(Architect.class, List.of(architect.getId()));
+        return architect.getVersion();
     }
 
-    public void delete(long id){
-        architectRepository.delete(findByIdOrThrowBadRequestException(id));
+    @Transactional
+    public long patch(long id, MergePatch patch, String ifMatch){
+        patch.requireOnly("name");
+        Architect architect = findOrThrowBadRequestException(id);
+        EntityVersion.checkIfMatch(ifMatch, architect.getVersion());
+        if(patch.has("name")) architect.setName(patch.text("name"));
+        validate(architect);
+        architectRepository.flush();
+        changeLog.upserted(Architect.class, List.of(architect.getId()));
+        return architect.getVersion();
+    }
+
+    private void validate(Architect architect){
+        Set<ConstraintViolation<Architect>> violations = validator.validate(architect);
+        if(!violations.isEmpty()) throw new BadRequestException(violations.iterator().next().getMessage());
+    }
+
+    private Architect findOrThrowBadRequestException(long id){
+        return architectRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Architect not found."));
     }
 
-    public void replace(ArchitectPutRequestBody architectPutRequestBody) {
-        Architect savedArchitect = findByIdOrThrowBadRequestException(architectPutRequestBody.getId());
-        Architect architect = ArchitectMapper.INSTANCE.toArchitect(architectPutRequestBody);
-        architect.setId(savedArchitect.getId());
-        architectRepository.save(architect);
+    private List<ArchitectResponse> withHouses(List<ArchitectResponse> architects){
+        if(architects.isEmpty()) return architects;
+        Map<Long, List<HouseResponse>> housesByArchitect = houseRepository.findResponsesByArchitectIdIn(architects.stream().map(ArchitectResponse::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(HouseResponse::architectId));
+        return architects.stream()
+                .map(architect -> architect.withHouses(housesByArchitect.getOrDefault(architect.id(), List.of())))
+                .toList();
     }
 }
@@ -1,41 +1,112 @@
 package project.house.builders.service;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import project.house.builders.exception.BadRequestException;
 import project.house.builders.user.AuthenticationRequestBody;
 import project.house.builders.user.RegisterRequestBody;
+import project.house.builders.user.RoleChangeRequestBody;
 import project.house.builders.user.User;
 import project.house.builders.user.UserRepository;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
 public class AuthenticationService {
-    @Autowired
-    private AuthenticationManager authenticationManager;
+    private static final String BAD_CREDENTIALS = "Bad credentials";
+
+    private final UserDetailsChecker userDetailsChecker = new AccountStatusUserDetailsChecker();
+    private volatile String userNotFoundPassword;
     @Autowired
     private UserRepository repository;
     @Autowired
     private TokenService tokenService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private AuthorizationService authorizationService;
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
 
-    public String authenticateAndGenerateToken(AuthenticationRequestBody data) {
-        var usernamePassword = new UsernamePasswordAuthenticationToken(data.login, data.password);
-        var auth = this.authenticationManager.authenticate(usernamePassword);
+    public CompletableFuture<String> authenticateAndGenerateToken(AuthenticationRequestBody data) {
+        User user;
+        try {
+            user = (User) authorizationService.loadUserByUsername(data.login);
+            userDetailsChecker.check(user);
+        } catch (UsernameNotFoundException exception){
+            // An unknown login still costs one password check, so it takes as long to answer as a wrong password
+            return passwordHashingExecutor.submit(() -> passwordEncoder.matches(data.password, userNotFoundPassword()))
+                    .thenApply(matches -> {
+                        throw new BadCredentialsException(BAD_CREDENTIALS);
+                    });
+        } catch (AuthenticationException exception){
+            return CompletableFuture.failedFuture(exception);
+        }
 
-        var token = tokenService.generateToken((User) auth.getPrincipal());
-        return token;
+        // Only the password check and a rehash run on the bounded hashing pool; the lookup, the save and the token do not hold its workers
+        return passwordHashingExecutor.submit(() -> passwordEncoder.matches(data.password, user.getPassword()))
+                .thenCompose(matches -> {
+                    if(!matches) throw new BadCredentialsException(BAD_CREDENTIALS);
+                    if(!passwordEncoder.upgradeEncoding(user.getPassword())) return CompletableFuture.completedFuture(user);
+                    return passwordHashingExecutor.submit(() -> passwordEncoder.encode(data.password))
+                            .thenApplyAsync(encodedPassword -> (User) authorizationService.updatePassword(user, encodedPassword), applicationTaskExecutor);
+                })
+                .thenApplyAsync(tokenService::generateToken, applicationTaskExecutor);
     }
 
-    public ResponseEntity registerNewUser(RegisterRequestBody data){
-        if(this.repository.findByLogin(data.login) != null) return ResponseEntity.badRequest().build();
-        if(data.password.isEmpty()) return ResponseEntity.badRequest().build();
+    public CompletableFuture<ResponseEntity> registerNewUser(RegisterRequestBody data){
+        if(this.repository.existsByLogin(data.login)) return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        if(data.password.isEmpty()) return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+
+        // Only the hash runs on the bounded hashing pool; the insert must not hold one of its workers
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(data.password))
+                .thenApplyAsync(encryptedPassword -> {
+                    User newUser = new User(data.login, encryptedPassword, data.role);
+                    repository.save(newUser);
+                    authorizationService.evict(newUser.getLogin());
+                    return ResponseEntity.ok().build();
+                }, applicationTaskExecutor);
+    }
+
+    public void changeRole(RoleChangeRequestBody data){
+        if(data.role == null) throw new BadRequestException("Role cannot be null");
+        User user = findUserOrThrowBadRequestException(data.login);
+        user.changeRole(data.role);
+        repository.save(user);
+        authorizationService.evict(user.getLogin());
+        tokenRevocationService.evict(user.getLogin());
+    }
+
+    public void disableUser(String login){
+        User user = findUserOrThrowBadRequestException(login);
+        user.disable();
+        repository.save(user);
+        authorizationService.evict(user.getLogin());
+        tokenRevocationService.evict(user.getLogin());
+    }
+
+    private String userNotFoundPassword(){
+        if(userNotFoundPassword == null) userNotFoundPassword = passwordEncoder.encode("userNotFoundPassword");
+        return userNotFoundPassword;
+    }
 
-        String encryptedPassword = new BCryptPasswordEncoder().encode(data.password);
-        User newUser = new User(data.login, encryptedPassword, data.role);
-        repository.save(newUser);
-        return ResponseEntity.ok().build();
+    private User findUserOrThrowBadRequestException(String login){
+        User user = (User) repository.findByLogin(login);
+        if(user == null) throw new BadRequestException("User not found.");
+        return user;
     }
 }
@@ -1,19 +1,55 @@
 package project.house.builders.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import project.house.builders.user.User;
 import project.house.builders.user.UserRepository;
 
+import java.time.Duration;
+
 @Service
-public class AuthorizationService implements UserDetailsService {
-    @Autowired
-    UserRepository repository;
+public class AuthorizationService implements UserDetailsService, UserDetailsPasswordService {
+    private final UserRepository repository;
+    private final Cache<String, UserDetails> userCache;
+
+    public AuthorizationService(UserRepository repository, MeterRegistry meterRegistry,
+                                @Value("${api.security.user-cache.max-size:10000}") long maxSize,
+                                @Value("${api.security.user-cache.ttl:5m}") Duration ttl) {
+        this.repository = repository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "userDetails");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return repository.findByLogin(username);
+        UserDetails user = userCache.get(username, repository::findByLogin);
+        if(user == null) throw new UsernameNotFoundException("User not found.");
+        return user;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) repository.findByLogin(userDetails.getUsername());
+        if(user == null) throw new UsernameNotFoundException("User not found.");
+        user.changePassword(newPassword);
+        repository.save(user);
+        evict(user.getLogin());
+        return user;
+    }
+
+    public void evict(String username){
+        userCache.invalidate(username);
     }
 }
@@ -0,0 +1,59 @@
+package project.house.builders.service;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose cost is picked for the host it runs on. Stored hashes with any other cost
+ * are reported as needing an upgrade, so the authentication provider rehashes them on the next
+ * successful login, whether the cost went up or down.
+ */
+@Log4j2
+@Getter
+public class CalibratedPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public CalibratedPasswordEncoder(int strength){
+        super(strength);
+        this.strength = strength;
+    }
+
+    public static CalibratedPasswordEncoder calibrate(Duration targetLatency, int minStrength, int maxStrength){
+        long nanosAtMinStrength = measure(minStrength);
+        int strength = minStrength;
+        while(strength < maxStrength && nanosAtMinStrength << (strength + 1 - minStrength) <= targetLatency.toNanos()){
+            strength++;
+        }
+        log.info("BCrypt strength {} selected, {} ms per hash at strength {} for a {} ms target",
+                strength, Duration.ofNanos(nanosAtMinStrength).toMillis(), minStrength, targetLatency.toMillis());
+        return new CalibratedPasswordEncoder(strength);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword){
+        if(encodedPassword == null || encodedPassword.isEmpty()) return false;
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if(!matcher.matches()) return false;
+        return Integer.parseInt(matcher.group(2)) != strength;
+    }
+
+    private static long measure(int strength){
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i < SAMPLES; i++){
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
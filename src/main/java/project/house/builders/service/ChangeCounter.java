@@ -0,0 +1,27 @@
+package project.house.builders.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import project.house.builders.repository.ChangeLogEntryRepository;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the tokens the list endpoints answer If-None-Match with, without running their queries. A token is the
+ * last change_log id of each of its entity types, followed by the number of its committed changes that
+ * ChangeLogSequencer has not given an id yet, so a change moves the token as soon as it commits. The change log is
+ * written in the same transaction as every change, so every instance reads the same token for the same committed
+ * data. Callers read the token before querying, so a token never describes older data than the response it is sent with.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeCounter {
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+
+    public String token(Class<?>... types){
+        return changeLogEntryRepository.findHeadsByEntityTypeIn(Arrays.stream(types).map(ChangeLog::entityType).toList()).stream()
+                .map(head -> head.unsequenced() == 0 ? String.valueOf(head.lastId()) : head.lastId() + "+" + head.unsequenced())
+                .collect(Collectors.joining("-", "c", ""));
+    }
+}
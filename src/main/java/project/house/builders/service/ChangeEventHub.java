@@ -0,0 +1,246 @@
+package project.house.builders.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.exception.ServiceUnavailableException;
+import project.house.builders.responses.ChangeEvent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the committed changes to the /events subscribers as server-sent events. Every instance tails the
+ * change_log table every api.events.poll-interval, so its subscribers see the changes committed on any instance,
+ * in the same order as /changes. A subscriber receives the changes after the end of the feed at the time it
+ * subscribed, including those committed before but not sequenced yet. Publishing only puts each
+ * event in the bounded buffer of every subscriber whose filter matches it; a small pool of sender threads
+ * writes the buffers out, so a slow client never holds up the transaction that made the change, nor the
+ * other clients. A subscriber whose buffer fills up is dropped and its stream closed: it reconnects and
+ * catches up through /changes, starting from the id of the last event it received.
+ */
+@Log4j2
+@Service
+public class ChangeEventHub {
+    public static final String EVENT_NAME = "change";
+    static final int CHANGES_PER_POLL = 500;
+
+    private final ChangeLog changeLog;
+    private final ChangeLogSequencer changeLogSequencer;
+    private final PaginationService paginationService;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sender;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration heartbeat;
+    private final Duration pollInterval;
+    private final Counter droppedCounter;
+    private long lastPublished;
+
+    public ChangeEventHub(ChangeLog changeLog,
+                          ChangeLogSequencer changeLogSequencer,
+                          PaginationService paginationService,
+                          MeterRegistry meterRegistry,
+                          @Value("${api.events.buffer-size:256}") int bufferSize,
+                          @Value("${api.events.max-subscribers:1000}") int maxSubscribers,
+                          @Value("${api.events.threads:4}") int threads,
+                          @Value("${api.events.timeout:30m}") Duration timeout,
+                          @Value("${api.events.heartbeat:15s}") Duration heartbeat,
+                          @Value("${api.events.poll-interval:200ms}") Duration pollInterval){
+        this.changeLog = changeLog;
+        this.changeLogSequencer = changeLogSequencer;
+        this.paginationService = paginationService;
+        this.sender = Executors.newScheduledThreadPool(threads, new CustomizableThreadFactory("change-events-"));
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+        this.pollInterval = pollInterval;
+        this.droppedCounter = Counter.builder("changes.events.dropped")
+                .description("Subscribers disconnected because they did not keep up with the changes")
+                .register(meterRegistry);
+        Gauge.builder("changes.events.subscribers", subscribers, Set::size)
+                .description("Clients subscribed to the change events")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start(){
+        lastPublished = changeLog.lastId();
+        sender.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        sender.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        sender.shutdownNow();
+        subscribers.forEach(Subscriber::complete);
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe(Filter filter){
+        if(subscribers.size() >= maxSubscribers) throw new ServiceUnavailableException("Too many clients are subscribed to the events, try again later.", heartbeat.toSeconds());
+        Subscriber subscriber = new Subscriber(filter, changeLogSequencer.sequenceAll(), new SseEmitter(timeout.toMillis()), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> close(subscriber));
+        subscriber.emitter.onError(exception -> close(subscriber));
+        subscribers.add(subscriber);
+        // The first comment makes the response start right away, before there is any change to send.
+        subscriber.heartbeatDue.set(true);
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Publishes the changes committed since the last poll, on any instance.
+     */
+    void poll(){
+        while(true){
+            List<ChangeLogEntry> changes = changeLog.changesAfter(lastPublished, CHANGES_PER_POLL);
+            if(changes.isEmpty()) return;
+            changes.forEach(change -> publish(ChangeEvent.of(change)));
+            lastPublished = changes.get(changes.size() - 1).getId();
+            if(changes.size() < CHANGES_PER_POLL) return;
+        }
+    }
+
+    void publish(ChangeEvent event){
+        for(Subscriber subscriber : subscribers){
+            if(event.sequence() <= subscriber.after || !subscriber.filter.matches(event)) continue;
+            if(subscriber.buffer.offer(event)){
+                schedule(subscriber);
+            } else if(subscribers.remove(subscriber)){
+                droppedCounter.increment();
+                close(subscriber);
+            }
+        }
+    }
+
+    private void pollQuietly(){
+        try {
+            poll();
+        } catch (RuntimeException exception){
+            log.warn("Could not read the changes for the event subscribers", exception);
+        }
+    }
+
+    int subscriberCount(){
+        return subscribers.size();
+    }
+
+    void heartbeat(){
+        for(Subscriber subscriber : subscribers){
+            subscriber.heartbeatDue.set(true);
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber){
+        subscribers.remove(subscriber);
+        subscriber.closed = true;
+        subscriber.buffer.clear();
+        // The emitter is completed on a sender thread, so the caller never waits on a send in progress.
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber){
+        if(!subscriber.scheduled.compareAndSet(false, true)) return;
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException exception){
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber){
+        try {
+            if(!subscriber.closed && subscriber.heartbeatDue.getAndSet(false)) subscriber.emitter.send(SseEmitter.event().comment(""));
+            ChangeEvent event;
+            while(!subscriber.closed && (event = subscriber.buffer.poll()) != null){
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(paginationService.encodeCursor(event.sequence()))
+                        .name(EVENT_NAME)
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException exception){
+            // The client went away; the container completes the emitter on its own.
+            log.debug("Could not send the change events to a subscriber", exception);
+            subscriber.completed.set(true);
+            subscribers.remove(subscriber);
+            subscriber.closed = true;
+            subscriber.buffer.clear();
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if(subscriber.closed){
+            subscriber.complete();
+        } else if(!subscriber.buffer.isEmpty() || subscriber.heartbeatDue.get()){
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Selects the events a subscriber receives. Each criterion that is set must match: the entity type, and the
+     * engineer or architect either changed itself or related to the changed house before or after the change.
+     */
+    public record Filter(Set<ChangeLogEntry.EntityType> types, Long engineerId, Long architectId) {
+        public static final Filter ALL = new Filter(Set.of(), null, null);
+
+        public Filter {
+            types = types == null ? Set.of() : Set.copyOf(types);
+        }
+
+        boolean matches(ChangeEvent event){
+            return (types.isEmpty() || types.contains(event.entityType()))
+                    && (engineerId == null || concerns(event, ChangeLogEntry.EntityType.ENGINEER, engineerId, event.engineerIds()))
+                    && (architectId == null || concerns(event, ChangeLogEntry.EntityType.ARCHITECT, architectId, event.architectIds()));
+        }
+
+        private static boolean concerns(ChangeEvent event, ChangeLogEntry.EntityType entityType, Long id, Set<Long> relatedIds){
+            if(event.entityType() == entityType) return id.equals(event.id());
+            return relatedIds != null && relatedIds.contains(id);
+        }
+    }
+
+    private static class Subscriber {
+        private final Filter filter;
+        private final long after;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChangeEvent> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Filter filter, long after, SseEmitter emitter, BlockingQueue<ChangeEvent> buffer){
+            this.filter = filter;
+            this.after = after;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        void complete(){
+            if(completed.compareAndSet(false, true)) emitter.complete();
+        }
+    }
+}
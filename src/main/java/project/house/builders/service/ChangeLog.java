@@ -0,0 +1,168 @@
+package project.house.builders.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.house.builders.domain.Architect;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogHeadRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records which houses, engineers and architects each transaction created, changed or deleted, for the
+ * /changes feed. The entries of a transaction are inserted just before it commits, with row ids from a pooled
+ * sequence, so writers never wait on each other and the inserts of a transaction go out as one JDBC batch.
+ * ChangeLogSequencer gives them their position in the feed once they are committed, and only positioned entries
+ * are read, so a reader that has seen a position has seen every position before it.
+ * The /events subscribers of every instance are fed from this table by ChangeEventHub.
+ */
+@Service
+public class ChangeLog {
+    private static final Map<Class<?>, ChangeLogEntry.EntityType> ENTITY_TYPES = Map.of(
+            House.class, ChangeLogEntry.EntityType.HOUSE,
+            Engineer.class, ChangeLogEntry.EntityType.ENGINEER,
+            Architect.class, ChangeLogEntry.EntityType.ARCHITECT);
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeLogHeadRepository changeLogHeadRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PaginationService paginationService;
+
+    public ChangeLog(ChangeLogEntryRepository changeLogEntryRepository,
+                     ChangeLogHeadRepository changeLogHeadRepository,
+                     EntityManager entityManager,
+                     PlatformTransactionManager transactionManager,
+                     PaginationService paginationService){
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.changeLogHeadRepository = changeLogHeadRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.paginationService = paginationService;
+    }
+
+    public void upserted(Class<?> type, Collection<Long> ids){
+        record(entityType(type), ChangeLogEntry.Operation.UPSERT, ids.stream().map(id -> HouseChange.of(id, null, null)).toList());
+    }
+
+    public void deleted(Class<?> type, Collection<Long> ids){
+        record(entityType(type), ChangeLogEntry.Operation.DELETE, ids.stream().map(id -> HouseChange.of(id, null, null)).toList());
+    }
+
+    public void housesUpserted(Collection<HouseChange> houseChanges){
+        record(ChangeLogEntry.EntityType.HOUSE, ChangeLogEntry.Operation.UPSERT, houseChanges);
+    }
+
+    public void housesDeleted(Collection<HouseChange> houseChanges){
+        record(ChangeLogEntry.EntityType.HOUSE, ChangeLogEntry.Operation.DELETE, houseChanges);
+    }
+
+    /**
+     * Returns the changes after the cursor in the order they were made. The next cursor is always set,
+     * to the last change returned or to the same position when there is nothing new yet.
+     */
+    public ResultPage<ChangeLogEntry> changesSince(String cursor, Integer limit){
+        long after = paginationService.decodeCursor(cursor);
+        List<ChangeLogEntry> changes = changesAfter(after, limit);
+        if(isPrunedAfter(after)){
+            throw new BadRequestException("The changes after this cursor are older than the retention period, read every entity again and start without since.");
+        }
+        long last = changes.isEmpty() ? after : changes.get(changes.size() - 1).getId();
+        return new ResultPage<>(changes, paginationService.encodeCursor(last), null);
+    }
+
+    /**
+     * Returns the changes after the given id, in the order the sequencer gave them their ids.
+     */
+    public List<ChangeLogEntry> changesAfter(long after, Integer limit){
+        return changeLogEntryRepository.findByIdGreaterThan(after, paginationService.keysetPageable(limit)).getContent();
+    }
+
+    /**
+     * Tells whether some changes after the cursor may have been pruned. The pruner raises its watermark before it
+     * deletes, so callers check this after reading the changes. The newest entry of each type is kept, so the
+     * change right after a cursor says nothing about what was deleted before it.
+     */
+    public boolean isPrunedAfter(long after){
+        return after > 0 && after < changeLogHeadRepository.findPrunedUpTo();
+    }
+
+    static ChangeLogEntry.EntityType entityType(Class<?> type){
+        return ENTITY_TYPES.get(type);
+    }
+
+    public long lastId(){
+        return changeLogEntryRepository.findLastId();
+    }
+
+    private void record(ChangeLogEntry.EntityType entityType, ChangeLogEntry.Operation operation, Collection<HouseChange> changes){
+        if(changes.isEmpty()) return;
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            List<PendingChange> pending = changes.stream().map(change -> new PendingChange(entityType, operation, change)).toList();
+            transactionTemplate.executeWithoutResult(status -> write(pending));
+            return;
+        }
+        Map<String, PendingChange> pending = pending();
+        for(HouseChange change : changes){
+            String key = entityType + ":" + change.id();
+            // Only the last change of an entity in a transaction matters, at the position it was made.
+            PendingChange previous = pending.remove(key);
+            HouseChange related = previous == null ? change : change.since(previous.related());
+            pending.put(key, new PendingChange(entityType, operation, related));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, PendingChange> pending(){
+        Map<String, PendingChange> pending = (Map<String, PendingChange>) TransactionSynchronizationManager.getResource(this);
+        if(pending != null) return pending;
+        Map<String, PendingChange> created = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly){
+                write(created.values());
+            }
+
+            @Override
+            public void afterCompletion(int status){
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(Collection<PendingChange> changes){
+        Instant now = Instant.now();
+        for(PendingChange change : changes){
+            change.entry().setChangedAt(now);
+            entityManager.persist(change.entry());
+        }
+    }
+
+    private record PendingChange(ChangeLogEntry entry, HouseChange related) {
+        PendingChange(ChangeLogEntry.EntityType entityType, ChangeLogEntry.Operation operation, HouseChange related){
+            this(ChangeLogEntry.builder()
+                    .entityType(entityType)
+                    .entityId(related.id())
+                    .operation(operation)
+                    .engineerId(related.engineerId())
+                    .architectId(related.architectId())
+                    .previousEngineerId(related.previousEngineerId())
+                    .previousArchitectId(related.previousArchitectId())
+                    .build(), related);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package project.house.builders.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogHeadRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the change_log entries older than api.changes.retention every api.changes.prune-interval, one range
+ * of ids per transaction. The newest entry of each entity type is always kept, so the list ETags that ChangeCounter
+ * builds from them never go back. Since a kept entry can sit right after a cursor whose changes were deleted, the
+ * pruner first raises change_log_head.prunedUpTo to the last id it deletes, and ChangeLog turns away every cursor
+ * below it instead of silently skipping changes.
+ */
+@Log4j2
+@Service
+public class ChangeLogPruner {
+    static final long IDS_PER_DELETE = 10_000;
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeLogHeadRepository changeLogHeadRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final Duration retention;
+    private final Duration interval;
+
+    public ChangeLogPruner(ChangeLogEntryRepository changeLogEntryRepository,
+                           ChangeLogHeadRepository changeLogHeadRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${api.changes.retention:30d}") Duration retention,
+                           @Value("${api.changes.prune-interval:1h}") Duration interval){
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.changeLogHeadRepository = changeLogHeadRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-log-pruner-"));
+        this.retention = retention;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start(){
+        scheduler.scheduleWithFixedDelay(this::pruneQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        scheduler.shutdownNow();
+    }
+
+    long prune(){
+        long upTo = changeLogEntryRepository.findLastIdChangedBefore(Instant.now().minus(retention));
+        // Read first and passed as values, since MySQL does not allow a subquery on the table a DELETE removes from.
+        List<Long> keep = changeLogEntryRepository.findLastIdOfEachEntityType();
+        if(upTo > 0) transactionTemplate.executeWithoutResult(status -> changeLogHeadRepository.raisePrunedUpTo(upTo));
+        long after = changeLogEntryRepository.findFirstId() - 1;
+        long deleted = 0;
+        while(after < upTo){
+            long from = after;
+            long to = Math.min(from + IDS_PER_DELETE, upTo);
+            Integer rows = transactionTemplate.execute(status -> changeLogEntryRepository.deleteByIdBetween(from, to, keep));
+            deleted += rows == null ? 0 : rows;
+            after = to;
+        }
+        return deleted;
+    }
+
+    private void pruneQuietly(){
+        try {
+            long deleted = prune();
+            if(deleted > 0) log.info("Pruned {} change log entries older than {}", deleted, retention);
+        } catch (RuntimeException exception){
+            log.warn("Could not prune the change log", exception);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package project.house.builders.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.house.builders.domain.ChangeLogHead;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogHeadRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives the committed change_log entries their position in the feed every api.changes.sequence-interval. Writers
+ * take row ids from a sequence without waiting on each other, so ids follow neither the commit order nor become
+ * visible in order. Each pass locks the change_log_head row, gives the committed entries without a position the
+ * positions after the head in row id order, and moves the head past them in the same transaction. Positions only
+ * grow and a pass becomes visible all at once, so readers never skip an entry that committed late. Only the
+ * sequencers of the instances wait on each other, for one short statement each, and a change reaches the feed
+ * up to one interval after its commit.
+ */
+@Log4j2
+@Service
+public class ChangeLogSequencer {
+    static final int ENTRIES_PER_PASS = 1_000;
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final ChangeLogHeadRepository changeLogHeadRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final Duration interval;
+
+    public ChangeLogSequencer(ChangeLogEntryRepository changeLogEntryRepository,
+                              ChangeLogHeadRepository changeLogHeadRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${api.changes.sequence-interval:100ms}") Duration interval){
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.changeLogHeadRepository = changeLogHeadRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-log-sequencer-"));
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start(){
+        createHead();
+        transactionTemplate.executeWithoutResult(status -> sequenceExisting());
+        scheduler.scheduleWithFixedDelay(this::sequenceQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Gives positions to every entry committed so far and returns the last position, the end of the feed as of now.
+     * Changes committed before the call are at or before it, even those the scheduled pass has not reached yet.
+     */
+    public long sequenceAll(){
+        int read;
+        do {
+            read = sequence();
+        } while(read == ENTRIES_PER_PASS);
+        return changeLogHeadRepository.findLastId();
+    }
+
+    /**
+     * Gives positions to one batch of committed entries and returns how many were read for it.
+     */
+    int sequence(){
+        Integer read = transactionTemplate.execute(status -> {
+            long lastId = changeLogHeadRepository.lockLastId();
+            List<Long> entryIds = changeLogEntryRepository.findUnsequencedEntryIds(PageRequest.of(0, ENTRIES_PER_PASS));
+            if(entryIds.isEmpty()) return 0;
+            long from = entryIds.get(0);
+            long to = entryIds.get(entryIds.size() - 1);
+            // Positions keep the distance between row ids, so the whole batch is one statement. An entry of the
+            // range that committed after the read above gets its position in this pass too.
+            changeLogEntryRepository.sequence(from, to, lastId - from + 1);
+            changeLogHeadRepository.advance(to - from + 1);
+            return entryIds.size();
+        });
+        return read == null ? 0 : read;
+    }
+
+    /**
+     * Upgrades a change log written before entries had positions. Their row ids were the positions clients hold as
+     * cursors, so they keep them. Once any entry has a position this does nothing.
+     */
+    void sequenceExisting(){
+        long lastId = changeLogHeadRepository.lockLastId();
+        if(changeLogEntryRepository.existsByIdNotNull()) return;
+        long lastEntryId = changeLogEntryRepository.findLastEntryId();
+        if(lastEntryId == 0) return;
+        changeLogEntryRepository.sequenceAsEntryIds();
+        if(lastEntryId > lastId) changeLogHeadRepository.advance(lastEntryId - lastId);
+    }
+
+    private void createHead(){
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if(changeLogHeadRepository.existsById(ChangeLogHead.ID)) return;
+                changeLogHeadRepository.save(ChangeLogHead.builder().id(ChangeLogHead.ID).lastId(changeLogEntryRepository.findLastId()).build());
+            });
+        } catch (DataIntegrityViolationException exception){
+            // Another instance created the row first.
+        }
+    }
+
+    private void sequenceQuietly(){
+        try {
+            sequenceAll();
+        } catch (RuntimeException exception){
+            log.warn("Could not sequence the change log", exception);
+        }
+    }
+}
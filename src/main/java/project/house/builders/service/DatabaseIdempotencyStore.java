@@ -0,0 +1,86 @@
+package project.house.builders.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.house.builders.domain.IdempotencyRecord;
+import project.house.builders.repository.IdempotencyRecordRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps idempotent responses in the idempotency_record table, so every instance sees the same keys.
+ * A key is reserved by inserting a pending row, so when retries reach several instances at once the primary key
+ * lets only one of them run the request; the row is filled with the response afterwards, or deleted if the
+ * request failed. A pending row older than api.idempotency.pending-timeout belongs to a request that never
+ * finished and can be reserved again. Expired rows are ignored on lookup and deleted whenever a new response is saved.
+ */
+@Service
+@ConditionalOnProperty(name = "api.idempotency.store", havingValue = "database")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${api.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${api.idempotency.pending-timeout:1m}") Duration pendingTimeout){
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<IdempotentResponse> find(String key){
+        return idempotencyRecordRepository.findByIdempotencyKeyAndCreatedAtAfter(key, Instant.now().minus(ttl))
+                .filter(idempotencyRecord -> idempotencyRecord.getStatus() != IdempotencyRecord.PENDING)
+                .map(idempotencyRecord -> new IdempotentResponse(idempotencyRecord.getRequestHash(), idempotencyRecord.getStatus(),
+                        idempotencyRecord.getContentType(), idempotencyRecord.getETag(), idempotencyRecord.getLocation(), idempotencyRecord.getBody()));
+    }
+
+    @Override
+    public boolean reserve(String key, String requestHash){
+        Instant now = Instant.now();
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> idempotencyRecordRepository.insertPending(key, requestHash, now));
+            return true;
+        } catch (DataIntegrityViolationException exception){
+            Integer reserved = transactionTemplate.execute(transaction ->
+                    idempotencyRecordRepository.reserveAbandoned(key, requestHash, now.minus(pendingTimeout), now.minus(ttl), now));
+            return reserved != null && reserved == 1;
+        }
+    }
+
+    @Override
+    @Transactional
+    public void save(String key, IdempotentResponse response){
+        Instant now = Instant.now();
+        idempotencyRecordRepository.deleteExpired(now.minus(ttl));
+        idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                .idempotencyKey(key)
+                .requestHash(response.requestHash())
+                .status(response.status())
+                .contentType(response.contentType())
+                .eTag(response.eTag())
+                .location(response.location())
+                .body(response.body())
+                .createdAt(now)
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public void release(String key){
+        idempotencyRecordRepository.deletePending(key);
+    }
+}
@@ -0,0 +1,92 @@
+package project.house.builders.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.house.builders.domain.Engineer;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.requests.EngineerUpsertRequestBody;
+import project.house.builders.responses.UpsertResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates or updates many engineers at once, matched by their external id. The existing engineers are
+ * loaded with one query, new ones are inserted in JDBC batches, and the changed ones are flushed as
+ * batched updates. Engineers that did not change are not written.
+ */
+@Service
+public class EngineerBulkService {
+    private final EngineerRepository engineerRepository;
+    private final PaginationService paginationService;
+    private final ChangeLog changeLog;
+    private final int maxSize;
+
+    public EngineerBulkService(EngineerRepository engineerRepository,
+                               PaginationService paginationService,
+                               ChangeLog changeLog,
+                               @Value("${api.bulk.max-size:1000}") int maxSize){
+        this.engineerRepository = engineerRepository;
+        this.paginationService = paginationService;
+        this.changeLog = changeLog;
+        this.maxSize = maxSize;
+    }
+
+    @Transactional
+    public UpsertResult upsertAll(List<EngineerUpsertRequestBody> engineerUpsertRequestBodies){
+        validate(engineerUpsertRequestBodies);
+        Map<String, Engineer> existing = engineerRepository.findByExternalIdIn(engineerUpsertRequestBodies.stream().map(EngineerUpsertRequestBody::getExternalId).toList())
+                .stream()
+                .collect(Collectors.toMap(Engineer::getExternalId, Function.identity()));
+
+        List<Engineer> inserted = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        for(EngineerUpsertRequestBody engineerUpsertRequestBody : engineerUpsertRequestBodies){
+            Engineer engineer = existing.get(engineerUpsertRequestBody.getExternalId());
+            if(engineer == null){
+                inserted.add(Engineer.builder()
+                        .externalId(engineerUpsertRequestBody.getExternalId())
+                        .name(engineerUpsertRequestBody.getName())
+                        .build());
+            } else if(!Objects.equals(engineer.getName(), engineerUpsertRequestBody.getName())){
+                engineer.setName(engineerUpsertRequestBody.getName());
+                updated.add(engineer.getId());
+            }
+        }
+        if(!inserted.isEmpty()){
+            engineerRepository.saveAll(inserted);
+            paginationService.evictCount(Engineer.class);
+        }
+        if(!inserted.isEmpty() || !updated.isEmpty()){
+            changeLog.upserted(Engineer.class, Stream.concat(inserted.stream().map(Engineer::getId), updated.stream()).toList());
+        }
+        return new UpsertResult(inserted.size(), updated.size(), existing.size() - updated.size());
+    }
+
+    private void validate(List<EngineerUpsertRequestBody> engineerUpsertRequestBodies){
+        if(engineerUpsertRequestBodies == null || engineerUpsertRequestBodies.isEmpty()) throw new BadRequestException("The request must contain at least one engineer.");
+        if(engineerUpsertRequestBodies.size() > maxSize) throw new BadRequestException("A bulk request accepts at most " + maxSize + " engineers.");
+        Set<String> externalIds = new HashSet<>();
+        for(int i = 0; i < engineerUpsertRequestBodies.size(); i++){
+            EngineerUpsertRequestBody engineerUpsertRequestBody = engineerUpsertRequestBodies.get(i);
+            if(engineerUpsertRequestBody == null || engineerUpsertRequestBody.getExternalId() == null || engineerUpsertRequestBody.getExternalId().isBlank()){
+                throw new BadRequestException("Engineer at index " + i + " must have an external id.");
+            }
+            if(engineerUpsertRequestBody.getName() == null || engineerUpsertRequestBody.getName().isEmpty()){
+                throw new BadRequestException("Engineer at index " + i + " must have a name.");
+            }
+            if(!externalIds.add(engineerUpsertRequestBody.getExternalId())){
+                throw new BadRequestException("External id " + engineerUpsertRequestBody.getExternalId() + " appears more than once.");
+            }
+        }
+    }
+}
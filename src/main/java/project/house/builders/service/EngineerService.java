@@ -1,49 +1,122 @@
 package project.house.builders.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import project.house.builders.domain.Engineer;
 import project.house.builders.exception.BadRequestException;
-import project.house.builders.mapper.EngineerMapper;
 import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.EngineerPostRequestBody;
 import project.house.builders.requests.EngineerPutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.EngineerResponse;
+import project.house.builders.responses.HouseResponse;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EngineerService {
     private final EngineerRepository engineerRepository;
+    private final HouseRepository houseRepository;
+    private final PaginationService paginationService;
+    private final ChangeLog changeLog;
+    private final Validator validator;
 
-    public List<Engineer> listAll() {
-        return engineerRepository.findAll();
+    @Transactional(readOnly = true)
+    public ResultPage<EngineerResponse> listAll(String cursor, Integer page, Integer size){
+        ResultPage<EngineerResponse> result;
+        if(page != null){
+            if(cursor != null) throw new BadRequestException("Use either cursor or page, not both.");
+            result = paginationService.offsetPage(engineerRepository.findAllResponses(paginationService.offsetPageable(page, size)), Engineer.class, engineerRepository::count);
+        } else {
+            result = paginationService.keysetPage(engineerRepository.findResponsesByIdGreaterThan(paginationService.decodeCursor(cursor), paginationService.keysetPageable(size)), EngineerResponse::id);
+        }
+        return result.withContent(withHouses(result.content()));
     }
 
-    public List<Engineer> findByName(String name) {
-        return engineerRepository.findByName(name);
+    @Transactional(readOnly = true)
+    public List<EngineerResponse> findByName(String name){
+        return withHouses(engineerRepository.findResponsesByName(name));
     }
 
-    public Engineer findByIdOrThrowBadRequestException(long id) {
-        return engineerRepository.findById(id)
+    @Transactional(readOnly = true)
+    public EngineerResponse findByIdOrThrowBadRequestException(long id){
+        EngineerResponse engineer = engineerRepository.findResponseById(id)
                 .orElseThrow(() -> new BadRequestException("Engineer not found."));
+        return withHouses(List.of(engineer)).get(0);
+    }
+
+    public Optional<Long> findVersion(long id){
+        return engineerRepository.findVersionById(id);
     }
 
+    @Transactional
     public Engineer save(final EngineerPostRequestBody engineerPostRequestBody) {
         final var engineer = Engineer.builder()
                 .name(engineerPostRequestBody.getName())
                 .build();
-        return engineerRepository.save(engineer);
+        Engineer savedEngineer = engineerRepository.save(engineer);
+        paginationService.evictCount(Engineer.class);
+        changeLog.upserted(Engineer.class, List.of(savedEngineer.getId()));
+        return savedEngineer;
+    }
+
+    @Transactional
+    public void delete(long id, String ifMatch) {
+        Engineer engineer = findOrThrowBadRequestException(id);
+        EntityVersion.checkIfMatch(ifMatch, engineer.getVersion());
+        engineerRepository.delete(engineer);
+        paginationService.evictCount(Engineer.class);
+        changeLog.deleted(Engineer.class, List.of(id));
+    }
+
+    @Transactional
+    public long replace(EngineerPutRequestBody engineerPutRequestBody, String ifMatch) {
+        Engineer engineer = findOrThrowBadRequestException(engineerPutRequestBody.getId());
+        EntityVersion.checkIfMatch(ifMatch, engineer.getVersion());
+        engineer.setName(engineerPutRequestBody.getName());
+        engineerRepository.saveAndFlush(engineer);
+        changeLog.upserted(Engineer.class, List.of(engineer.getId()));
+        return engineer.getVersion();
     }
 
-    public void delete(long id) {
-        engineerRepository.delete(findByIdOrThrowBadRequestException(id));
+    @Transactional
+    public long patch(long id, MergePatch patch, String ifMatch){
+        patch.requireOnly("name");
+        Engineer engineer = findOrThrowBadRequestException(id);
+        EntityVersion.checkIfMatch(ifMatch, engineer.getVersion());
+        if(patch.has("name")) engineer.setName(patch.text("name"));
+        validate(engineer);
+        engineerRepository.flush();
+        changeLog.upserted(Engineer.class, List.of(engineer.getId()));
+        return engineer.getVersion();
+    }
+
+    private void validate(Engineer engineer){
+        Set<ConstraintViolation<Engineer>> violations = validator.validate(engineer);
+        if(!violations.isEmpty()) throw new BadRequestException(violations.iterator().next().getMessage());
+    }
+
+    private Engineer findOrThrowBadRequestException(long id){
+        return engineerRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Engineer not found."));
     }
 
-    public void replace(EngineerPutRequestBody engineerPutRequestBody) {
-        Engineer savedEngineer = findByIdOrThrowBadRequestException(engineerPutRequestBody.getId());
-        Engineer engineer = EngineerMapper.INSTANCE.toEngineer(engineerPutRequestBody);
-        engineer.setId(savedEngineer.getId());
-        engineerRepository.save(engineer);
+    private List<EngineerResponse> withHouses(List<EngineerResponse> engineers){
+        if(engineers.isEmpty()) return engineers;
+        Map<Long, List<HouseResponse>> housesByEngineer = houseRepository.findResponsesByEngineerIdIn(engineers.stream().map(EngineerResponse::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(HouseResponse::engineerId));
+        return engineers.stream()
+                .map(engineer -> engineer.withHouses(housesByEngineer.getOrDefault(engineer.id(), List.of())))
+                .toList();
     }
-}
\ No newline at end of file
+}
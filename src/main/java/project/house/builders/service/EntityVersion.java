@@ -0,0 +1,72 @@
+package project.house.builders.service;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import project.house.builders.exception.PreconditionFailedException;
+
+/**
+ * Maps the @Version column of an entity to an HTTP entity tag. Writes that carry an If-Match header
+ * only proceed when one of its tags names the current version; the version check Hibernate adds to
+ * the UPDATE or DELETE then catches any change committed in between.
+ * Reads that carry a matching If-None-Match get a 304 instead of the body. Engineers and architects
+ * also list their houses, so their tags add a house change token after a dot; If-Match only compares
+ * the version before it, since writes to an engineer or architect never change its houses.
+ * If-Match uses the strong comparison, so weak W/ tags never match; If-None-Match uses the weak one.
+ */
+public final class EntityVersion {
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private EntityVersion(){
+    }
+
+    public static String eTag(long version){
+        return "\"" + version + "\"";
+    }
+
+    public static String eTag(long version, String token){
+        return "\"" + version + "." + token + "\"";
+    }
+
+    public static String eTag(String token){
+        return "\"" + token + "\"";
+    }
+
+    public static void checkIfMatch(String ifMatch, long currentVersion){
+        if(ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return;
+        String current = String.valueOf(currentVersion);
+        for(String tag : ifMatch.split(",")){
+            if(tag.trim().startsWith("W/")) continue;
+            String value = opaqueTag(tag);
+            if(value == null) continue;
+            int dot = value.indexOf('.');
+            if(current.equals(dot < 0 ? value : value.substring(0, dot))) return;
+        }
+        throw new PreconditionFailedException(PreconditionFailedException.CHANGED_CONCURRENTLY);
+    }
+
+    public static boolean matches(String ifNoneMatch, String eTag){
+        if(ifNoneMatch == null || ifNoneMatch.isBlank() || eTag == null) return false;
+        if(ifNoneMatch.trim().equals("*")) return true;
+        String current = opaqueTag(eTag);
+        for(String tag : ifNoneMatch.split(",")){
+            if(current != null && current.equals(opaqueTag(tag))) return true;
+        }
+        return false;
+    }
+
+    public static ResponseEntity.BodyBuilder ok(String eTag){
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE);
+    }
+
+    public static <T> ResponseEntity<T> notModified(String eTag){
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+    }
+
+    private static String opaqueTag(String tag){
+        String value = tag.trim();
+        if(value.startsWith("W/")) value = value.substring(2);
+        if(value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) return null;
+        return value.substring(1, value.length() - 1);
+    }
+}
@@ -0,0 +1,151 @@
+package project.house.builders.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.house.builders.domain.Architect;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.responses.AffectedRows;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.HouseResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many houses in one transaction. The engineers and architects referenced by the whole request
+ * are loaded with one query each, and the houses are inserted in JDBC batches. Every item gets its own
+ * result, so a bad row only rejects itself unless the caller asks for all or nothing.
+ * Reassignments and deletes run as a single UPDATE or DELETE statement, which also invalidates the
+ * cached houses and house collections.
+ */
+@Service
+public class HouseBulkService {
+    private final HouseRepository houseRepository;
+    private final EngineerRepository engineerRepository;
+    private final ArchitectRepository architectRepository;
+    private final PaginationService paginationService;
+    private final ChangeLog changeLog;
+    private final int maxSize;
+
+    public HouseBulkService(HouseRepository houseRepository,
+                            EngineerRepository engineerRepository,
+                            ArchitectRepository architectRepository,
+                            PaginationService paginationService,
+                            ChangeLog changeLog,
+                            @Value("${api.bulk.max-size:1000}") int maxSize){
+        this.houseRepository = houseRepository;
+        this.engineerRepository = engineerRepository;
+        this.architectRepository = architectRepository;
+        this.paginationService = paginationService;
+        this.changeLog = changeLog;
+        this.maxSize = maxSize;
+    }
+
+    @Transactional
+    public List<BulkItemResult> saveAll(List<HousePostRequestBody> housePostRequestBodies, boolean atomic){
+        if(housePostRequestBodies == null || housePostRequestBodies.isEmpty()) throw new BadRequestException("The request must contain at least one house.");
+        if(housePostRequestBodies.size() > maxSize) throw new BadRequestException("A bulk request accepts at most " + maxSize + " houses.");
+
+        Map<Long, Engineer> engineers = engineerRepository.findAllById(referencedIds(housePostRequestBodies, HousePostRequestBody::getEngineerId)).stream()
+                .collect(Collectors.toMap(Engineer::getId, Function.identity()));
+        Map<Long, Architect> architects = architectRepository.findAllById(referencedIds(housePostRequestBodies, HousePostRequestBody::getArchitectId)).stream()
+                .collect(Collectors.toMap(Architect::getId, Function.identity()));
+
+        List<String> errors = housePostRequestBodies.stream()
+                .map(housePostRequestBody -> validate(housePostRequestBody, engineers, architects))
+                .toList();
+        boolean anyRejected = errors.stream().anyMatch(Objects::nonNull);
+
+        List<BulkItemResult> results = new ArrayList<>(housePostRequestBodies.size());
+        List<House> houses = new ArrayList<>(housePostRequestBodies.size());
+        for(int i = 0; i < housePostRequestBodies.size(); i++){
+            if(errors.get(i) != null){
+                results.add(BulkItemResult.rejected(i, errors.get(i)));
+            } else if(atomic && anyRejected){
+                results.add(BulkItemResult.skipped(i));
+            } else {
+                HousePostRequestBody housePostRequestBody = housePostRequestBodies.get(i);
+                House house = House.builder()
+                        .projectName(housePostRequestBody.getProjectName())
+                        .engineer(engineers.get(housePostRequestBody.getEngineerId()))
+                        .architect(architects.get(housePostRequestBody.getArchitectId()))
+                        .build();
+                houses.add(house);
+                results.add(null);
+            }
+        }
+        if(houses.isEmpty()) return results;
+
+        houseRepository.saveAll(houses);
+        paginationService.evictCount(House.class);
+        changeLog.housesUpserted(houses.stream().map(HouseChange::of).toList());
+        int saved = 0;
+        for(int i = 0; i < results.size(); i++){
+            if(results.get(i) == null) results.set(i, BulkItemResult.created(i, houses.get(saved++).getId()));
+        }
+        return results;
+    }
+
+    @Transactional
+    public AffectedRows reassignEngineer(long fromId, Long toId){
+        if(toId != null && !engineerRepository.existsById(toId)) throw new BadRequestException("Engineer not found");
+        List<HouseResponse> houses = houseRepository.lockResponsesByEngineerId(fromId);
+        if(houses.isEmpty()) return new AffectedRows(0);
+        changeLog.housesUpserted(houses.stream()
+                .map(house -> HouseChange.of(house.id(), toId, house.architectId()).since(HouseChange.of(house)))
+                .toList());
+        Engineer to = toId == null ? null : engineerRepository.getReferenceById(toId);
+        return new AffectedRows(houseRepository.reassignEngineer(houses.stream().map(HouseResponse::id).toList(), to));
+    }
+
+    @Transactional
+    public AffectedRows reassignArchitect(long fromId, Long toId){
+        if(toId != null && !architectRepository.existsById(toId)) throw new BadRequestException("Architect not found");
+        List<HouseResponse> houses = houseRepository.lockResponsesByArchitectId(fromId);
+        if(houses.isEmpty()) return new AffectedRows(0);
+        changeLog.housesUpserted(houses.stream()
+                .map(house -> HouseChange.of(house.id(), house.engineerId(), toId).since(HouseChange.of(house)))
+                .toList());
+        Architect to = toId == null ? null : architectRepository.getReferenceById(toId);
+        return new AffectedRows(houseRepository.reassignArchitect(houses.stream().map(HouseResponse::id).toList(), to));
+    }
+
+    @Transactional
+    public AffectedRows deleteAll(List<Long> ids){
+        if(ids == null || ids.isEmpty()) throw new BadRequestException("The request must contain at least one id.");
+        if(ids.size() > maxSize) throw new BadRequestException("A bulk request accepts at most " + maxSize + " houses.");
+        List<HouseChange> houseChanges = houseRepository.findResponsesByIdIn(ids).stream().map(HouseChange::of).toList();
+        int deleted = houseRepository.deleteAllByIdIn(ids);
+        paginationService.evictCount(House.class);
+        changeLog.housesDeleted(houseChanges);
+        return new AffectedRows(deleted);
+    }
+
+    private static List<Long> referencedIds(List<HousePostRequestBody> housePostRequestBodies, Function<HousePostRequestBody, Long> idFn){
+        return housePostRequestBodies.stream()
+                .filter(Objects::nonNull)
+                .map(idFn)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private static String validate(HousePostRequestBody housePostRequestBody, Map<Long, Engineer> engineers, Map<Long, Architect> architects){
+        if(housePostRequestBody == null) return "The item cannot be empty";
+        if(housePostRequestBody.getProjectName() == null || housePostRequestBody.getProjectName().isEmpty()) return "The house project must have a name or a nickname";
+        if(housePostRequestBody.getEngineerId() != null && !engineers.containsKey(housePostRequestBody.getEngineerId())) return "Engineer not found";
+        if(housePostRequestBody.getArchitectId() != null && !architects.containsKey(housePostRequestBody.getArchitectId())) return "Architect not found";
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package project.house.builders.service;
+
+import project.house.builders.domain.Architect;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.responses.HouseResponse;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A house that changed, with the engineer and architect it has after the change and the ones it had before.
+ */
+public record HouseChange(Long id, Long engineerId, Long architectId, Long previousEngineerId, Long previousArchitectId) {
+
+    public static HouseChange of(House house){
+        Engineer engineer = house.getEngineer();
+        Architect architect = house.getArchitect();
+        return of(house.getId(), engineer == null ? null : engineer.getId(), architect == null ? null : architect.getId());
+    }
+
+    public static HouseChange of(HouseResponse houseResponse){
+        return of(houseResponse.id(), houseResponse.engineerId(), houseResponse.architectId());
+    }
+
+    public static HouseChange of(Long id, Long engineerId, Long architectId){
+        return new HouseChange(id, engineerId, architectId, engineerId, architectId);
+    }
+
+    /**
+     * Returns this change as made from the state the house had before the given change.
+     */
+    public HouseChange since(HouseChange before){
+        return new HouseChange(id, engineerId, architectId, before.previousEngineerId(), before.previousArchitectId());
+    }
+
+    /**
+     * Returns the engineers the change concerns: the one the house has and, when it moved, the one it had.
+     */
+    public Set<Long> engineerIds(){
+        return setOf(engineerId, previousEngineerId);
+    }
+
+    /**
+     * Returns the architects the change concerns: the one the house has and, when it moved, the one it had.
+     */
+    public Set<Long> architectIds(){
+        return setOf(architectId, previousArchitectId);
+    }
+
+    private static Set<Long> setOf(Long current, Long previous){
+        return Stream.of(current, previous).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,48 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.responses.HouseResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every house as newline-delimited JSON while the rows are read from a database cursor.
+ * Rows are read as HouseResponse projections, so nothing is added to the persistence context,
+ * and the output is flushed once per fetch instead of after every row.
+ */
+@Service
+@RequiredArgsConstructor
+public class HouseExportService {
+    private final HouseRepository houseRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportTo(OutputStream outputStream) throws IOException {
+        long written = 0;
+        try (Stream<HouseResponse> houses = houseRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            ObjectWriter writer = objectMapper.writerFor(HouseResponse.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            Iterator<HouseResponse> iterator = houses.iterator();
+            while(iterator.hasNext()){
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if(++written % HouseRepository.EXPORT_FETCH_SIZE == 0){
+                    generator.flush();
+                }
+            }
+        }
+        return written;
+    }
+}
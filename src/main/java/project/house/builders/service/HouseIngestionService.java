@@ -0,0 +1,161 @@
+package project.house.builders.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.exception.ServiceUnavailableException;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.IngestionTicket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts house creations into a bounded queue and writes them in the background, many per transaction,
+ * through HouseBulkService. Each creation gets a ticket whose status moves from QUEUED to CREATED or REJECTED.
+ * When the queue is full, new creations are refused right away with a ServiceUnavailableException.
+ * On shutdown the houses still queued are written before the worker stops.
+ * Tickets live only in the memory of the instance that accepted the creation, bounded by api.ingestion.ticket-max-size
+ * and api.ingestion.ticket-ttl, so another instance answers 400 for them.
+ */
+@Log4j2
+@Service
+public class HouseIngestionService {
+    private final HouseBulkService houseBulkService;
+    private final BlockingQueue<QueuedHouse> queue;
+    private final Cache<String, IngestionTicket> tickets;
+    private final ExecutorService worker;
+    private final int batchSize;
+    private final Duration linger;
+    private final long retryAfterSeconds;
+    private final Timer flushTimer;
+    private final Counter refusedCounter;
+    private volatile boolean running = true;
+
+    public HouseIngestionService(HouseBulkService houseBulkService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${api.ingestion.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${api.ingestion.batch-size:100}") int batchSize,
+                                 @Value("${api.ingestion.linger:50ms}") Duration linger,
+                                 @Value("${api.ingestion.ticket-ttl:1h}") Duration ticketTtl,
+                                 @Value("${api.ingestion.ticket-max-size:100000}") long ticketMaxSize,
+                                 @Value("${api.ingestion.retry-after:2s}") Duration retryAfter){
+        this.houseBulkService = houseBulkService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(ticketMaxSize)
+                .expireAfterWrite(ticketTtl)
+                .build();
+        this.worker = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("house-ingestion-"));
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.flushTimer = Timer.builder("houses.ingestion.flush.latency")
+                .description("Time spent writing a batch of queued houses")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.refusedCounter = Counter.builder("houses.ingestion.refused")
+                .description("House creations refused because the ingestion queue was full")
+                .register(meterRegistry);
+        Gauge.builder("houses.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("House creations waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start(){
+        worker.submit(this::drainWhileRunning);
+    }
+
+    public IngestionTicket submit(HousePostRequestBody housePostRequestBody){
+        if(housePostRequestBody == null) throw new BadRequestException("The request must contain a house.");
+        IngestionTicket ticket = IngestionTicket.queued(UUID.randomUUID().toString());
+        tickets.put(ticket.ticket(), ticket);
+        if(!queue.offer(new QueuedHouse(ticket.ticket(), housePostRequestBody))){
+            tickets.invalidate(ticket.ticket());
+            refusedCounter.increment();
+            throw new ServiceUnavailableException("Too many houses waiting to be written, try again later.", retryAfterSeconds);
+        }
+        return ticket;
+    }
+
+    public IngestionTicket findTicketOrThrowBadRequestException(String ticket){
+        IngestionTicket ingestionTicket = tickets.getIfPresent(ticket);
+        if(ingestionTicket == null) throw new BadRequestException("Ticket not found.");
+        return ingestionTicket;
+    }
+
+    /**
+     * Writes the next batch, waiting up to the linger time for the first house. Returns how many houses were taken.
+     */
+    int drain() throws InterruptedException {
+        QueuedHouse first = queue.poll(linger.toMillis(), TimeUnit.MILLISECONDS);
+        if(first == null) return 0;
+        List<QueuedHouse> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        flushTimer.record(() -> write(batch));
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.shutdown();
+        if(!worker.awaitTermination(30, TimeUnit.SECONDS)) log.warn("{} queued houses were not written before shutdown", queue.size());
+    }
+
+    private void drainWhileRunning(){
+        try {
+            while(running || !queue.isEmpty()){
+                drain();
+            }
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<QueuedHouse> batch){
+        try {
+            List<BulkItemResult> results = houseBulkService.saveAll(batch.stream().map(QueuedHouse::housePostRequestBody).toList(), false);
+            for(int i = 0; i < batch.size(); i++){
+                record(batch.get(i).ticket(), results.get(i));
+            }
+        } catch (RuntimeException exception){
+            if(batch.size() == 1){
+                log.warn("Queued house {} could not be written", batch.get(0).ticket(), exception);
+                tickets.put(batch.get(0).ticket(), IngestionTicket.rejected(batch.get(0).ticket(), "The house could not be saved."));
+                return;
+            }
+            // One bad row fails the whole transaction, so each house is retried alone to keep the others.
+            batch.forEach(queuedHouse -> write(List.of(queuedHouse)));
+        }
+    }
+
+    private void record(String ticket, BulkItemResult result){
+        tickets.put(ticket, result.isRejected()
+                ? IngestionTicket.rejected(ticket, result.error())
+                : IngestionTicket.created(ticket, result.id()));
+    }
+
+    private record QueuedHouse(String ticket, HousePostRequestBody housePostRequestBody) {
+    }
+}
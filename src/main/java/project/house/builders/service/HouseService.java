@@ -1,6 +1,8 @@
 package project.house.builders.service;
 
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import project.house.builders.domain.Architect;
@@ -12,9 +14,12 @@ import project.house.builders.repository.EngineerRepository;
 import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.HousePostRequestBody;
 import project.house.builders.requests.HousePutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.HouseResponse;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -23,85 +28,100 @@ public class HouseService {
     private final HouseRepository houseRepository;
     private final EngineerRepository engineerRepository;
     private final ArchitectRepository architectRepository;
+    private final PaginationService paginationService;
+    private final ChangeLog changeLog;
+    private final Validator validator;
 
-    public List<House> listAll(){
-        return houseRepository.findAll();
+    public ResultPage<HouseResponse> listAll(String cursor, Integer page, Integer size){
+        if(page != null){
+            if(cursor != null) throw new BadRequestException("Use either cursor or page, not both.");
+            return paginationService.offsetPage(houseRepository.findAllResponses(paginationService.offsetPageable(page, size)), House.class, houseRepository::count);
+        }
+        return paginationService.keysetPage(houseRepository.findResponsesByIdGreaterThan(paginationService.decodeCursor(cursor), paginationService.keysetPageable(size)), HouseResponse::id);
     }
 
-    public List<House> findByName(String name){
-        return houseRepository.findByProjectName(name);
+    public List<HouseResponse> findByName(String name){
+        return houseRepository.findResponsesByProjectName(name);
     }
 
-    public House findByIdOrThrowBadRequestException(long id){
-        return houseRepository.findById(id)
+    public HouseResponse findByIdOrThrowBadRequestException(long id){
+        return houseRepository.findResponseById(id)
                 .orElseThrow(() -> new BadRequestException("House project not found."));
     }
 
+    public Optional<Long> findVersion(long id){
+        return houseRepository.findVersionById(id);
+    }
+
     @Transactional
     public House save(HousePostRequestBody housePostRequestBody){
         House house = House.builder()
                 .projectName(housePostRequestBody.getProjectName())
+                .engineer(engineerReference(housePostRequestBody.getEngineerId()))
+                .architect(architectReference(housePostRequestBody.getArchitectId()))
                 .build();
-        houseRepository.save(house);
-
-        Long engineerId = housePostRequestBody.getEngineerId();
-        if(engineerId != null){
-            Optional<Engineer> engineerOptional = engineerRepository.findById(engineerId);
-            engineerOptional.ifPresentOrElse((engineer) -> {
-                house.setEngineer(engineer);
-                engineer.getHouses().add(house);
-                engineerRepository.save(engineer);
-            }, () -> {throw new BadRequestException("Engineer not found");});
-        }
-
-        Long architectId = housePostRequestBody.getArchitectId();
-        if(architectId != null){
-            Optional<Architect> architectOptional = architectRepository.findById(architectId);
-            architectOptional.ifPresentOrElse((architect) -> {
-                house.setArchitect(architect);
-                architect.getHouses().add(house);
-                architectRepository.save(architect);
-            }, () -> {throw new BadRequestException("Architect not found");});
-        }
-        return house;
+        House savedHouse = houseRepository.save(house);
+        paginationService.evictCount(House.class);
+        changeLog.housesUpserted(List.of(HouseChange.of(savedHouse)));
+        return savedHouse;
     }
 
-    public void delete(long id){
-        House house = findByIdOrThrowBadRequestException(id);
-        if(house.getEngineer() != null){
-            house.getEngineer().getHouses().remove(house);
-        }
-        if(house.getArchitect() != null){
-            house.getArchitect().getHouses().remove(house);
-        }
+    @Transactional
+    public void delete(long id, String ifMatch){
+        House house = findOrThrowBadRequestException(id);
+        EntityVersion.checkIfMatch(ifMatch, house.getVersion());
         houseRepository.delete(house);
+        paginationService.evictCount(House.class);
+        changeLog.housesDeleted(List.of(HouseChange.of(house)));
     }
 
-    public void replace(HousePutRequestBody housePutRequestBody){
-        House savedHouse = findByIdOrThrowBadRequestException(housePutRequestBody.getId());
-        House house = House.builder()
-                .projectName(housePutRequestBody.getProjectName())
-                .build();
+    @Transactional
+    public long replace(HousePutRequestBody housePutRequestBody, String ifMatch){
+        House house = findOrThrowBadRequestException(housePutRequestBody.getId());
+        EntityVersion.checkIfMatch(ifMatch, house.getVersion());
+        HouseChange before = HouseChange.of(house);
+        house.setProjectName(housePutRequestBody.getProjectName());
+        house.setEngineer(engineerReference(housePutRequestBody.getEngineerId()));
+        house.setArchitect(architectReference(housePutRequestBody.getArchitectId()));
+        houseRepository.saveAndFlush(house);
+        changeLog.housesUpserted(List.of(HouseChange.of(house).since(before)));
+        return house.getVersion();
+    }
 
-        Long engineerId = housePutRequestBody.getEngineerId();
-        if(engineerId != null){
-            Optional<Engineer> engineerOptional = engineerRepository.findById(engineerId);
-            engineerOptional.ifPresentOrElse((engineer) -> {
-                house.setEngineer(engineer);
-                engineer.getHouses().add(house);
-            }, () -> {throw new BadRequestException("Engineer not found");});
-        }
+    @Transactional
+    public long patch(long id, MergePatch patch, String ifMatch){
+        patch.requireOnly("projectName", "engineer", "architect");
+        House house = findOrThrowBadRequestException(id);
+        EntityVersion.checkIfMatch(ifMatch, house.getVersion());
+        HouseChange before = HouseChange.of(house);
+        if(patch.has("projectName")) house.setProjectName(patch.text("projectName"));
+        if(patch.has("engineer")) house.setEngineer(engineerReference(patch.id("engineer")));
+        if(patch.has("architect")) house.setArchitect(architectReference(patch.id("architect")));
+        validate(house);
+        houseRepository.flush();
+        changeLog.housesUpserted(List.of(HouseChange.of(house).since(before)));
+        return house.getVersion();
+    }
 
-        Long architectId = housePutRequestBody.getArchitectId();
-        if(architectId != null){
-            Optional<Architect> architectOptional = architectRepository.findById(architectId);
-            architectOptional.ifPresentOrElse((architect) -> {
-                house.setArchitect(architect);
-                architect.getHouses().add(house);
-            }, () -> {throw new BadRequestException("Architect not found");});
-        }
+    private void validate(House house){
+        Set<ConstraintViolation<House>> violations = validator.validate(house);
+        if(!violations.isEmpty()) throw new BadRequestException(violations.iterator().next().getMessage());
+    }
 
-        house.setId(savedHouse.getId());
-        houseRepository.save(house);
+    private Engineer engineerReference(Long engineerId){
+        if(engineerId == null) return null;
+        if(!engineerRepository.existsById(engineerId)) throw new BadRequestException("Engineer not found");
+        return engineerRepository.getReferenceById(engineerId);
+    }
+
+    private Architect architectReference(Long architectId){
+        if(architectId == null) return null;
+        if(!architectRepository.existsById(architectId)) throw new BadRequestException("Architect not found");
+        return architectRepository.getReferenceById(architectId);
+    }
+
+    private House findOrThrowBadRequestException(long id){
+        return houseRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("House project not found."));
     }
-}
\ No newline at end of file
+}
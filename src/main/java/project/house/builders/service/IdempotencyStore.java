@@ -0,0 +1,19 @@
+package project.house.builders.service;
+
+import java.util.Optional;
+
+/**
+ * Keeps the responses of requests sent with an Idempotency-Key until they expire. A request reserves its key
+ * before it runs, so only one request per key runs at a time, and then either saves its response or releases
+ * the key. api.idempotency.store selects the implementation: memory (the default) or database, when several
+ * instances share the keys.
+ */
+public interface IdempotencyStore {
+    Optional<IdempotentResponse> find(String key);
+
+    boolean reserve(String key, String requestHash);
+
+    void save(String key, IdempotentResponse response);
+
+    void release(String key);
+}
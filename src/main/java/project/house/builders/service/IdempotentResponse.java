@@ -0,0 +1,7 @@
+package project.house.builders.service;
+
+/**
+ * A successful response kept under an Idempotency-Key, with the hash of the request body that produced it.
+ */
+public record IdempotentResponse(String requestHash, int status, String contentType, String eTag, String location, byte[] body) {
+}
@@ -0,0 +1,38 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import project.house.builders.domain.ImportJob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Reads an import file one row at a time. CSV files start with a header row naming the columns; JSON files hold
+ * an array of flat objects, or one object per line. Only the current row is kept in memory.
+ */
+final class ImportRows {
+    private static final TypeReference<Map<String, String>> ROW = new TypeReference<>() {};
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private ImportRows(){
+    }
+
+    static MappingIterator<Map<String, String>> read(ObjectMapper objectMapper, ImportJob.Format format, InputStream input) throws IOException {
+        return switch(format){
+            case CSV -> CSV_MAPPER.readerFor(ROW)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(input);
+            case JSON -> objectMapper.readerFor(ROW).readValues(input);
+        };
+    }
+
+    static String value(Map<String, String> row, String column){
+        String value = row.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
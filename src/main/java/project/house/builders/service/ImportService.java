@@ -0,0 +1,395 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import project.house.builders.domain.ImportJob;
+import project.house.builders.domain.ImportRowError;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.ExternalIdMapping;
+import project.house.builders.repository.ImportJobRepository;
+import project.house.builders.repository.ImportRowErrorRepository;
+import project.house.builders.requests.ArchitectUpsertRequestBody;
+import project.house.builders.requests.EngineerUpsertRequestBody;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.responses.BulkItemResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports houses, engineers or architects from an uploaded CSV or JSON file in the background. The file is read
+ * one row at a time and written in batches; each batch commits together with its row errors and the job progress,
+ * so a failed import can be resumed with the same file and starts right after the last committed row.
+ * House rows name their engineer and architect by external id, resolved through a map loaded once per run.
+ * Engineer and architect rows are upserted by external id, so running a file twice does not duplicate them.
+ * Each running job names the instance that owns it and carries a heartbeat the owner refreshes; any instance
+ * marks a job as failed once its heartbeat is stale, and an instance with a fixed api.imports.instance-id
+ * also fails its own jobs right after a restart.
+ */
+@Log4j2
+@Service
+public class ImportService {
+    static final String INTERRUPTED = "The import was interrupted by a restart, upload the file again to resume it.";
+    private static final String ABANDONED = "The instance running the import stopped, upload the file again to resume it.";
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportRowErrorRepository importRowErrorRepository;
+    private final EngineerRepository engineerRepository;
+    private final ArchitectRepository architectRepository;
+    private final HouseBulkService houseBulkService;
+    private final EngineerBulkService engineerBulkService;
+    private final ArchitectBulkService architectBulkService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService heartbeats;
+    private final int batchSize;
+    private final int maxErrors;
+    private final String instanceId;
+    private final Duration heartbeat;
+    private final Duration staleAfter;
+
+    public ImportService(ImportJobRepository importJobRepository,
+                         ImportRowErrorRepository importRowErrorRepository,
+                         EngineerRepository engineerRepository,
+                         ArchitectRepository architectRepository,
+                         HouseBulkService houseBulkService,
+                         EngineerBulkService engineerBulkService,
+                         ArchitectBulkService architectBulkService,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${api.imports.batch-size:500}") int batchSize,
+                         @Value("${api.imports.max-errors:1000}") int maxErrors,
+                         @Value("${api.imports.threads:2}") int threads,
+                         @Value("${api.imports.instance-id:}") String instanceId,
+                         @Value("${api.imports.heartbeat:10s}") Duration heartbeat,
+                         @Value("${api.imports.stale-after:1m}") Duration staleAfter){
+        this.importJobRepository = importJobRepository;
+        this.importRowErrorRepository = importRowErrorRepository;
+        this.engineerRepository = engineerRepository;
+        this.architectRepository = architectRepository;
+        this.houseBulkService = houseBulkService;
+        this.engineerBulkService = engineerBulkService;
+        this.architectBulkService = architectBulkService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("import-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("import-heartbeat-"));
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.instanceId = instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.heartbeat = heartbeat;
+        this.staleAfter = staleAfter;
+    }
+
+    @PostConstruct
+    public void startHeartbeat(){
+        heartbeats.scheduleWithFixedDelay(this::beat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterrupted(){
+        Instant now = Instant.now();
+        Integer interrupted = transactionTemplate.execute(transaction ->
+                importJobRepository.updateStatusOfOwner(instanceId, ImportJob.Status.RUNNING, ImportJob.Status.FAILED, INTERRUPTED, now)
+                        + importJobRepository.updateStatusOfStale(now.minus(staleAfter), ImportJob.Status.RUNNING, ImportJob.Status.FAILED, ABANDONED, now));
+        if(interrupted != null && interrupted > 0) log.warn("{} imports were interrupted by a restart", interrupted);
+    }
+
+    void beat(){
+        try {
+            Instant now = Instant.now();
+            Integer abandoned = transactionTemplate.execute(transaction -> {
+                importJobRepository.heartbeat(instanceId, ImportJob.Status.RUNNING, now);
+                return importJobRepository.updateStatusOfStale(now.minus(staleAfter), ImportJob.Status.RUNNING, ImportJob.Status.FAILED, ABANDONED, now);
+            });
+            if(abandoned != null && abandoned > 0) log.warn("{} imports stopped sending heartbeats and were marked as failed", abandoned);
+        } catch (RuntimeException exception){
+            log.warn("Could not refresh the import heartbeats", exception);
+        }
+    }
+
+    public ImportJob start(String type, MultipartFile file){
+        ImportJob.Type importType = typeOf(type);
+        ImportJob.Format format = formatOf(file);
+        Path path = store(file);
+        Instant now = Instant.now();
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .type(importType)
+                .format(format)
+                .status(ImportJob.Status.RUNNING)
+                .fileName(file.getOriginalFilename())
+                .createdAt(now)
+                .updatedAt(now)
+                .owner(instanceId)
+                .heartbeatAt(now)
+                .build());
+        workers.execute(() -> run(job, path));
+        return job;
+    }
+
+    public ImportJob resume(long id, MultipartFile file){
+        ImportJob job = findByIdOrThrowBadRequestException(id);
+        if(job.getStatus() != ImportJob.Status.FAILED) throw new BadRequestException("Only a failed import can be resumed.");
+        if(formatOf(file) != job.getFormat()) throw new BadRequestException("Resume the import with the same " + job.getFormat() + " file.");
+        Path path = store(file);
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setFailure(null);
+        job.setUpdatedAt(Instant.now());
+        job.setOwner(instanceId);
+        job.setHeartbeatAt(job.getUpdatedAt());
+        ImportJob running;
+        try {
+            running = importJobRepository.save(job);
+        } catch (RuntimeException exception){
+            delete(path);
+            throw exception;
+        }
+        workers.execute(() -> run(running, path));
+        return running;
+    }
+
+    public ImportJob findByIdOrThrowBadRequestException(long id){
+        return importJobRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Import not found"));
+    }
+
+    public List<ImportRowError> findErrors(long id){
+        findByIdOrThrowBadRequestException(id);
+        return importRowErrorRepository.findByJobIdOrderByRowNumber(id);
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        heartbeats.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    void run(ImportJob job, Path path){
+        long read = 0;
+        try(InputStream input = Files.newInputStream(path);
+            MappingIterator<Map<String, String>> rows = ImportRows.read(objectMapper, job.getFormat(), input)){
+            RowWriter writer = writerFor(job);
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            Set<String> keys = new HashSet<>();
+            while(rows.hasNextValue()){
+                Map<String, String> values = rows.nextValue();
+                if(++read <= job.getLastCommittedRow()) continue;
+                ImportRow row = new ImportRow(read, values);
+                String key = writer.key().apply(row);
+                // An upsert batch cannot hold the same external id twice, so a repeated id starts a new batch.
+                if(batch.size() >= batchSize || (key != null && keys.contains(key))){
+                    job = commit(job, writer, batch);
+                    batch.clear();
+                    keys.clear();
+                }
+                batch.add(row);
+                if(key != null) keys.add(key);
+            }
+            if(!batch.isEmpty()) job = commit(job, writer, batch);
+            finish(job.getId(), ImportJob.Status.COMPLETED, null);
+        } catch (JsonProcessingException exception){
+            finish(job.getId(), ImportJob.Status.FAILED, "Row " + (read + 1) + " could not be read: " + exception.getOriginalMessage());
+        } catch (IOException | RuntimeException exception){
+            log.warn("Import {} failed", job.getId(), exception);
+            finish(job.getId(), ImportJob.Status.FAILED, "The import stopped: " + exception.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    private ImportJob commit(ImportJob job, RowWriter writer, List<ImportRow> batch){
+        return transactionTemplate.execute(status -> {
+            List<ImportRowError> errors = writer.write().apply(batch);
+            long room = Math.max(0, maxErrors - job.getRowsRejected());
+            if(room > 0) importRowErrorRepository.saveAll(errors.stream().limit(room).toList());
+            job.setRowsRejected(job.getRowsRejected() + errors.size());
+            job.setRowsImported(job.getRowsImported() + batch.size() - errors.size());
+            job.setLastCommittedRow(batch.get(batch.size() - 1).number());
+            job.setUpdatedAt(Instant.now());
+            job.setHeartbeatAt(job.getUpdatedAt());
+            return importJobRepository.save(job);
+        });
+    }
+
+    /**
+     * Only finishes the job while this instance still runs it, so a job that was failed as stale and started again
+     * elsewhere is left to its new owner.
+     */
+    private void finish(long id, ImportJob.Status status, String failure){
+        String truncatedFailure = failure == null ? null : failure.substring(0, Math.min(failure.length(), 1000));
+        Integer finished = transactionTemplate.execute(transaction ->
+                importJobRepository.updateStatusOfJob(id, instanceId, ImportJob.Status.RUNNING, status, truncatedFailure, Instant.now()));
+        if(finished == null || finished != 1) log.warn("Import {} is no longer run by this instance, leaving its status as it is", id);
+    }
+
+    private RowWriter writerFor(ImportJob job){
+        return switch(job.getType()){
+            case HOUSES -> houseWriter(job.getId());
+            case ENGINEERS -> new RowWriter(row -> row.value("externalId"), batch -> writeEngineers(job.getId(), batch));
+            case ARCHITECTS -> new RowWriter(row -> row.value("externalId"), batch -> writeArchitects(job.getId(), batch));
+        };
+    }
+
+    private RowWriter houseWriter(long jobId){
+        Map<String, Long> engineerIds = toMap(engineerRepository.findExternalIds());
+        Map<String, Long> architectIds = toMap(architectRepository.findExternalIds());
+        return new RowWriter(row -> null, batch -> {
+            List<ImportRowError> errors = new ArrayList<>();
+            List<ImportRow> accepted = new ArrayList<>(batch.size());
+            List<HousePostRequestBody> housePostRequestBodies = new ArrayList<>(batch.size());
+            for(ImportRow row : batch){
+                String engineer = row.value("engineerExternalId");
+                String architect = row.value("architectExternalId");
+                if(engineer != null && !engineerIds.containsKey(engineer)){
+                    errors.add(error(jobId, row, "Engineer " + engineer + " not found"));
+                } else if(architect != null && !architectIds.containsKey(architect)){
+                    errors.add(error(jobId, row, "Architect " + architect + " not found"));
+                } else {
+                    accepted.add(row);
+                    housePostRequestBodies.add(HousePostRequestBody.builder()
+                            .projectName(row.value("projectName"))
+                            .engineerId(engineer == null ? null : engineerIds.get(engineer))
+                            .architectId(architect == null ? null : architectIds.get(architect))
+                            .build());
+                }
+            }
+            if(housePostRequestBodies.isEmpty()) return errors;
+            List<BulkItemResult> results = houseBulkService.saveAll(housePostRequestBodies, false);
+            for(int i = 0; i < results.size(); i++){
+                if(results.get(i).isRejected()) errors.add(error(jobId, accepted.get(i), results.get(i).error()));
+            }
+            return errors;
+        });
+    }
+
+    private List<ImportRowError> writeEngineers(long jobId, List<ImportRow> batch){
+        List<ImportRowError> errors = new ArrayList<>();
+        List<EngineerUpsertRequestBody> engineerUpsertRequestBodies = new ArrayList<>(batch.size());
+        for(ImportRow row : batch){
+            String rejection = validateUpsert(row);
+            if(rejection != null){
+                errors.add(error(jobId, row, rejection));
+            } else {
+                engineerUpsertRequestBodies.add(EngineerUpsertRequestBody.builder()
+                        .externalId(row.value("externalId"))
+                        .name(row.value("name"))
+                        .build());
+            }
+        }
+        if(!engineerUpsertRequestBodies.isEmpty()) engineerBulkService.upsertAll(engineerUpsertRequestBodies);
+        return errors;
+    }
+
+    private List<ImportRowError> writeArchitects(long jobId, List<ImportRow> batch){
+        List<ImportRowError> errors = new ArrayList<>();
+        List<ArchitectUpsertRequestBody> architectUpsertRequestBodies = new ArrayList<>(batch.size());
+        for(ImportRow row : batch){
+            String rejection = validateUpsert(row);
+            if(rejection != null){
+                errors.add(error(jobId, row, rejection));
+            } else {
+                architectUpsertRequestBodies.add(ArchitectUpsertRequestBody.builder()
+                        .externalId(row.value("externalId"))
+                        .name(row.value("name"))
+                        .build());
+            }
+        }
+        if(!architectUpsertRequestBodies.isEmpty()) architectBulkService.upsertAll(architectUpsertRequestBodies);
+        return errors;
+    }
+
+    private static String validateUpsert(ImportRow row){
+        if(row.value("externalId") == null) return "The row must have an externalId";
+        if(row.value("name") == null) return "The row must have a name";
+        return null;
+    }
+
+    private static ImportRowError error(long jobId, ImportRow row, String message){
+        return ImportRowError.builder()
+                .jobId(jobId)
+                .rowNumber(row.number())
+                .message(message)
+                .build();
+    }
+
+    private static Map<String, Long> toMap(List<ExternalIdMapping> mappings){
+        return mappings.stream().collect(Collectors.toMap(ExternalIdMapping::externalId, ExternalIdMapping::id, (first, second) -> first));
+    }
+
+    private static ImportJob.Type typeOf(String type){
+        try {
+            return ImportJob.Type.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception){
+            throw new BadRequestException("Imports accept houses, engineers or architects.");
+        }
+    }
+
+    private static ImportJob.Format formatOf(MultipartFile file){
+        if(file == null || file.isEmpty()) throw new BadRequestException("The request must contain a file.");
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        String contentType = file.getContentType() == null ? "" : file.getContentType();
+        if(name.endsWith(".csv") || contentType.startsWith("text/csv")) return ImportJob.Format.CSV;
+        if(name.endsWith(".json") || name.endsWith(".ndjson") || contentType.startsWith(MediaType.APPLICATION_JSON_VALUE)) return ImportJob.Format.JSON;
+        throw new BadRequestException("The file must be a .csv or .json file.");
+    }
+
+    private static Path store(MultipartFile file){
+        try {
+            Path path = Files.createTempFile("import-", ".tmp");
+            file.transferTo(path);
+            return path;
+        } catch (IOException exception){
+            throw new IllegalStateException("The uploaded file could not be stored", exception);
+        }
+    }
+
+    private static void delete(Path path){
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException exception){
+            log.warn("Could not delete {}", path, exception);
+        }
+    }
+
+    private record ImportRow(long number, Map<String, String> values) {
+        String value(String column){
+            return ImportRows.value(values, column);
+        }
+    }
+
+    private record RowWriter(Function<ImportRow, String> key, Function<List<ImportRow>, List<ImportRowError>> write) {
+    }
+}
@@ -0,0 +1,46 @@
+package project.house.builders.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Service
+@ConditionalOnProperty(name = "api.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private static final IdempotentResponse PENDING = new IdempotentResponse("", 0, null, null, null, new byte[0]);
+
+    private final Cache<String, IdempotentResponse> responses;
+
+    public InMemoryIdempotencyStore(@Value("${api.idempotency.max-size:10000}") long maxSize,
+                                    @Value("${api.idempotency.ttl:24h}") Duration ttl){
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key){
+        return Optional.ofNullable(responses.getIfPresent(key)).filter(response -> response != PENDING);
+    }
+
+    @Override
+    public boolean reserve(String key, String requestHash){
+        return responses.asMap().putIfAbsent(key, PENDING) == null;
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response){
+        responses.put(key, response);
+    }
+
+    @Override
+    public void release(String key){
+        responses.asMap().remove(key, PENDING);
+    }
+}
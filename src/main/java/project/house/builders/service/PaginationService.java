@@ -0,0 +1,105 @@
+package project.house.builders.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.house.builders.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds the page requests used by the listAll endpoints. Keyset pages continue after the last id of the
+ * previous page, passed back by the client as an opaque cursor. Offset pages are also available, with the
+ * total count cached for a short time so each page does not run a count query.
+ */
+@Service
+public class PaginationService {
+    private static final String CURSOR_PREFIX = "id:";
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
+    private final int defaultSize;
+    private final int maxSize;
+    private final Cache<Class<?>, Long> totalCounts;
+
+    public PaginationService(@Value("${api.pagination.default-size:50}") int defaultSize,
+                             @Value("${api.pagination.max-size:200}") int maxSize,
+                             @Value("${api.pagination.count-cache.ttl:30s}") Duration countTtl) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+        this.totalCounts = Caffeine.newBuilder()
+                .expireAfterWrite(countTtl)
+                .build();
+    }
+
+    public Pageable keysetPageable(Integer size){
+        return PageRequest.of(0, resolveSize(size), BY_ID);
+    }
+
+    public Pageable offsetPageable(int page, Integer size){
+        if(page < 0) throw new BadRequestException("Page cannot be negative.");
+        return PageRequest.of(page, resolveSize(size), BY_ID);
+    }
+
+    public long decodeCursor(String cursor){
+        if(cursor == null || cursor.isBlank()) return 0L;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if(!decoded.startsWith(CURSOR_PREFIX)) throw new BadRequestException("Invalid cursor.");
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException exception){
+            throw new BadRequestException("Invalid cursor.");
+        }
+    }
+
+    public String encodeCursor(long lastId){
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public <T> ResultPage<T> keysetPage(Slice<T> slice, ToLongFunction<T> idOf){
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? encodeCursor(idOf.applyAsLong(content.get(content.size() - 1)))
+                : null;
+        return new ResultPage<>(content, nextCursor, null);
+    }
+
+    public <T> ResultPage<T> offsetPage(Slice<T> slice, Class<?> type, LongSupplier count){
+        return new ResultPage<>(slice.getContent(), null, totalCounts.get(type, key -> count.getAsLong()));
+    }
+
+    /**
+     * Drops the cached count of a type once the current transaction commits. Evicting before the commit would let a
+     * concurrent page count the old rows again and cache that count for the whole ttl.
+     */
+    public void evictCount(Class<?> type){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            totalCounts.invalidate(type);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                totalCounts.invalidate(type);
+            }
+        });
+    }
+
+    private int resolveSize(Integer size){
+        if(size == null) return defaultSize;
+        if(size < 1) throw new BadRequestException("Size must be greater than zero.");
+        return Math.min(size, maxSize);
+    }
+}
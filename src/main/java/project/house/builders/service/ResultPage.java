@@ -0,0 +1,21 @@
+package project.house.builders.service;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+public record ResultPage<T>(List<T> content, String nextCursor, Long totalCount) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public <U> ResultPage<U> withContent(List<U> content){
+        return new ResultPage<>(content, nextCursor, totalCount);
+    }
+
+    public HttpHeaders headers(){
+        HttpHeaders headers = new HttpHeaders();
+        if(nextCursor != null) headers.set(NEXT_CURSOR_HEADER, nextCursor);
+        if(totalCount != null) headers.set(TOTAL_COUNT_HEADER, String.valueOf(totalCount));
+        return headers;
+    }
+}
@@ -0,0 +1,39 @@
+package project.house.builders.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.house.builders.user.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Tells whether a token issued for a given user version is still valid. The current version of
+ * each user is read with a single-column query and kept for a short time, so the check does not
+ * fetch the user row on every request. Changing the role or disabling the account bumps the version.
+ */
+@Service
+public class TokenRevocationService {
+    private final LoadingCache<String, Optional<Long>> activeVersions;
+
+    public TokenRevocationService(UserRepository userRepository,
+                                  @Value("${api.security.token.revocation.max-size:10000}") long maxSize,
+                                  @Value("${api.security.token.revocation.ttl:30s}") Duration ttl){
+        this.activeVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(userRepository::findActiveTokenVersionByLogin);
+    }
+
+    public boolean isRevoked(String login, long userVersion){
+        return activeVersions.get(login)
+                .map(activeVersion -> activeVersion != userVersion)
+                .orElse(true);
+    }
+
+    public void evict(String login){
+        activeVersions.invalidate(login);
+    }
+}
@@ -1,9 +1,11 @@
 package project.house.builders.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import project.house.builders.user.User;
@@ -11,16 +13,27 @@ import project.house.builders.user.User;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Optional;
 
 @Service
 public class TokenService {
-    @Value("${api.security.token.secret}")
-    private String secret;
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_VERSION_CLAIM = "ver";
+    private static final String ISSUER = "builder-api";
+
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+
+    public TokenService(@Value("${api.security.token.secret}") String secret){
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm).withIssuer(ISSUER).build();
+    }
 
     public String generateToken(User user){
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            String token = JWT.create().withIssuer("builder-api").withSubject(user.getLogin()).withExpiresAt(genExpirationDate())
+            String token = JWT.create().withIssuer(ISSUER).withSubject(user.getLogin()).withExpiresAt(genExpirationDate())
+                    .withClaim(ROLE_CLAIM, user.getRole().name())
+                    .withClaim(USER_VERSION_CLAIM, user.getTokenVersion())
                     .sign(algorithm);
             return token;
         } catch (JWTCreationException exception){
@@ -29,14 +42,14 @@ public class TokenService {
     }
 
     public String validateToken(String token){
+        return verifyToken(token).map(DecodedJWT::getSubject).orElse("");
+    }
+
+    public Optional<DecodedJWT> verifyToken(String token){
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm).withIssuer("builder-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            return Optional.of(verifier.verify(token));
         } catch(JWTVerificationException exception){
-            return "";
+            return Optional.empty();
         }
     }
 
@@ -0,0 +1,9 @@
+package project.house.builders.service;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public record VerifiedToken(String subject, Collection<? extends GrantedAuthority> authorities, long userVersion, Instant expiresAt) {
+}
@@ -0,0 +1,77 @@
+package project.house.builders.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Keeps the result of a successful JWT verification keyed by the SHA-256 digest of the token,
+ * so a token that was already checked costs a hash lookup instead of an HMAC verification.
+ * Entries live until the token expires and the cache never holds more than max-size tokens.
+ */
+@Service
+public class VerifiedTokenCache {
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${api.security.token.cache.max-size:10000}") long maxSize){
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    /**
+     * Returns the cached verification for the token, calling the verifier on a miss.
+     * A null from the verifier means the token is invalid, and nothing is cached.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier){
+        VerifiedToken verifiedToken = cache.get(digest(token), key -> verifier.apply(token));
+        if(verifiedToken == null || !verifiedToken.expiresAt().isAfter(Instant.now())) return null;
+        return verifiedToken;
+    }
+
+    public void invalidateAll(){
+        cache.invalidateAll();
+    }
+
+    public long size(){
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String token){
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException exception){
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
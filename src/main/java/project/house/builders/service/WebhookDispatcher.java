@@ -0,0 +1,246 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.domain.WebhookEndpoint;
+import project.house.builders.repository.WebhookEndpointRepository;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts the changes to the registered webhook endpoints. The change_log table, written in the same transaction
+ * as each change, is the outbox: every endpoint keeps the position it has delivered up to, and the dispatcher
+ * sends it the next changes as one JSON array, in order, from its own threads, never from the request
+ * that made the change. Before sending, an instance leases the endpoint in the database, so across all instances
+ * each endpoint has at most one batch in flight; the sender pool bounds them per instance. The position only
+ * moves while the lease is held and never backwards, and a lease left by a stopped instance expires.
+ * A failed batch is sent again after a backoff that doubles with every failure, so delivery is at least once.
+ */
+@Log4j2
+@Service
+public class WebhookDispatcher {
+    public static final String ENDPOINT_HEADER = "X-Webhook-Endpoint";
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    private final WebhookEndpointRepository webhookEndpointRepository;
+    private final ChangeLog changeLog;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService poller;
+    private final ExecutorService senders;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration timeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+
+    public WebhookDispatcher(WebhookEndpointRepository webhookEndpointRepository,
+                             ChangeLog changeLog,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${api.webhooks.poll-interval:1s}") Duration pollInterval,
+                             @Value("${api.webhooks.batch-size:100}") int batchSize,
+                             @Value("${api.webhooks.threads:4}") int threads,
+                             @Value("${api.webhooks.timeout:10s}") Duration timeout,
+                             @Value("${api.webhooks.initial-backoff:1s}") Duration initialBackoff,
+                             @Value("${api.webhooks.max-backoff:10m}") Duration maxBackoff,
+                             @Value("${api.webhooks.lease:1m}") Duration lease){
+        this.webhookEndpointRepository = webhookEndpointRepository;
+        this.changeLog = changeLog;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("webhook-poller-"));
+        this.senders = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("webhook-sender-"));
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.deliveredCounter = Counter.builder("webhooks.deliveries")
+                .tag("outcome", "delivered")
+                .description("Batches of changes posted to webhook endpoints")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("webhooks.deliveries")
+                .tag("outcome", "failed")
+                .description("Batches of changes posted to webhook endpoints")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start(){
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        poller.shutdownNow();
+        senders.shutdown();
+        if(!senders.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) senders.shutdownNow();
+    }
+
+    /**
+     * Hands every endpoint that is not waiting out a backoff, not leased to an instance and has no batch in
+     * flight here, to a sender.
+     */
+    void poll(){
+        Instant now = Instant.now();
+        for(WebhookEndpoint endpoint : webhookEndpointRepository.findAllWithTypes()){
+            if(endpoint.getNextAttemptAt() != null && endpoint.getNextAttemptAt().isAfter(now)) continue;
+            if(endpoint.getLeaseUntil() != null && endpoint.getLeaseUntil().isAfter(now)) continue;
+            Long id = endpoint.getId();
+            if(!inFlight.add(id)) continue;
+            try {
+                senders.execute(() -> {
+                    try {
+                        claimAndDeliver(id);
+                    } finally {
+                        inFlight.remove(id);
+                    }
+                });
+            } catch (RejectedExecutionException exception){
+                inFlight.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Leases the endpoint and delivers to it from the position stored when the lease was taken. Does nothing
+     * when another instance holds the endpoint.
+     */
+    void claimAndDeliver(Long id){
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(status -> webhookEndpointRepository.claim(id, instanceId, now, now.plus(lease)));
+        if(claimed == null || claimed != 1) return;
+        try {
+            webhookEndpointRepository.findById(id).ifPresent(this::deliver);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> webhookEndpointRepository.release(id, instanceId));
+        }
+    }
+
+    /**
+     * Sends batches to the leased endpoint until it is up to date, a delivery fails or the lease is lost.
+     */
+    void deliver(WebhookEndpoint endpoint){
+        long deliveredUpTo = endpoint.getDeliveredUpTo();
+        while(true){
+            List<ChangeLogEntry> changes = changeLog.changesAfter(deliveredUpTo, batchSize);
+            if(changes.isEmpty()) return;
+            if(deliveredUpTo == endpoint.getDeliveredUpTo() && changeLog.isPrunedAfter(deliveredUpTo)){
+                log.warn("Webhook endpoint {} may have missed changes after {}, they were pruned before it caught up", endpoint.getId(), deliveredUpTo);
+            }
+            List<ChangeLogEntry> matching = changes.stream()
+                    .filter(change -> endpoint.getTypes().isEmpty() || endpoint.getTypes().contains(change.getEntityType()))
+                    .toList();
+            if(!matching.isEmpty()){
+                String error = post(endpoint, matching);
+                if(error != null){
+                    failed(endpoint, error);
+                    return;
+                }
+                deliveredCounter.increment();
+            }
+            long upTo = changes.get(changes.size() - 1).getId();
+            Instant now = Instant.now();
+            Integer moved = transactionTemplate.execute(status -> webhookEndpointRepository.markDelivered(endpoint.getId(), instanceId, upTo, now, now.plus(lease)));
+            if(moved == null || moved != 1){
+                log.warn("Webhook endpoint {} is no longer leased to this instance, stopping its delivery at {}", endpoint.getId(), upTo);
+                return;
+            }
+            deliveredUpTo = upTo;
+            if(changes.size() < batchSize) return;
+        }
+    }
+
+    Duration backoff(int failures){
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(failures - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void failed(WebhookEndpoint endpoint, String error){
+        failedCounter.increment();
+        int failures = endpoint.getFailures() + 1;
+        Duration backoff = backoff(failures);
+        log.warn("Webhook endpoint {} failed {} times in a row, retrying in {}: {}", endpoint.getId(), failures, backoff, error);
+        String truncatedError = error.substring(0, Math.min(error.length(), 1000));
+        transactionTemplate.executeWithoutResult(status -> webhookEndpointRepository.markFailed(endpoint.getId(), instanceId, failures, Instant.now().plus(backoff), truncatedError));
+    }
+
+    private String post(WebhookEndpoint endpoint, List<ChangeLogEntry> changes){
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(changes);
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(endpoint.getUrl()))
+                    .timeout(timeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(ENDPOINT_HEADER, String.valueOf(endpoint.getId()))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if(endpoint.getSecret() != null) request.header(SIGNATURE_HEADER, "sha256=" + sign(endpoint.getSecret(), body));
+            int status = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 200 && status < 300 ? null : "The endpoint answered " + status + ".";
+        } catch (IOException | IllegalArgumentException exception){
+            return "The endpoint could not be reached: " + exception.getMessage();
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+            return "The delivery was interrupted.";
+        }
+    }
+
+    private void pollQuietly(){
+        try {
+            poll();
+        } catch (RuntimeException exception){
+            log.warn("Could not poll the webhook endpoints", exception);
+        }
+    }
+
+    static String sign(String secret, byte[] body){
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException exception){
+            throw new IllegalStateException(exception);
+        }
+    }
+}
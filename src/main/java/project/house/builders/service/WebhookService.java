@@ -0,0 +1,64 @@
+package project.house.builders.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.house.builders.domain.WebhookEndpoint;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.WebhookEndpointRepository;
+import project.house.builders.requests.WebhookPostRequestBody;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class WebhookService {
+    private static final Set<String> SCHEMES = Set.of("http", "https");
+
+    private final WebhookEndpointRepository webhookEndpointRepository;
+    private final ChangeLogSequencer changeLogSequencer;
+
+    public List<WebhookEndpoint> listAll(){
+        return webhookEndpointRepository.findAllWithTypes();
+    }
+
+    public WebhookEndpoint findByIdOrThrowBadRequestException(long id){
+        return webhookEndpointRepository.findById(id)
+                .orElseThrow(() -> new BadRequestException("Webhook not found."));
+    }
+
+    /**
+     * Registers the endpoint at the end of the change feed, so it receives the changes made from now on. The changes
+     * committed before are sequenced first, so none of them lands after the endpoint's start.
+     */
+    @Transactional
+    public WebhookEndpoint save(WebhookPostRequestBody webhookPostRequestBody){
+        if(webhookPostRequestBody == null || !isHttpUrl(webhookPostRequestBody.getUrl())) throw new BadRequestException("The webhook URL must be an absolute http or https URL.");
+        return webhookEndpointRepository.save(WebhookEndpoint.builder()
+                .url(webhookPostRequestBody.getUrl())
+                .secret(webhookPostRequestBody.getSecret())
+                .types(webhookPostRequestBody.getTypes() == null ? new HashSet<>() : new HashSet<>(webhookPostRequestBody.getTypes()))
+                .deliveredUpTo(changeLogSequencer.sequenceAll())
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    @Transactional
+    public void delete(long id){
+        webhookEndpointRepository.delete(findByIdOrThrowBadRequestException(id));
+    }
+
+    private static boolean isHttpUrl(String url){
+        if(url == null || url.isBlank()) return false;
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() != null && SCHEMES.contains(uri.getScheme().toLowerCase()) && uri.getHost() != null;
+        } catch (IllegalArgumentException exception){
+            return false;
+        }
+    }
+}
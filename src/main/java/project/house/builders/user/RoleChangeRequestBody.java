@@ -0,0 +1,10 @@
+package project.house.builders.user;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class RoleChangeRequestBody {
+    @Schema(description = "This is the login of the account you are changing", example = "user1")
+    public String login;
+    @Schema(description = "This is the new role of the account, can be USER or ADMIN", example = "ADMIN")
+    public UserRole role;
+}
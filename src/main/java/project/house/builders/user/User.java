@@ -7,17 +7,15 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 
 @Entity
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_login", columnList = "login", unique = true))
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -28,6 +26,8 @@ public class User implements UserDetails {
     private String password;
     @NotNull
     private UserRole role;
+    private long tokenVersion;
+    private boolean disabled;
 
     public User(String login, String password, UserRole role){
         this.login = login;
@@ -35,13 +35,23 @@ public class User implements UserDetails {
         this.role = role;
     }
 
+    public void changeRole(UserRole role){
+        this.role = role;
+        this.tokenVersion++;
+    }
+
+    public void changePassword(String password){
+        this.password = password;
+    }
+
+    public void disable(){
+        this.disabled = true;
+        this.tokenVersion++;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        if(this.role == UserRole.ADMIN){
-            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"));
-        } else {
-            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
-        }
+        return role.getAuthorities();
     }
 
     @Override
@@ -66,6 +76,6 @@ public class User implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return !disabled;
     }
 }
@@ -1,8 +1,17 @@
 package project.house.builders.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Optional;
+
 public interface UserRepository extends JpaRepository<User, String> {
     UserDetails findByLogin(String login);
+
+    boolean existsByLogin(String login);
+
+    @Query("select u.tokenVersion from User u where u.login = :login and u.disabled = false")
+    Optional<Long> findActiveTokenVersionByLogin(@Param("login") String login);
 }
@@ -1,5 +1,11 @@
 package project.house.builders.user;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
 public enum UserRole {
     ADMIN("admin"),
     USER("user");
@@ -13,4 +19,12 @@ public enum UserRole {
     public String getRole(){
         return role;
     }
-}
\ No newline at end of file
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        if(this == UserRole.ADMIN){
+            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"));
+        } else {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+    }
+}
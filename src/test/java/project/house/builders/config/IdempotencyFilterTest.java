@@ -0,0 +1,195 @@
+package project.house.builders.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.util.StreamUtils;
+import project.house.builders.service.IdempotencyStore;
+import project.house.builders.service.IdempotentResponse;
+import project.house.builders.service.InMemoryIdempotencyStore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Tests for idempotency filter")
+class IdempotencyFilterTest {
+    private IdempotencyFilter idempotencyFilter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp(){
+        idempotencyFilter = new IdempotencyFilter(new InMemoryIdempotencyStore(100, Duration.ofMinutes(1)),
+                new ObjectMapper().findAndRegisterModules(), Duration.ofSeconds(5));
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("a retried key returns the stored response without running the request again")
+    void doFilter_ReplaysStoredResponse_WhenKeyIsRetried() throws Exception {
+        MockHttpServletResponse first = post("key-1", "{\"name\":\"Test\"}", created());
+        MockHttpServletResponse retry = post("key-1", "{\"name\":\"Test\"}", created());
+
+        Assertions.assertThat(executions).hasValue(1);
+        Assertions.assertThat(retry.getStatus()).isEqualTo(201);
+        Assertions.assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(retry.getHeader(HttpHeaders.ETAG)).isEqualTo("\"0\"");
+        Assertions.assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        Assertions.assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    @DisplayName("a key reused with a different body returns 422")
+    void doFilter_Returns422_WhenKeyIsReusedWithDifferentBody() throws Exception {
+        post("key-1", "{\"name\":\"Test\"}", created());
+        MockHttpServletResponse reused = post("key-1", "{\"name\":\"Other\"}", created());
+
+        Assertions.assertThat(executions).hasValue(1);
+        Assertions.assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    @DisplayName("a failed response is not stored, so the retry runs the request")
+    void doFilter_RunsRequestAgain_WhenFirstResponseFailed() throws Exception {
+        post("key-1", "{}", (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+        });
+        MockHttpServletResponse retry = post("key-1", "{}", created());
+
+        Assertions.assertThat(executions).hasValue(2);
+        Assertions.assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("concurrent requests with the same key run once and share the response")
+    void doFilter_RunsOnce_WhenRequestsWithSameKeyAreConcurrent() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            awaitQuietly(release);
+            created().doFilter(request, response);
+        };
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> postQuietly("key-1", slow));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<MockHttpServletResponse> second = CompletableFuture.supplyAsync(() -> postQuietly("key-1", slow));
+
+        Thread.sleep(100);
+        release.countDown();
+
+        Assertions.assertThat(first.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(second.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        Assertions.assertThat(second.get().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        Assertions.assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("a key reserved by another instance returns 409 once the wait timeout passes")
+    void doFilter_Returns409_WhenAnotherInstanceHoldsTheKey() throws Exception {
+        IdempotencyStore idempotencyStoreMock = Mockito.mock(IdempotencyStore.class);
+        BDDMockito.when(idempotencyStoreMock.find(ArgumentMatchers.anyString())).thenReturn(Optional.empty());
+        BDDMockito.when(idempotencyStoreMock.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenReturn(false);
+        idempotencyFilter = new IdempotencyFilter(idempotencyStoreMock, new ObjectMapper().findAndRegisterModules(), Duration.ofMillis(250));
+
+        MockHttpServletResponse response = post("key-1", "{}", created());
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(409);
+        Assertions.assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("a key reserved by another instance replays its response once it is saved")
+    void doFilter_ReplaysResponse_WhenAnotherInstanceSavesIt() throws Exception {
+        IdempotencyStore idempotencyStoreMock = Mockito.mock(IdempotencyStore.class);
+        IdempotentResponse saved = new IdempotentResponse(sha256("{}"), 201, "application/json", null, null, "{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+        BDDMockito.when(idempotencyStoreMock.find(ArgumentMatchers.anyString())).thenReturn(Optional.empty(), Optional.of(saved));
+        BDDMockito.when(idempotencyStoreMock.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenReturn(false);
+        idempotencyFilter = new IdempotencyFilter(idempotencyStoreMock, new ObjectMapper().findAndRegisterModules(), Duration.ofSeconds(5));
+
+        MockHttpServletResponse response = post("key-1", "{}", created());
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(201);
+        Assertions.assertThat(response.getContentAsString()).isEqualTo("{\"id\":7}");
+        Assertions.assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("a failed response releases the reserved key")
+    void doFilter_ReleasesKey_WhenResponseFailed() throws Exception {
+        IdempotencyStore idempotencyStoreMock = Mockito.mock(IdempotencyStore.class);
+        BDDMockito.when(idempotencyStoreMock.find(ArgumentMatchers.anyString())).thenReturn(Optional.empty());
+        BDDMockito.when(idempotencyStoreMock.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString())).thenReturn(true);
+        idempotencyFilter = new IdempotencyFilter(idempotencyStoreMock, new ObjectMapper().findAndRegisterModules(), Duration.ofSeconds(5));
+
+        post("key-1", "{}", (request, response) -> ((HttpServletResponse) response).setStatus(500));
+
+        Mockito.verify(idempotencyStoreMock).release(ArgumentMatchers.anyString());
+        Mockito.verify(idempotencyStoreMock, Mockito.never()).save(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("requests without the header are not tracked")
+    void doFilter_RunsEveryTime_WhenHeaderIsMissing() throws Exception {
+        post(null, "{}", created());
+        post(null, "{}", created());
+
+        Assertions.assertThat(executions).hasValue(2);
+    }
+
+    private FilterChain created(){
+        return (request, response) -> {
+            StreamUtils.copyToByteArray(request.getInputStream());
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType("application/json");
+            httpResponse.setHeader(HttpHeaders.ETAG, "\"0\"");
+            httpResponse.getOutputStream().write(("{\"id\":" + executions.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain filterChain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/engineers");
+        if(key != null) request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    private MockHttpServletResponse postQuietly(String key, FilterChain filterChain){
+        try {
+            return post(key, "{}", filterChain);
+        } catch (Exception exception){
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String sha256(String body) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package project.house.builders.config;
+
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+@DataJpaTest
+@Import(SequenceSeeder.class)
+// Restarting a sequence is DDL, which H2 commits right away.
+@DirtiesContext
+@DisplayName("Tests for sequence seeder")
+class SequenceSeederTest {
+    @Autowired
+    private SequenceSeeder sequenceSeeder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("seed moves a sequence past the ids already in its table")
+    void seed_MovesSequencePastExistingIds_WhenTableHasRows(){
+        entityManager.createNativeQuery("insert into house (id, version, project_name) values (5000, 0, 'Imported')").executeUpdate();
+
+        sequenceSeeder.seed();
+
+        Assertions.assertThat(nextValue("house_seq")).isGreaterThanOrEqualTo(5100);
+    }
+
+    @Test
+    @DisplayName("seed leaves the sequence of an empty table alone")
+    void seed_LeavesSequence_WhenTableIsEmpty(){
+        sequenceSeeder.seed();
+
+        Assertions.assertThat(nextValue("engineer_seq")).isLessThan(5000);
+    }
+
+    private long nextValue(String sequence){
+        return ((Number) entityManager.createNativeQuery("select next value for " + sequence).getSingleResult()).longValue();
+    }
+}
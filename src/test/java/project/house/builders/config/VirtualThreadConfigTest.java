@@ -0,0 +1,35 @@
+package project.house.builders.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("Tests for virtual thread config")
+class VirtualThreadConfigTest {
+
+    @Test
+    @DisplayName("the executor runs each task on a new virtual thread on Java 21 or later")
+    void newVirtualThreadPerTaskExecutor_RunsTasksOnVirtualThreads_WhenJavaSupportsThem() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21);
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            Assertions.assertThat((boolean) Thread.class.getMethod("isVirtual").invoke(thread)).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("the executor fails fast with IllegalStateException before Java 21")
+    void newVirtualThreadPerTaskExecutor_ThrowsIllegalStateException_WhenJavaIsOlder(){
+        Assumptions.assumeTrue(Runtime.version().feature() < 21);
+        Assertions.assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(VirtualThreadConfig::newVirtualThreadPerTaskExecutor)
+                .withMessageContaining("Java 21");
+    }
+}
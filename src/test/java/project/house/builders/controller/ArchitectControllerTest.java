@@ -13,9 +13,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import project.house.builders.domain.Architect;
+import project.house.builders.domain.House;
 import project.house.builders.requests.ArchitectPostRequestBody;
 import project.house.builders.requests.ArchitectPutRequestBody;
+import project.house.builders.responses.ArchitectResponse;
+import project.house.builders.service.ArchitectBulkService;
 import project.house.builders.service.ArchitectService;
+import project.house.builders.service.ChangeCounter;
+import project.house.builders.service.ResultPage;
 import project.house.builders.util.ArchitectCreator;
 import project.house.builders.util.ArchitectPostRequestBodyCreator;
 import project.house.builders.util.ArchitectPutRequestBodyCreator;
@@ -31,17 +36,24 @@ class ArchitectControllerTest {
     private ArchitectController architectController;
     @Mock
     private ArchitectService architectServiceMock;
+    @Mock
+    private ArchitectBulkService architectBulkServiceMock;
+    @Mock
+    private ChangeCounter changeCounterMock;
 
     @BeforeEach
     void setUp(){
-        List<Architect> architectList = new ArrayList<>(List.of(ArchitectCreator.createValidArchitect()));
+        BDDMockito.when(changeCounterMock.token(Architect.class, House.class)).thenReturn("c1-2");
+        BDDMockito.when(changeCounterMock.token(House.class)).thenReturn("c2");
+        List<ArchitectResponse> architectList = new ArrayList<>(List.of(ArchitectCreator.createValidArchitectResponse()));
 
-        BDDMockito.when(architectServiceMock.listAll()).thenReturn(architectList);
-        BDDMockito.when(architectServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong())).thenReturn(ArchitectCreator.createValidArchitect());
+        BDDMockito.when(architectServiceMock.listAll(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(new ResultPage<>(architectList, null, null));
+        BDDMockito.when(architectServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong())).thenReturn(ArchitectCreator.createValidArchitectResponse());
         BDDMockito.when(architectServiceMock.findByName(ArgumentMatchers.anyString())).thenReturn(architectList);
         BDDMockito.when(architectServiceMock.save(ArgumentMatchers.any(ArchitectPostRequestBody.class))).thenReturn(ArchitectCreator.createValidArchitect());
-        BDDMockito.doNothing().when(architectServiceMock).replace(ArgumentMatchers.any(ArchitectPutRequestBody.class));
-        BDDMockito.doNothing().when(architectServiceMock).delete(ArgumentMatchers.anyLong());
+        BDDMockito.when(architectServiceMock.replace(ArgumentMatchers.any(ArchitectPutRequestBody.class), ArgumentMatchers.any())).thenReturn(1L);
+        BDDMockito.doNothing().when(architectServiceMock).delete(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
 
     }
 
@@ -49,32 +61,32 @@ class ArchitectControllerTest {
     @DisplayName("listAll returns list of architects when successful")
     void listAll_ReturnsListOfArchitect_WhenSuccessful(){
         String expectedName = ArchitectCreator.createValidArchitect().getName();
-        List<Architect> architectList = architectController.listAll().getBody();
+        List<ArchitectResponse> architectList = architectController.listAll(null, null, null, null).getBody();
 
         Assertions.assertThat(architectList).isNotNull();
         Assertions.assertThat(architectList).isNotEmpty().hasSize(1);
-        Assertions.assertThat(architectList.get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(architectList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("FindById returns architect when successful")
     void findById_ReturnsArchitect_WhenSuccessful(){
         Long expectedId = ArchitectCreator.createValidArchitect().getId();
-        Architect architect = architectController.findById(1).getBody();
+        ArchitectResponse architect = architectController.findById(1, null).getBody();
 
         Assertions.assertThat(architect).isNotNull();
-        Assertions.assertThat(architect.getId()).isEqualTo(expectedId);
+        Assertions.assertThat(architect.id()).isEqualTo(expectedId);
     }
 
     @Test
     @DisplayName("FindByName returns list of architect when successful")
     void findByName_ReturnsListOfArchitect_WhenSuccessful(){
         String expectedName = ArchitectCreator.createValidArchitect().getName();
-        List<Architect> architectList = architectController.findByName("test").getBody();
+        List<ArchitectResponse> architectList = architectController.findByName("test", null).getBody();
 
         Assertions.assertThat(architectList).isNotNull();
         Assertions.assertThat(architectList).isNotEmpty().hasSize(1);
-        Assertions.assertThat(architectList.get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(architectList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
@@ -82,7 +94,7 @@ class ArchitectControllerTest {
     void findByName_ReturnsEmptyList_WhenArchitectIsNotFound(){
         BDDMockito.when(architectServiceMock.findByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
 
-        List<Architect> architectList = architectController.findByName("test").getBody();
+        List<ArchitectResponse> architectList = architectController.findByName("test", null).getBody();
 
         Assertions.assertThat(architectList).isNotNull().isEmpty();
     }
@@ -98,10 +110,10 @@ class ArchitectControllerTest {
     @Test
     @DisplayName("replace updates architect when successful")
     void replace_UpdatesArchitect_WhenSuccessful(){
-        Assertions.assertThatCode(() -> architectController.replace(ArchitectPutRequestBodyCreator.createArchitectPutRequestBody()))
+        Assertions.assertThatCode(() -> architectController.replace(ArchitectPutRequestBodyCreator.createArchitectPutRequestBody(), null))
                         .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = architectController.replace(ArchitectPutRequestBodyCreator.createArchitectPutRequestBody());
+        ResponseEntity<Void> entity = architectController.replace(ArchitectPutRequestBodyCreator.createArchitectPutRequestBody(), null);
 
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
@@ -109,10 +121,10 @@ class ArchitectControllerTest {
     @Test
     @DisplayName("delete removes architect when successful")
     void delete_RemovesArchitect_WhenSuccessful(){
-        Assertions.assertThatCode(() -> architectController.delete(1))
+        Assertions.assertThatCode(() -> architectController.delete(1, null))
                 .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = architectController.delete(1);
+        ResponseEntity<Void> entity = architectController.delete(1, null);
 
         Assertions.assertThat(entity).isNotNull();
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
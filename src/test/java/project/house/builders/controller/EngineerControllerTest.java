@@ -13,9 +13,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
 import project.house.builders.requests.EngineerPostRequestBody;
 import project.house.builders.requests.EngineerPutRequestBody;
+import project.house.builders.responses.EngineerResponse;
+import project.house.builders.service.ChangeCounter;
+import project.house.builders.service.EngineerBulkService;
 import project.house.builders.service.EngineerService;
+import project.house.builders.service.ResultPage;
 import project.house.builders.util.EngineerCreator;
 import project.house.builders.util.EngineerPostRequestBodyCreator;
 import project.house.builders.util.EngineerPutRequestBodyCreator;
@@ -31,17 +36,24 @@ class EngineerControllerTest {
     private EngineerController engineerController;
     @Mock
     private EngineerService engineerServiceMock;
+    @Mock
+    private EngineerBulkService engineerBulkServiceMock;
+    @Mock
+    private ChangeCounter changeCounterMock;
 
     @BeforeEach
     void setUp(){
-        List<Engineer> engineerList = new ArrayList<>(List.of(EngineerCreator.createValidEngineer()));
+        BDDMockito.when(changeCounterMock.token(Engineer.class, House.class)).thenReturn("c1-2");
+        BDDMockito.when(changeCounterMock.token(House.class)).thenReturn("c2");
+        List<EngineerResponse> engineerList = new ArrayList<>(List.of(EngineerCreator.createValidEngineerResponse()));
 
-        BDDMockito.when(engineerServiceMock.listAll()).thenReturn(engineerList);
-        BDDMockito.when(engineerServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong())).thenReturn(EngineerCreator.createValidEngineer());
+        BDDMockito.when(engineerServiceMock.listAll(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(new ResultPage<>(engineerList, null, null));
+        BDDMockito.when(engineerServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong())).thenReturn(EngineerCreator.createValidEngineerResponse());
         BDDMockito.when(engineerServiceMock.findByName(ArgumentMatchers.anyString())).thenReturn(engineerList);
         BDDMockito.when(engineerServiceMock.save(ArgumentMatchers.any(EngineerPostRequestBody.class))).thenReturn(EngineerCreator.createValidEngineer());
-        BDDMockito.doNothing().when(engineerServiceMock).replace(ArgumentMatchers.any(EngineerPutRequestBody.class));
-        BDDMockito.doNothing().when(engineerServiceMock).delete(ArgumentMatchers.anyLong());
+        BDDMockito.when(engineerServiceMock.replace(ArgumentMatchers.any(EngineerPutRequestBody.class), ArgumentMatchers.any())).thenReturn(1L);
+        BDDMockito.doNothing().when(engineerServiceMock).delete(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
 
     }
 
@@ -49,32 +61,32 @@ class EngineerControllerTest {
     @DisplayName("listAll returns list of engineers when successful")
     void listAll_ReturnsListOfEngineer_WhenSuccessful(){
         String expectedName = EngineerCreator.createValidEngineer().getName();
-        List<Engineer> engineerList = engineerController.listAll().getBody();
+        List<EngineerResponse> engineerList = engineerController.listAll(null, null, null, null).getBody();
 
         Assertions.assertThat(engineerList).isNotNull();
         Assertions.assertThat(engineerList).isNotEmpty().hasSize(1);
-        Assertions.assertThat(engineerList.get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(engineerList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("FindById returns engineer when successful")
     void findById_ReturnsEngineer_WhenSuccessful(){
         Long expectedId = EngineerCreator.createValidEngineer().getId();
-        Engineer engineer = engineerController.findById(1).getBody();
+        EngineerResponse engineer = engineerController.findById(1, null).getBody();
 
         Assertions.assertThat(engineer).isNotNull();
-        Assertions.assertThat(engineer.getId()).isEqualTo(expectedId);
+        Assertions.assertThat(engineer.id()).isEqualTo(expectedId);
     }
 
     @Test
     @DisplayName("FindByName returns list of engineer when successful")
     void findByName_ReturnsListOfEngineer_WhenSuccessful(){
         String expectedName = EngineerCreator.createValidEngineer().getName();
-        List<Engineer> engineerList = engineerController.findByName("test").getBody();
+        List<EngineerResponse> engineerList = engineerController.findByName("test", null).getBody();
 
         Assertions.assertThat(engineerList).isNotNull();
         Assertions.assertThat(engineerList).isNotEmpty().hasSize(1);
-        Assertions.assertThat(engineerList.get(0).getName()).isEqualTo(expectedName);
+        Assertions.assertThat(engineerList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
@@ -82,7 +94,7 @@ class EngineerControllerTest {
     void findByName_ReturnsEmptyList_WhenEngineerIsNotFound(){
         BDDMockito.when(engineerServiceMock.findByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
 
-        List<Engineer> engineerList = engineerController.findByName("test").getBody();
+        List<EngineerResponse> engineerList = engineerController.findByName("test", null).getBody();
 
         Assertions.assertThat(engineerList).isNotNull().isEmpty();
     }
@@ -98,10 +110,10 @@ class EngineerControllerTest {
     @Test
     @DisplayName("replace updates engineer when successful")
     void replace_UpdatesEngineer_WhenSuccessful(){
-        Assertions.assertThatCode(() -> engineerController.replace(EngineerPutRequestBodyCreator.createEngineerPutRequestBody()))
+        Assertions.assertThatCode(() -> engineerController.replace(EngineerPutRequestBodyCreator.createEngineerPutRequestBody(), null))
                         .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = engineerController.replace(EngineerPutRequestBodyCreator.createEngineerPutRequestBody());
+        ResponseEntity<Void> entity = engineerController.replace(EngineerPutRequestBodyCreator.createEngineerPutRequestBody(), null);
 
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
@@ -109,10 +121,10 @@ class EngineerControllerTest {
     @Test
     @DisplayName("delete removes engineer when successful")
     void delete_RemovesEngineer_WhenSuccessful(){
-        Assertions.assertThatCode(() -> engineerController.delete(1))
+        Assertions.assertThatCode(() -> engineerController.delete(1, null))
                 .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = engineerController.delete(1);
+        ResponseEntity<Void> entity = engineerController.delete(1, null);
 
         Assertions.assertThat(entity).isNotNull();
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
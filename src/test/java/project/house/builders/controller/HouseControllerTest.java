@@ -9,20 +9,32 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import project.house.builders.domain.House;
 import project.house.builders.requests.HousePostRequestBody;
 import project.house.builders.requests.HousePutRequestBody;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.HouseResponse;
+import project.house.builders.responses.IngestionTicket;
+import project.house.builders.service.ChangeCounter;
+import project.house.builders.service.HouseBulkService;
+import project.house.builders.service.HouseExportService;
+import project.house.builders.service.HouseIngestionService;
 import project.house.builders.service.HouseService;
+import project.house.builders.service.ResultPage;
 import project.house.builders.util.HouseCreator;
 import project.house.builders.util.HousePostRequestBodyCreator;
 import project.house.builders.util.HousePutRequestBodyCreator;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @ExtendWith(SpringExtension.class)
 @DisplayName("Tests for house controller")
@@ -31,17 +43,27 @@ class HouseControllerTest {
     private HouseController houseController;
     @Mock
     private HouseService houseServiceMock;
+    @Mock
+    private HouseExportService houseExportServiceMock;
+    @Mock
+    private HouseBulkService houseBulkServiceMock;
+    @Mock
+    private HouseIngestionService houseIngestionServiceMock;
+    @Mock
+    private ChangeCounter changeCounterMock;
 
     @BeforeEach
     void setUp(){
-        List<House> houseList = new ArrayList<>(List.of(HouseCreator.createValidHouse()));
+        BDDMockito.when(changeCounterMock.token(House.class)).thenReturn("c1", "c1", "c2");
+        List<HouseResponse> houseList = new ArrayList<>(List.of(HouseCreator.createValidHouseResponse()));
 
-        BDDMockito.when(houseServiceMock.listAll()).thenReturn(houseList);
-        BDDMockito.when(houseServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong())).thenReturn(HouseCreator.createValidHouse());
+        BDDMockito.when(houseServiceMock.listAll(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(new ResultPage<>(houseList, null, null));
+        BDDMockito.when(houseServiceMock.findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong())).thenReturn(HouseCreator.createValidHouseResponse());
         BDDMockito.when(houseServiceMock.findByName(ArgumentMatchers.anyString())).thenReturn(houseList);
         BDDMockito.when(houseServiceMock.save(ArgumentMatchers.any(HousePostRequestBody.class))).thenReturn(HouseCreator.createValidHouse());
-        BDDMockito.doNothing().when(houseServiceMock).replace(ArgumentMatchers.any(HousePutRequestBody.class));
-        BDDMockito.doNothing().when(houseServiceMock).delete(ArgumentMatchers.anyLong());
+        BDDMockito.when(houseServiceMock.replace(ArgumentMatchers.any(HousePutRequestBody.class), ArgumentMatchers.any())).thenReturn(1L);
+        BDDMockito.doNothing().when(houseServiceMock).delete(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
 
     }
 
@@ -49,32 +71,107 @@ class HouseControllerTest {
     @DisplayName("listAll returns list of houses when successful")
     void listAll_ReturnsListOfHouse_WhenSuccessful(){
         String expectedName = HouseCreator.createValidHouse().getProjectName();
-        List<House> houseList = houseController.listAll().getBody();
+        List<HouseResponse> houseList = houseController.listAll(null, null, null, null).getBody();
 
         Assertions.assertThat(houseList).isNotNull();
         Assertions.assertThat(houseList).isNotEmpty().hasSize(1);
-        Assertions.assertThat(houseList.get(0).getProjectName()).isEqualTo(expectedName);
+        Assertions.assertThat(houseList.get(0).projectName()).isEqualTo(expectedName);
+    }
+
+    @Test
+    @DisplayName("export streams houses as NDJSON when successful")
+    void export_StreamsHousesAsNdjson_WhenSuccessful() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        houseController.export(response);
+
+        Assertions.assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        Mockito.verify(houseExportServiceMock).exportTo(response.getOutputStream());
+    }
+
+    @Test
+    @DisplayName("saveAsync returns 202 with the ticket and its location when successful")
+    void saveAsync_Returns202WithTicket_WhenSuccessful(){
+        IngestionTicket ticket = IngestionTicket.queued("ticket-1");
+        BDDMockito.when(houseIngestionServiceMock.submit(ArgumentMatchers.any(HousePostRequestBody.class))).thenReturn(ticket);
+
+        ResponseEntity<IngestionTicket> response = houseController.saveAsync(HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName());
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(response.getHeaders().getLocation()).hasToString("/houses/async/ticket-1");
+        Assertions.assertThat(response.getBody()).isEqualTo(ticket);
+    }
+
+    @Test
+    @DisplayName("saveAll returns 200 when an item is rejected and the request is not atomic")
+    void saveAll_Returns200_WhenItemIsRejectedAndNotAtomic(){
+        List<BulkItemResult> results = List.of(BulkItemResult.created(0, 1L), BulkItemResult.rejected(1, "Engineer not found"));
+        BDDMockito.when(houseBulkServiceMock.saveAll(ArgumentMatchers.anyList(), ArgumentMatchers.eq(false))).thenReturn(results);
+
+        ResponseEntity<List<BulkItemResult>> response = houseController.saveAll(List.of(HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName()), false);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getBody()).isEqualTo(results);
+    }
+
+    @Test
+    @DisplayName("saveAll returns 400 when an item is rejected and the request is atomic")
+    void saveAll_Returns400_WhenItemIsRejectedAndAtomic(){
+        BDDMockito.when(houseBulkServiceMock.saveAll(ArgumentMatchers.anyList(), ArgumentMatchers.eq(true)))
+                .thenReturn(List.of(BulkItemResult.skipped(0), BulkItemResult.rejected(1, "Engineer not found")));
+
+        ResponseEntity<List<BulkItemResult>> response = houseController.saveAll(List.of(HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName()), true);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     @DisplayName("FindById returns house when successful")
     void findById_ReturnsHouse_WhenSuccessful(){
         Long expectedId = HouseCreator.createValidHouse().getId();
-        House house = houseController.findById(1).getBody();
+        HouseResponse house = houseController.findById(1, null).getBody();
 
         Assertions.assertThat(house).isNotNull();
-        Assertions.assertThat(house.getId()).isEqualTo(expectedId);
+        Assertions.assertThat(house.id()).isEqualTo(expectedId);
+    }
+
+    @Test
+    @DisplayName("findById returns 304 without loading the house when If-None-Match names the current version")
+    void findById_Returns304_WhenIfNoneMatchNamesCurrentVersion(){
+        BDDMockito.when(houseServiceMock.findVersion(1)).thenReturn(Optional.of(2L));
+
+        ResponseEntity<HouseResponse> response = houseController.findById(1, "\"2\"");
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(response.getHeaders().getETag()).isEqualTo("\"2\"");
+        Assertions.assertThat(response.getBody()).isNull();
+        Mockito.verify(houseServiceMock, Mockito.never()).findByIdOrThrowBadRequestException(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("listAll returns 304 without querying when If-None-Match names the current list ETag")
+    void listAll_Returns304_WhenIfNoneMatchNamesCurrentETag(){
+        String eTag = houseController.listAll(null, null, null, null).getHeaders().getETag();
+
+        ResponseEntity<List<HouseResponse>> notModified = houseController.listAll(null, null, null, eTag);
+        ResponseEntity<List<HouseResponse>> changed = houseController.listAll(null, null, null, eTag);
+
+        Assertions.assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(notModified.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        Assertions.assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+        Mockito.verify(houseServiceMock, Mockito.times(2)).listAll(null, null, null);
     }
 
     @Test
     @DisplayName("FindByName returns list of house when successful")
     void findByName_ReturnsListOfHouse_WhenSuccessful(){
         String expectedName = HouseCreator.createValidHouse().getProjectName();
-        List<House> houseList = houseController.findByName("test").getBody();
+        List<HouseResponse> houseList = houseController.findByName("test", null).getBody();
 
         Assertions.assertThat(houseList).isNotNull();
         Assertions.assertThat(houseList).isNotEmpty().hasSize(1);
-        Assertions.assertThat(houseList.get(0).getProjectName()).isEqualTo(expectedName);
+        Assertions.assertThat(houseList.get(0).projectName()).isEqualTo(expectedName);
     }
 
     @Test
@@ -82,7 +179,7 @@ class HouseControllerTest {
     void findByName_ReturnsEmptyList_WhenHouseIsNotFound(){
         BDDMockito.when(houseServiceMock.findByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
 
-        List<House> houseList = houseController.findByName("test").getBody();
+        List<HouseResponse> houseList = houseController.findByName("test", null).getBody();
 
         Assertions.assertThat(houseList).isNotNull().isEmpty();
     }
@@ -98,10 +195,10 @@ class HouseControllerTest {
     @Test
     @DisplayName("replace updates house when successful")
     void replace_UpdatesHouse_WhenSuccessful(){
-        Assertions.assertThatCode(() -> houseController.replace(HousePutRequestBodyCreator.createHousePutRequestBodyOnlyWithName()))
+        Assertions.assertThatCode(() -> houseController.replace(HousePutRequestBodyCreator.createHousePutRequestBodyOnlyWithName(), null))
                         .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = houseController.replace(HousePutRequestBodyCreator.createHousePutRequestBody());
+        ResponseEntity<Void> entity = houseController.replace(HousePutRequestBodyCreator.createHousePutRequestBody(), null);
 
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
@@ -109,10 +206,10 @@ class HouseControllerTest {
     @Test
     @DisplayName("delete removes house when successful")
     void delete_RemovesHouse_WhenSuccessful(){
-        Assertions.assertThatCode(() -> houseController.delete(1))
+        Assertions.assertThatCode(() -> houseController.delete(1, null))
                 .doesNotThrowAnyException();
 
-        ResponseEntity<Void> entity = houseController.delete(1);
+        ResponseEntity<Void> entity = houseController.delete(1, null);
 
         Assertions.assertThat(entity).isNotNull();
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
@@ -18,6 +18,8 @@ import project.house.builders.domain.House;
 import project.house.builders.repository.ArchitectRepository;
 import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.ArchitectPostRequestBody;
+import project.house.builders.requests.ArchitectUpsertRequestBody;
+import project.house.builders.responses.UpsertResult;
 import project.house.builders.util.ArchitectCreator;
 import project.house.builders.util.ArchitectPostRequestBodyCreator;
 import project.house.builders.util.HouseCreator;
@@ -103,6 +105,22 @@ class ArchitectControllerIT {
         Assertions.assertThat(entity.getBody().getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("upsertAll inserts unknown architects and updates only the changed ones when successful")
+    void upsertAll_InsertsAndUpdatesByExternalId_WhenSuccessful() throws JSONException {
+        HttpHeaders adminHeader = getAdminHeader();
+        List<ArchitectUpsertRequestBody> roster = List.of(new ArchitectUpsertRequestBody("HR-1", "First"), new ArchitectUpsertRequestBody("HR-2", "Second"));
+        ResponseEntity<UpsertResult> firstSync = testRestTemplate.exchange("/architects/bulk", HttpMethod.PUT, new HttpEntity<>(roster, adminHeader), UpsertResult.class);
+
+        List<ArchitectUpsertRequestBody> changedRoster = List.of(new ArchitectUpsertRequestBody("HR-1", "First"), new ArchitectUpsertRequestBody("HR-2", "Second renamed"),
+                new ArchitectUpsertRequestBody("HR-3", "Third"));
+        ResponseEntity<UpsertResult> secondSync = testRestTemplate.exchange("/architects/bulk", HttpMethod.PUT, new HttpEntity<>(changedRoster, adminHeader), UpsertResult.class);
+
+        Assertions.assertThat(firstSync.getBody()).isEqualTo(new UpsertResult(2, 0, 0));
+        Assertions.assertThat(secondSync.getBody()).isEqualTo(new UpsertResult(1, 1, 1));
+        Assertions.assertThat(architectRepository.findAll()).extracting(Architect::getName).containsExactlyInAnyOrder("First", "Second renamed", "Third");
+    }
+
     @Test
     @DisplayName("replace updates architect when successful")
     void replace_UpdatesArchitect_WhenSuccessful() throws JSONException {
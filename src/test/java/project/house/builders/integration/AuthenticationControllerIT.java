@@ -0,0 +1,131 @@
+package project.house.builders.integration;
+
+import org.assertj.core.api.Assertions;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.user.User;
+import project.house.builders.user.UserRepository;
+import project.house.builders.user.UserRole;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for authentication controller")
+class AuthenticationControllerIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("login returns a token when successful")
+    void login_ReturnsToken_WhenSuccessful() throws JSONException {
+        register("teste", "teste", "USER");
+
+        ResponseEntity<String> loginResponse = login("teste", "teste");
+
+        Assertions.assertThat(loginResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(new JSONObject(loginResponse.getBody()).getString("token")).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("login returns 403 when the password is wrong")
+    void login_Returns403_WhenPasswordIsWrong() throws JSONException {
+        register("teste", "teste", "USER");
+
+        ResponseEntity<String> loginResponse = login("teste", "wrong");
+
+        Assertions.assertThat(loginResponse.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @DisplayName("login returns 403 when the login does not exist")
+    void login_Returns403_WhenLoginDoesNotExist() throws JSONException {
+        ResponseEntity<String> loginResponse = login("nobody", "teste");
+
+        Assertions.assertThat(loginResponse.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @DisplayName("login rehashes the stored password when its strength differs from the configured one")
+    void login_RehashesPassword_WhenStrengthDiffers() throws JSONException {
+        String weakHash = new BCryptPasswordEncoder(4).encode("teste");
+        userRepository.save(new User("teste", weakHash, UserRole.USER));
+
+        ResponseEntity<String> loginResponse = login("teste", "teste");
+
+        Assertions.assertThat(loginResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String storedHash = userRepository.findByLogin("teste").getPassword();
+        Assertions.assertThat(storedHash).isNotEqualTo(weakHash).doesNotStartWith("$2a$04$");
+        Assertions.assertThat(login("teste", "teste").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("register returns 400 when the login already exists")
+    void register_Returns400_WhenLoginAlreadyExists() throws JSONException {
+        register("teste", "teste", "USER");
+
+        ResponseEntity<String> registrationResponse = register("teste", "other", "USER");
+
+        Assertions.assertThat(registrationResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("changing the role of a user rejects the tokens issued before the change")
+    void changeRole_RevokesPreviousTokens_WhenSuccessful() throws JSONException {
+        register("admin", "admin", "ADMIN");
+        register("teste", "teste", "USER");
+        String adminToken = new JSONObject(login("admin", "admin").getBody()).getString("token");
+        String userToken = new JSONObject(login("teste", "teste").getBody()).getString("token");
+        Assertions.assertThat(getHouses(userToken).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        JSONObject roleChangeRequest = new JSONObject();
+        roleChangeRequest.put("login", "teste");
+        roleChangeRequest.put("role", "ADMIN");
+        HttpHeaders adminHeaders = new HttpHeaders();
+        adminHeaders.setContentType(MediaType.APPLICATION_JSON);
+        adminHeaders.setBearerAuth(adminToken);
+        ResponseEntity<Void> roleChangeResponse = testRestTemplate.exchange("/auth/role", HttpMethod.PUT, new HttpEntity<>(roleChangeRequest.toString(), adminHeaders), Void.class);
+
+        Assertions.assertThat(roleChangeResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        Assertions.assertThat(getHouses(userToken).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        String newUserToken = new JSONObject(login("teste", "teste").getBody()).getString("token");
+        Assertions.assertThat(getHouses(newUserToken).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> getHouses(String token){
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return testRestTemplate.exchange("/houses/all", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> register(String login, String password, String role) throws JSONException {
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", login);
+        registrationRequest.put("password", password);
+        registrationRequest.put("role", role);
+
+        HttpHeaders registrationHeaders = new HttpHeaders();
+        registrationHeaders.setContentType(MediaType.APPLICATION_JSON);
+        return testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), registrationHeaders), String.class);
+    }
+
+    private ResponseEntity<String> login(String login, String password) throws JSONException {
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", login);
+        loginRequest.put("password", password);
+
+        HttpHeaders loginHeaders = new HttpHeaders();
+        loginHeaders.setContentType(MediaType.APPLICATION_JSON);
+        return testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), loginHeaders), String.class);
+    }
+}
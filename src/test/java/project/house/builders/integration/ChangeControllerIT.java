@@ -0,0 +1,111 @@
+package project.house.builders.integration;
+
+import org.assertj.core.api.Assertions;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.domain.House;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.service.ResultPage;
+
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for change controller")
+class ChangeControllerIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    @DisplayName("changesSince returns the changes in order, with a tombstone for deletes, and only newer ones after the cursor")
+    void changesSince_ReturnsChangesAfterCursor_WhenSuccessful() throws JSONException, InterruptedException {
+        HttpHeaders headers = getAdminHeader();
+        House house = post("/houses", "{\"projectName\":\"Silva's house\"}", headers, House.class);
+        HttpHeaders patchHeaders = new HttpHeaders();
+        patchHeaders.putAll(headers);
+        patchHeaders.setContentType(MediaType.parseMediaType(MergePatch.MEDIA_TYPE));
+        testRestTemplate.exchange("/houses/{id}", HttpMethod.PATCH, new HttpEntity<>("{\"projectName\":\"Patched\"}", patchHeaders), Void.class, house.getId());
+        JSONObject engineer = new JSONObject(post("/engineers", "{\"name\":\"Jack\"}", headers, String.class));
+        testRestTemplate.exchange("/houses/{id}", HttpMethod.DELETE, new HttpEntity<>(headers), Void.class, house.getId());
+
+        ResponseEntity<List<ChangeLogEntry>> first = awaitChanges(null, headers, 4);
+
+        Assertions.assertThat(first.getBody())
+                .extracting(ChangeLogEntry::getEntityType, ChangeLogEntry::getEntityId, ChangeLogEntry::getOperation)
+                .containsExactly(
+                        Assertions.tuple(ChangeLogEntry.EntityType.HOUSE, house.getId(), ChangeLogEntry.Operation.UPSERT),
+                        Assertions.tuple(ChangeLogEntry.EntityType.HOUSE, house.getId(), ChangeLogEntry.Operation.UPSERT),
+                        Assertions.tuple(ChangeLogEntry.EntityType.ENGINEER, engineer.getLong("id"), ChangeLogEntry.Operation.UPSERT),
+                        Assertions.tuple(ChangeLogEntry.EntityType.HOUSE, house.getId(), ChangeLogEntry.Operation.DELETE));
+        String cursor = first.getHeaders().getFirst(ResultPage.NEXT_CURSOR_HEADER);
+        Assertions.assertThat(changes(cursor, headers).getBody()).isEmpty();
+        Assertions.assertThat(changes(cursor, headers).getHeaders().getFirst(ResultPage.NEXT_CURSOR_HEADER)).isEqualTo(cursor);
+
+        House other = post("/houses", "{\"projectName\":\"Other\"}", headers, House.class);
+
+        Assertions.assertThat(awaitChanges(cursor, headers, 1).getBody())
+                .extracting(ChangeLogEntry::getEntityId)
+                .containsExactly(other.getId());
+    }
+
+    /**
+     * Changes reach the feed once the sequencer gives them their position, shortly after they commit.
+     */
+    private ResponseEntity<List<ChangeLogEntry>> awaitChanges(String since, HttpHeaders headers, int count) throws InterruptedException {
+        ResponseEntity<List<ChangeLogEntry>> changes = changes(since, headers);
+        for(int attempt = 0; attempt < 50 && changes.getBody() != null && changes.getBody().size() < count; attempt++){
+            Thread.sleep(100);
+            changes = changes(since, headers);
+        }
+        return changes;
+    }
+
+    private ResponseEntity<List<ChangeLogEntry>> changes(String since, HttpHeaders headers){
+        String url = since == null ? "/changes" : "/changes?since=" + since;
+        return testRestTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), new ParameterizedTypeReference<>() {});
+    }
+
+    private <T> T post(String url, String body, HttpHeaders adminHeaders, Class<T> type){
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(adminHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return testRestTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body, headers), type).getBody();
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        //Registration
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders registrationHeaders = new HttpHeaders();
+        registrationHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), registrationHeaders), String.class);
+
+        //Login
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+
+        HttpHeaders loginHeaders = new HttpHeaders();
+        loginHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), loginHeaders), String.class);
+
+        //Create a header for requests
+        HttpHeaders protectedEndpointHeaders = new HttpHeaders();
+        protectedEndpointHeaders.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        return protectedEndpointHeaders;
+    }
+}
@@ -0,0 +1,68 @@
+package project.house.builders.integration;
+
+import org.assertj.core.api.Assertions;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.config.IdempotencyFilter;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.IdempotencyRecordRepository;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "api.idempotency.store=database")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for the database idempotency store")
+class DatabaseIdempotencyStoreIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private EngineerRepository engineerRepository;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    @DisplayName("save with a retried Idempotency-Key replays the stored engineer from the database")
+    void save_ReplaysStoredEngineer_WhenIdempotencyKeyIsRetried() throws JSONException {
+        HttpHeaders headers = getAdminHeader();
+        headers.set(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "engineer-retry");
+        String body = new JSONObject().put("name", "Idempotent").toString();
+
+        ResponseEntity<String> first = testRestTemplate.exchange("/engineers", HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+        ResponseEntity<String> retry = testRestTemplate.exchange("/engineers", HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retry.getBody()).isEqualTo(first.getBody());
+        Assertions.assertThat(retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        Assertions.assertThat(engineerRepository.count()).isEqualTo(1);
+        Assertions.assertThat(idempotencyRecordRepository.count()).isEqualTo(1);
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), jsonHeaders), String.class);
+
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), jsonHeaders), String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
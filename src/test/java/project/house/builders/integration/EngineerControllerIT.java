@@ -19,6 +19,9 @@ import project.house.builders.domain.House;
 import project.house.builders.repository.EngineerRepository;
 import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.EngineerPostRequestBody;
+import project.house.builders.requests.EngineerUpsertRequestBody;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.responses.UpsertResult;
 import project.house.builders.util.ArchitectCreator;
 import project.house.builders.util.EngineerCreator;
 import project.house.builders.util.EngineerPostRequestBodyCreator;
@@ -66,6 +69,26 @@ class EngineerControllerIT {
         Assertions.assertThat(engineer.getId()).isEqualTo(expectedId);
     }
 
+    @Test
+    @DisplayName("findById returns 304 until a house is added to the engineer")
+    void findById_Returns304_UntilHouseIsAdded() throws JSONException {
+        Engineer savedEngineer = engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+        HttpHeaders adminHeader = getAdminHeader();
+        String eTag = testRestTemplate.exchange("/engineers/{id}", HttpMethod.GET, new HttpEntity<>(adminHeader), String.class, savedEngineer.getId()).getHeaders().getETag();
+        HttpHeaders conditionalHeader = getAdminHeader();
+        conditionalHeader.setIfNoneMatch(eTag);
+
+        ResponseEntity<String> notModified = testRestTemplate.exchange("/engineers/{id}", HttpMethod.GET, new HttpEntity<>(conditionalHeader), String.class, savedEngineer.getId());
+        HousePostRequestBody housePostRequestBody = HousePostRequestBody.builder().projectName("New house").engineerId(savedEngineer.getId()).build();
+        testRestTemplate.exchange("/houses", HttpMethod.POST, new HttpEntity<>(housePostRequestBody, adminHeader), String.class);
+        ResponseEntity<String> changed = testRestTemplate.exchange("/engineers/{id}", HttpMethod.GET, new HttpEntity<>(conditionalHeader), String.class, savedEngineer.getId());
+
+        Assertions.assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(changed.getBody()).contains("New house");
+        Assertions.assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
     @Test
     @DisplayName("FindByName returns list of engineer when successful")
     void findByName_ReturnsListOfEngineer_WhenSuccessful() throws JSONException {
@@ -104,6 +127,22 @@ class EngineerControllerIT {
         Assertions.assertThat(entity.getBody().getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("upsertAll inserts unknown engineers and updates only the changed ones when successful")
+    void upsertAll_InsertsAndUpdatesByExternalId_WhenSuccessful() throws JSONException {
+        HttpHeaders adminHeader = getAdminHeader();
+        List<EngineerUpsertRequestBody> roster = List.of(new EngineerUpsertRequestBody("HR-1", "First"), new EngineerUpsertRequestBody("HR-2", "Second"));
+        ResponseEntity<UpsertResult> firstSync = testRestTemplate.exchange("/engineers/bulk", HttpMethod.PUT, new HttpEntity<>(roster, adminHeader), UpsertResult.class);
+
+        List<EngineerUpsertRequestBody> changedRoster = List.of(new EngineerUpsertRequestBody("HR-1", "First"), new EngineerUpsertRequestBody("HR-2", "Second renamed"),
+                new EngineerUpsertRequestBody("HR-3", "Third"));
+        ResponseEntity<UpsertResult> secondSync = testRestTemplate.exchange("/engineers/bulk", HttpMethod.PUT, new HttpEntity<>(changedRoster, adminHeader), UpsertResult.class);
+
+        Assertions.assertThat(firstSync.getBody()).isEqualTo(new UpsertResult(2, 0, 0));
+        Assertions.assertThat(secondSync.getBody()).isEqualTo(new UpsertResult(1, 1, 1));
+        Assertions.assertThat(engineerRepository.findAll()).extracting(Engineer::getName).containsExactlyInAnyOrder("First", "Second renamed", "Third");
+    }
+
     @Test
     @DisplayName("replace updates engineer when successful")
     void replace_UpdatesEngineer_WhenSuccessful() throws JSONException {
@@ -0,0 +1,121 @@
+package project.house.builders.integration;
+
+import org.assertj.core.api.Assertions;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.requests.MergePatch;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for event controller")
+class EventControllerIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("subscribe streams the committed changes that concern the engineer, with ids that resume the change feed")
+    void subscribe_StreamsMatchingChanges_WhenSuccessful() throws Exception {
+        HttpHeaders headers = getAdminHeader();
+        long engineerId = new JSONObject(post("/engineers", "{\"name\":\"Jack\"}", headers)).getLong("id");
+        long otherEngineerId = new JSONObject(post("/engineers", "{\"name\":\"John\"}", headers)).getLong("id");
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/events?engineer=" + engineerId))
+                .header(HttpHeaders.AUTHORIZATION, headers.getFirst(HttpHeaders.AUTHORIZATION))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+        CompletableFuture<HttpResponse<Stream<String>>> response = HttpClient.newHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        response.thenAcceptAsync(stream -> stream.body().forEach(lines::add));
+        Assertions.assertThat(response.get(10, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        Assertions.assertThat(lines.poll(10, TimeUnit.SECONDS)).startsWith(":");
+
+        post("/houses", "{\"projectName\":\"Other\"}", headers);
+        long houseId = new JSONObject(post("/houses", "{\"projectName\":\"Silva's house\",\"engineerId\":" + engineerId + "}", headers)).getLong("id");
+        HttpHeaders patchHeaders = new HttpHeaders();
+        patchHeaders.putAll(headers);
+        patchHeaders.setContentType(MediaType.parseMediaType(MergePatch.MEDIA_TYPE));
+        testRestTemplate.exchange("/houses/{id}", HttpMethod.PATCH, new HttpEntity<>("{\"engineer\":" + otherEngineerId + "}", patchHeaders), Void.class, houseId);
+
+        String createdId = field(lines, "id:");
+        JSONObject created = new JSONObject(field(lines, "data:"));
+        JSONObject moved = new JSONObject(field(lines, "data:"));
+        Assertions.assertThat(created.getLong("id")).isEqualTo(houseId);
+        Assertions.assertThat(created.getString("entityType")).isEqualTo("HOUSE");
+        Assertions.assertThat(created.getJSONArray("engineerIds").toString()).isEqualTo("[" + engineerId + "]");
+        Assertions.assertThat(moved.getLong("id")).isEqualTo(houseId);
+        Assertions.assertThat(moved.getJSONArray("engineerIds").length()).isEqualTo(2);
+        Assertions.assertThat(moved.getJSONArray("engineerIds").toString()).contains(String.valueOf(engineerId), String.valueOf(otherEngineerId));
+
+        ResponseEntity<List<ChangeLogEntry>> resumed = testRestTemplate.exchange("/changes?since=" + createdId, HttpMethod.GET,
+                new HttpEntity<>(headers), new ParameterizedTypeReference<>() {});
+        Assertions.assertThat(resumed.getBody())
+                .extracting(ChangeLogEntry::getEntityId)
+                .containsExactly(houseId);
+        response.cancel(true);
+    }
+
+    private static String field(BlockingQueue<String> lines, String name) throws InterruptedException {
+        while(true){
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            Assertions.assertThat(line).as("a line starting with " + name).isNotNull();
+            if(line.startsWith(name)) return line.substring(name.length()).trim();
+        }
+    }
+
+    private String post(String url, String body, HttpHeaders adminHeaders){
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(adminHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return testRestTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body, headers), String.class).getBody();
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        //Registration
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders registrationHeaders = new HttpHeaders();
+        registrationHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), registrationHeaders), String.class);
+
+        //Login
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+
+        HttpHeaders loginHeaders = new HttpHeaders();
+        loginHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), loginHeaders), String.class);
+
+        //Create a header for requests
+        HttpHeaders protectedEndpointHeaders = new HttpHeaders();
+        protectedEndpointHeaders.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        return protectedEndpointHeaders;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.config.IdempotencyFilter;
 import project.house.builders.domain.Architect;
 import project.house.builders.domain.Engineer;
 import project.house.builders.domain.House;
@@ -23,6 +24,11 @@ import project.house.builders.repository.EngineerRepository;
 import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.HousePostRequestBody;
 import project.house.builders.requests.HousePutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.HouseResponse;
+import project.house.builders.responses.IngestionTicket;
+import project.house.builders.service.ResultPage;
 import project.house.builders.util.ArchitectCreator;
 import project.house.builders.util.EngineerCreator;
 import project.house.builders.util.HouseCreator;
@@ -64,6 +70,60 @@ class HouseControllerIT {
         Assertions.assertThat(houses.get(0).getProjectName()).isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("listAll returns pages linked by the next cursor when size is smaller than the table")
+    void listAll_ReturnsPagesLinkedByCursor_WhenSizeIsSmallerThanTable() throws JSONException {
+        House first = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        House second = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        House third = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        HttpHeaders adminHeader = getAdminHeader();
+
+        ResponseEntity<List<House>> firstPage = testRestTemplate.exchange("/houses/all?size=2", HttpMethod.GET, new HttpEntity<>(adminHeader), new ParameterizedTypeReference<List<House>>() {
+        });
+        String cursor = firstPage.getHeaders().getFirst(ResultPage.NEXT_CURSOR_HEADER);
+        ResponseEntity<List<House>> secondPage = testRestTemplate.exchange("/houses/all?size=2&cursor={cursor}", HttpMethod.GET, new HttpEntity<>(adminHeader), new ParameterizedTypeReference<List<House>>() {
+        }, cursor);
+
+        Assertions.assertThat(firstPage.getBody()).extracting(House::getId).containsExactly(first.getId(), second.getId());
+        Assertions.assertThat(cursor).isNotBlank();
+        Assertions.assertThat(secondPage.getBody()).extracting(House::getId).containsExactly(third.getId());
+        Assertions.assertThat(secondPage.getHeaders().containsKey(ResultPage.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("listAll returns the total count when an offset page is requested")
+    void listAll_ReturnsTotalCount_WhenPageIsRequested() throws JSONException {
+        houseRepository.save(HouseCreator.createHouseToBeSaved());
+        houseRepository.save(HouseCreator.createHouseToBeSaved());
+        houseRepository.save(HouseCreator.createHouseToBeSaved());
+
+        ResponseEntity<List<House>> page = testRestTemplate.exchange("/houses/all?page=1&size=2", HttpMethod.GET, new HttpEntity<>(getAdminHeader()), new ParameterizedTypeReference<List<House>>() {
+        });
+
+        Assertions.assertThat(page.getBody()).hasSize(1);
+        Assertions.assertThat(page.getHeaders().getFirst(ResultPage.TOTAL_COUNT_HEADER)).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("export returns one JSON line per house when successful")
+    void export_ReturnsOneJsonLinePerHouse_WhenSuccessful() throws JSONException {
+        Engineer engineerSaved = engineerRepository.save(EngineerCreator.createValidEngineer());
+        House withEngineer = HouseCreator.createHouseToBeSaved();
+        withEngineer.setEngineer(engineerSaved);
+        houseRepository.save(withEngineer);
+        houseRepository.save(HouseCreator.createHouseToBeSaved());
+
+        ResponseEntity<String> entity = testRestTemplate.exchange("/houses/export", HttpMethod.GET, new HttpEntity<>(getAdminHeader()), String.class);
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(entity.getHeaders().getContentType()).isNotNull();
+        Assertions.assertThat(entity.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        String[] lines = entity.getBody().split("\n");
+        Assertions.assertThat(lines).hasSize(2);
+        Assertions.assertThat(new JSONObject(lines[0]).getLong("engineer")).isEqualTo(engineerSaved.getId());
+        Assertions.assertThat(new JSONObject(lines[1]).isNull("engineer")).isTrue();
+    }
+
     @Test
     @DisplayName("FindById returns house when successful")
     void findById_ReturnsHouse_WhenSuccessful() throws JSONException {
@@ -114,6 +174,49 @@ class HouseControllerIT {
         Assertions.assertThat(entity.getBody().getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("save with a retried Idempotency-Key returns the first house without creating another")
+    void save_ReturnsFirstHouse_WhenIdempotencyKeyIsRetried() throws JSONException {
+        HousePostRequestBody postRequestBody = HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName();
+        HttpHeaders headers = getAdminHeader();
+        headers.set(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "7c1d5c36-retry");
+
+        ResponseEntity<House> first = testRestTemplate.exchange("/houses", HttpMethod.POST, new HttpEntity<>(postRequestBody, headers), House.class);
+        ResponseEntity<House> retry = testRestTemplate.exchange("/houses", HttpMethod.POST, new HttpEntity<>(postRequestBody, headers), House.class);
+        postRequestBody.setProjectName("Another house");
+        ResponseEntity<String> reused = testRestTemplate.exchange("/houses", HttpMethod.POST, new HttpEntity<>(postRequestBody, headers), String.class);
+
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(retry.getBody()).isNotNull();
+        Assertions.assertThat(retry.getBody().getId()).isEqualTo(first.getBody().getId());
+        Assertions.assertThat(retry.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        Assertions.assertThat(retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        Assertions.assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        Assertions.assertThat(houseRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("saveAsync queues the house and its ticket reports the created house")
+    void saveAsync_ReportsCreatedHouse_WhenSuccessful() throws JSONException, InterruptedException {
+        HousePostRequestBody postRequestBody = HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName();
+        HttpHeaders headers = getAdminHeader();
+
+        ResponseEntity<IngestionTicket> accepted = testRestTemplate.exchange("/houses/async", HttpMethod.POST, new HttpEntity<>(postRequestBody, headers), IngestionTicket.class);
+
+        Assertions.assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(accepted.getBody()).isNotNull();
+        Assertions.assertThat(accepted.getHeaders().getLocation()).hasToString("/houses/async/" + accepted.getBody().ticket());
+        IngestionTicket ticket = accepted.getBody();
+        for(int attempt = 0; attempt < 50 && ticket.status() == IngestionTicket.Status.QUEUED; attempt++){
+            Thread.sleep(100);
+            ticket = testRestTemplate.exchange(accepted.getHeaders().getLocation().toString(), HttpMethod.GET, new HttpEntity<>(headers), IngestionTicket.class).getBody();
+        }
+        Assertions.assertThat(ticket.status()).isEqualTo(IngestionTicket.Status.CREATED);
+        Assertions.assertThat(houseRepository.findById(ticket.houseId())).get()
+                .extracting(House::getProjectName).isEqualTo(postRequestBody.getProjectName());
+    }
+
     @Test
     @DisplayName("save with engineer and architect returns house when successful")
     void saveHouseEngineerArchitect_ReturnsHouse_WhenSuccessful() throws JSONException {
@@ -206,6 +309,41 @@ class HouseControllerIT {
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
 
+    @Test
+    @DisplayName("saveAll creates the valid houses and rejects the others when not atomic")
+    void saveAll_CreatesValidHousesAndRejectsOthers_WhenNotAtomic() throws JSONException {
+        Engineer engineerSaved = engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+        List<HousePostRequestBody> postRequestBodies = List.of(
+                HousePostRequestBody.builder().projectName("First").engineerId(engineerSaved.getId()).build(),
+                HousePostRequestBody.builder().projectName("Second").architectId(engineerSaved.getId() + 1000).build(),
+                HousePostRequestBody.builder().projectName("Third").engineerId(engineerSaved.getId()).build());
+
+        ResponseEntity<List<BulkItemResult>> entity = testRestTemplate.exchange("/houses/bulk", HttpMethod.POST, new HttpEntity<>(postRequestBodies, getAdminHeader()), new ParameterizedTypeReference<List<BulkItemResult>>() {
+        });
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(entity.getBody()).hasSize(3);
+        Assertions.assertThat(entity.getBody().get(1)).isEqualTo(BulkItemResult.rejected(1, "Architect not found"));
+        Assertions.assertThat(houseRepository.findResponsesByEngineerIdIn(List.of(engineerSaved.getId())))
+                .extracting(house -> house.id())
+                .containsExactly(entity.getBody().get(0).id(), entity.getBody().get(2).id());
+    }
+
+    @Test
+    @DisplayName("saveAll returns 400 and creates nothing when atomic and an item is rejected")
+    void saveAll_Returns400AndCreatesNothing_WhenAtomicAndItemIsRejected() throws JSONException {
+        List<HousePostRequestBody> postRequestBodies = List.of(
+                HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName(),
+                HousePostRequestBody.builder().projectName("").build());
+
+        ResponseEntity<List<BulkItemResult>> entity = testRestTemplate.exchange("/houses/bulk?atomic=true", HttpMethod.POST, new HttpEntity<>(postRequestBodies, getAdminHeader()), new ParameterizedTypeReference<List<BulkItemResult>>() {
+        });
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(entity.getBody()).containsExactly(BulkItemResult.skipped(0), BulkItemResult.rejected(1, "The house project must have a name or a nickname"));
+        Assertions.assertThat(houseRepository.count()).isZero();
+    }
+
     @Test
     @DisplayName("replace updates house when successful")
     void replace_UpdatesHouse_WhenSuccessful() throws JSONException {
@@ -217,6 +355,62 @@ class HouseControllerIT {
         Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
 
+    @Test
+    @DisplayName("patch changes only the fields sent when successful")
+    void patch_ChangesOnlyFieldsSent_WhenSuccessful() throws JSONException {
+        Engineer engineerSaved = engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+        House houseToBeSaved = HouseCreator.createHouseToBeSaved();
+        houseToBeSaved.setEngineer(engineerSaved);
+        House savedHouse = houseRepository.save(houseToBeSaved);
+        HttpHeaders headers = getAdminHeader();
+        headers.setContentType(MediaType.parseMediaType(MergePatch.MEDIA_TYPE));
+
+        ResponseEntity<Void> entity = testRestTemplate.exchange("/houses/{id}", HttpMethod.PATCH, new HttpEntity<>("{\"projectName\":\"Patched\"}", headers), Void.class, savedHouse.getId());
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        Assertions.assertThat(houseRepository.findResponseById(savedHouse.getId()))
+                .contains(new HouseResponse(savedHouse.getId(), "Patched", engineerSaved.getId(), null, 1));
+    }
+
+    @Test
+    @DisplayName("patch does not change the house when the result is invalid")
+    void patch_DoesNotChangeHouse_WhenResultIsInvalid() throws JSONException {
+        House savedHouse = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        HttpHeaders headers = getAdminHeader();
+        headers.setContentType(MediaType.parseMediaType(MergePatch.MEDIA_TYPE));
+
+        ResponseEntity<Void> entity = testRestTemplate.exchange("/houses/{id}", HttpMethod.PATCH, new HttpEntity<>("{\"projectName\":null}", headers), Void.class, savedHouse.getId());
+
+        Assertions.assertThat(entity.getStatusCode().is2xxSuccessful()).isFalse();
+        Assertions.assertThat(houseRepository.findResponseById(savedHouse.getId())).get()
+                .extracting(HouseResponse::projectName).isEqualTo(savedHouse.getProjectName());
+    }
+
+    @Test
+    @DisplayName("replace returns 412 when If-Match names a version that was already replaced")
+    void replace_Returns412_WhenIfMatchIsStale() throws JSONException {
+        House savedHouse = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        HttpHeaders adminHeader = getAdminHeader();
+        ResponseEntity<String> fetched = testRestTemplate.exchange("/houses/{id}", HttpMethod.GET, new HttpEntity<>(adminHeader), String.class, savedHouse.getId());
+        String eTag = fetched.getHeaders().getETag();
+
+        HttpHeaders conditionalHeader = getAdminHeader();
+        conditionalHeader.setIfMatch(eTag);
+        HousePutRequestBody putRequestBody = HousePutRequestBody.builder().id(savedHouse.getId()).projectName("First writer").build();
+        ResponseEntity<Void> first = testRestTemplate.exchange("/houses", HttpMethod.PUT, new HttpEntity<>(putRequestBody, conditionalHeader), Void.class);
+        putRequestBody.setProjectName("Second writer");
+        ResponseEntity<String> second = testRestTemplate.exchange("/houses", HttpMethod.PUT, new HttpEntity<>(putRequestBody, conditionalHeader), String.class);
+        ResponseEntity<String> delete = testRestTemplate.exchange("/houses/{id}", HttpMethod.DELETE, new HttpEntity<>(conditionalHeader), String.class, savedHouse.getId());
+
+        Assertions.assertThat(eTag).isEqualTo("\"0\"");
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        Assertions.assertThat(first.getHeaders().getETag()).isEqualTo("\"1\"");
+        Assertions.assertThat(second.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        Assertions.assertThat(delete.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        Assertions.assertThat(houseRepository.findResponseById(savedHouse.getId())).get()
+                .extracting(HouseResponse::projectName).isEqualTo("First writer");
+    }
+
     @Test
     @DisplayName("delete removes house when successful")
     void delete_RemovesHouse_WhenSuccessful() throws JSONException {
@@ -0,0 +1,164 @@
+package project.house.builders.integration;
+
+import org.assertj.core.api.Assertions;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.domain.ImportJob;
+import project.house.builders.domain.ImportRowError;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "api.imports.batch-size=2")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for import controller")
+class ImportControllerIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private EngineerRepository engineerRepository;
+    @Autowired
+    private HouseRepository houseRepository;
+
+    @Test
+    @DisplayName("importing a CSV of engineers upserts the valid rows and reports the rejected ones")
+    void start_ImportsEngineersAndReportsErrors_WhenFileIsCsv() throws Exception {
+        HttpHeaders headers = getAdminHeader();
+        engineerRepository.save(Engineer.builder().name("Old name").externalId("HR-1").build());
+        String csv = "externalId,name\nHR-1,Jack\nHR-2,John\nHR-3,\nHR-4,Mary\nHR-1,Jack Marston\n";
+
+        ResponseEntity<ImportJob> started = upload("/imports/engineers", "engineers.csv", csv, headers);
+        ImportJob job = awaitCompletion(started.getBody().getId(), headers);
+
+        Assertions.assertThat(started.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(started.getHeaders().getLocation()).hasPath("/imports/" + job.getId());
+        Assertions.assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        Assertions.assertThat(job.getLastCommittedRow()).isEqualTo(5);
+        Assertions.assertThat(job.getRowsImported()).isEqualTo(4);
+        Assertions.assertThat(job.getRowsRejected()).isEqualTo(1);
+        Assertions.assertThat(engineerRepository.findAll()).extracting(Engineer::getName)
+                .containsExactlyInAnyOrder("Jack Marston", "John", "Mary");
+
+        List<ImportRowError> errors = testRestTemplate.exchange("/imports/" + job.getId() + "/errors", HttpMethod.GET, new HttpEntity<>(headers),
+                new ParameterizedTypeReference<List<ImportRowError>>() {}).getBody();
+        Assertions.assertThat(errors).singleElement().satisfies(error -> {
+            Assertions.assertThat(error.getRowNumber()).isEqualTo(3);
+            Assertions.assertThat(error.getMessage()).isEqualTo("The row must have a name");
+        });
+    }
+
+    @Test
+    @DisplayName("importing a JSON array of houses resolves engineers by external id")
+    void start_ResolvesEngineers_WhenHousesReferenceExternalIds() throws Exception {
+        HttpHeaders headers = getAdminHeader();
+        Engineer engineer = engineerRepository.save(Engineer.builder().name("Jack").externalId("HR-1").build());
+        String json = "[{\"projectName\":\"A\",\"engineerExternalId\":\"HR-1\"},{\"projectName\":\"B\",\"engineerExternalId\":\"HR-9\"},{\"projectName\":\"C\"}]";
+
+        ImportJob job = awaitCompletion(upload("/imports/houses", "houses.json", json, headers).getBody().getId(), headers);
+
+        Assertions.assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        Assertions.assertThat(job.getRowsImported()).isEqualTo(2);
+        Assertions.assertThat(job.getRowsRejected()).isEqualTo(1);
+        List<House> houses = houseRepository.findAll();
+        Assertions.assertThat(houses).extracting(House::getProjectName).containsExactlyInAnyOrder("A", "C");
+        Assertions.assertThat(houses).filteredOn(house -> house.getProjectName().equals("A"))
+                .singleElement().extracting(house -> house.getEngineer().getId()).isEqualTo(engineer.getId());
+    }
+
+    @Test
+    @DisplayName("a failed import resumes after the last committed row without duplicating rows")
+    void resume_SkipsCommittedRows_WhenImportFailed() throws Exception {
+        HttpHeaders headers = getAdminHeader();
+        String broken = "[{\"projectName\":\"A\"},{\"projectName\":\"B\"},{\"projectName\":\"C\"},{\"projectName\":";
+        String fixed = "[{\"projectName\":\"A\"},{\"projectName\":\"B\"},{\"projectName\":\"C\"},{\"projectName\":\"D\"},{\"projectName\":\"E\"}]";
+
+        ImportJob failed = awaitCompletion(upload("/imports/houses", "houses.json", broken, headers).getBody().getId(), headers);
+
+        Assertions.assertThat(failed.getStatus()).isEqualTo(ImportJob.Status.FAILED);
+        Assertions.assertThat(failed.getLastCommittedRow()).isEqualTo(2);
+        Assertions.assertThat(failed.getFailure()).startsWith("Row 4 could not be read");
+        Assertions.assertThat(houseRepository.count()).isEqualTo(2);
+
+        ResponseEntity<ImportJob> resumed = upload("/imports/" + failed.getId() + "/resume", "houses.json", fixed, headers);
+        ImportJob completed = awaitCompletion(failed.getId(), headers);
+
+        Assertions.assertThat(resumed.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(completed.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        Assertions.assertThat(completed.getRowsImported()).isEqualTo(5);
+        Assertions.assertThat(houseRepository.findAll()).extracting(House::getProjectName).containsExactlyInAnyOrder("A", "B", "C", "D", "E");
+    }
+
+    @Test
+    @DisplayName("importing returns 403 when the file is not CSV or JSON")
+    void start_Returns403_WhenFormatIsUnknown() throws Exception {
+        ResponseEntity<ImportJob> response = upload("/imports/houses", "houses.xml", "<houses/>", getAdminHeader());
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private ResponseEntity<ImportJob> upload(String url, String fileName, String content, HttpHeaders adminHeaders){
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(adminHeaders);
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename(){
+                return fileName;
+            }
+        });
+        return testRestTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body, headers), ImportJob.class);
+    }
+
+    private ImportJob awaitCompletion(long id, HttpHeaders headers) throws InterruptedException {
+        for(int attempt = 0; attempt < 100; attempt++){
+            ImportJob job = testRestTemplate.exchange("/imports/" + id, HttpMethod.GET, new HttpEntity<>(headers), ImportJob.class).getBody();
+            if(job.getStatus() != ImportJob.Status.RUNNING) return job;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Import " + id + " did not finish");
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        //Registration
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders registrationHeaders = new HttpHeaders();
+        registrationHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), registrationHeaders), String.class);
+
+        //Login
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+
+        HttpHeaders loginHeaders = new HttpHeaders();
+        loginHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), loginHeaders), String.class);
+
+        //Create a header for requests
+        HttpHeaders protectedEndpointHeaders = new HttpHeaders();
+        protectedEndpointHeaders.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        return protectedEndpointHeaders;
+    }
+}
@@ -0,0 +1,197 @@
+package project.house.builders.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.requests.EngineerPostRequestBody;
+import project.house.builders.requests.MergePatch;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"api.metrics.hibernate-statistics=true", "api.webhooks.poll-interval=1h", "api.events.poll-interval=1h", "api.changes.sequence-interval=1h"})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for the second-level cache")
+class SecondLevelCacheIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private EngineerRepository engineerRepository;
+    @Autowired
+    private HouseRepository houseRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private HttpHeaders adminHeader;
+
+    @BeforeEach
+    void setUp() throws JSONException {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        adminHeader = getAdminHeader();
+    }
+
+    @Test
+    @DisplayName("findById reads the engineer from the second-level cache after the first load")
+    void findById_ReadsFromSecondLevelCache_AfterFirstLoad(){
+        Engineer engineer = engineerRepository.save(Engineer.builder().name("Cached").build());
+        engineerRepository.findById(engineer.getId());
+
+        statistics.clear();
+        Assertions.assertThat(engineerRepository.findById(engineer.getId())).isPresent();
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isZero();
+        Assertions.assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("find by name is served from the query cache until an engineer is saved")
+    void findByName_IsServedFromQueryCache_UntilEngineerIsSaved() throws JSONException {
+        Engineer engineer = engineerRepository.save(Engineer.builder().name("Cached").build());
+        houseRepository.save(House.builder().projectName("Cached house").engineer(engineer).build());
+        Assertions.assertThat(findEngineersByName("Cached").length()).isEqualTo(1);
+
+        statistics.clear();
+        JSONArray cached = findEngineersByName("Cached");
+
+        Assertions.assertThat(cached.getJSONObject(0).getJSONArray("houses").length()).isEqualTo(1);
+        Assertions.assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        // The ETag's change log positions and the houses of the engineers.
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        EngineerPostRequestBody postRequestBody = new EngineerPostRequestBody();
+        postRequestBody.setName("Cached");
+        testRestTemplate.exchange("/engineers", HttpMethod.POST, new HttpEntity<>(postRequestBody, adminHeader), String.class);
+
+        Assertions.assertThat(findEngineersByName("Cached").length()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("actuator exposes the second-level cache hit and miss counters")
+    void actuator_ExposesSecondLevelCacheMetrics() throws JSONException {
+        Engineer engineer = engineerRepository.save(Engineer.builder().name("Cached").build());
+        engineerRepository.findById(engineer.getId());
+        engineerRepository.findById(engineer.getId());
+
+        ResponseEntity<String> entity = testRestTemplate.exchange("/actuator/metrics/hibernate.second.level.cache.requests?tag=result:hit&tag=region:engineer",
+                HttpMethod.GET, new HttpEntity<>(adminHeader), String.class);
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(new JSONObject(entity.getBody()).getJSONArray("measurements").getJSONObject(0).getDouble("value")).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("reassigning an engineer's houses refreshes the cached houses and collections")
+    void reassignEngineer_RefreshesCachedHouses_WhenSuccessful() throws JSONException {
+        Engineer leaving = engineerRepository.save(Engineer.builder().name("Leaving").build());
+        Engineer replacement = engineerRepository.save(Engineer.builder().name("Replacement").build());
+        House house = houseRepository.save(House.builder().projectName("Cached house").engineer(leaving).build());
+        Assertions.assertThat(houseRepository.findById(house.getId())).get().extracting(cached -> cached.getEngineer().getId()).isEqualTo(leaving.getId());
+        Assertions.assertThat(houseCountOf(leaving)).isEqualTo(1);
+        // Warms the token revocation cache, so only the reassignment's own statements are counted below.
+        testRestTemplate.exchange("/houses/all?size=1", HttpMethod.GET, new HttpEntity<>(adminHeader), String.class);
+
+        statistics.clear();
+        ResponseEntity<String> entity = testRestTemplate.exchange("/houses/reassign/engineer?from={from}&to={to}", HttpMethod.POST,
+                new HttpEntity<>(adminHeader), String.class, leaving.getId(), replacement.getId());
+
+        Assertions.assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(new JSONObject(entity.getBody()).getInt("affected")).isEqualTo(1);
+        // The ids of the moved houses for the change log, the engineer check, the update, the first block of change
+        // log ids and the change log insert.
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+        Assertions.assertThat(houseRepository.findById(house.getId())).get().extracting(cached -> cached.getEngineer().getId()).isEqualTo(replacement.getId());
+        Assertions.assertThat(houseCountOf(leaving)).isZero();
+        Assertions.assertThat(houseCountOf(replacement)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("conditional GETs return 304 with one small query each, without loading the house, until the house changes")
+    void conditionalGet_Returns304WithOneSmallQuery_UntilHouseChanges(){
+        House house = houseRepository.save(House.builder().projectName("Polled house").build());
+        houseRepository.findById(house.getId());
+        String houseETag = testRestTemplate.exchange("/houses/{id}", HttpMethod.GET, new HttpEntity<>(adminHeader), String.class, house.getId()).getHeaders().getETag();
+        String listETag = testRestTemplate.exchange("/houses/all", HttpMethod.GET, new HttpEntity<>(adminHeader), String.class).getHeaders().getETag();
+
+        statistics.clear();
+        ResponseEntity<String> houseNotModified = testRestTemplate.exchange("/houses/{id}", HttpMethod.GET, new HttpEntity<>(conditional(houseETag)), String.class, house.getId());
+        ResponseEntity<String> listNotModified = testRestTemplate.exchange("/houses/all", HttpMethod.GET, new HttpEntity<>(conditional(listETag)), String.class);
+
+        Assertions.assertThat(houseNotModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(houseNotModified.getBody()).isNull();
+        Assertions.assertThat(listNotModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(listNotModified.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        // The house version and the last change log position of houses.
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Assertions.assertThat(statistics.getEntityLoadCount()).isZero();
+
+        HttpHeaders patchHeader = new HttpHeaders();
+        patchHeader.addAll(adminHeader);
+        patchHeader.setContentType(MediaType.parseMediaType(MergePatch.MEDIA_TYPE));
+        testRestTemplate.exchange("/houses/{id}", HttpMethod.PATCH, new HttpEntity<>("{\"projectName\": \"Renamed house\"}", patchHeader), Void.class, house.getId());
+
+        ResponseEntity<String> houseChanged = testRestTemplate.exchange("/houses/{id}", HttpMethod.GET, new HttpEntity<>(conditional(houseETag)), String.class, house.getId());
+        ResponseEntity<String> listChanged = testRestTemplate.exchange("/houses/all", HttpMethod.GET, new HttpEntity<>(conditional(listETag)), String.class);
+
+        Assertions.assertThat(houseChanged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(houseChanged.getBody()).contains("Renamed house");
+        Assertions.assertThat(listChanged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(listChanged.getHeaders().getETag()).isNotEqualTo(listETag);
+    }
+
+    private HttpHeaders conditional(String eTag){
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(adminHeader);
+        headers.setIfNoneMatch(eTag);
+        return headers;
+    }
+
+    private int houseCountOf(Engineer engineer){
+        return transactionTemplate.execute(status -> engineerRepository.findById(engineer.getId()).orElseThrow().getHouses().size());
+    }
+
+    private JSONArray findEngineersByName(String name) throws JSONException {
+        return new JSONArray(testRestTemplate.exchange("/engineers/find?name={name}", HttpMethod.GET, new HttpEntity<>(adminHeader), String.class, name).getBody());
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), jsonHeaders), String.class);
+
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), jsonHeaders), String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
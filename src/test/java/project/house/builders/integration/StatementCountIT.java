@@ -0,0 +1,134 @@
+package project.house.builders.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.domain.Architect;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.requests.HousePutRequestBody;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"api.metrics.hibernate-statistics=true", "api.webhooks.poll-interval=1h", "api.events.poll-interval=1h", "api.changes.sequence-interval=1h"})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Statement count tests for the list endpoints")
+class StatementCountIT {
+    private static final int PARENTS = 6;
+    private static final int HOUSES_PER_PARENT = 3;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    @Autowired
+    private HouseRepository houseRepository;
+    @Autowired
+    private EngineerRepository engineerRepository;
+    @Autowired
+    private ArchitectRepository architectRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private HttpHeaders adminHeader;
+
+    @BeforeEach
+    void setUp() throws JSONException {
+        for(int i = 0; i < PARENTS; i++){
+            Engineer engineer = engineerRepository.save(Engineer.builder().name("Engineer " + i).build());
+            Architect architect = architectRepository.save(Architect.builder().name("Architect " + i).build());
+            for(int j = 0; j < HOUSES_PER_PARENT; j++){
+                houseRepository.save(House.builder().projectName("House " + i + "-" + j).engineer(engineer).architect(architect).build());
+            }
+        }
+        adminHeader = getAdminHeader();
+    }
+
+    @ParameterizedTest(name = "{0} runs a fixed number of statements")
+    @ValueSource(strings = {"/houses/all", "/engineers/all", "/architects/all"})
+    @DisplayName("listAll runs a fixed number of statements regardless of the number of rows")
+    void listAll_RunsFixedNumberOfStatements(String path){
+        // The first call warms the token revocation cache, so only the endpoint's own queries are counted below.
+        Assertions.assertThat(get(path + "?size=1").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        long singleRow = countStatements(path + "?size=1");
+        long allRows = countStatements(path);
+
+        // The ETag's change log positions, the page and, for engineers and architects, their houses.
+        Assertions.assertThat(singleRow).isLessThanOrEqualTo(3);
+        Assertions.assertThat(allRows).isEqualTo(singleRow);
+    }
+
+    @Test
+    @DisplayName("save and replace write one house row without loading the houses of its engineer or architect")
+    void saveAndReplace_WriteOneRowWithoutLoadingParentCollections(){
+        Engineer engineer = engineerRepository.findAll().get(0);
+        Architect architect = architectRepository.findAll().get(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        HousePostRequestBody postRequestBody = HousePostRequestBody.builder().projectName("New house").engineerId(engineer.getId()).architectId(architect.getId()).build();
+        ResponseEntity<House> saved = testRestTemplate.exchange("/houses", HttpMethod.POST, new HttpEntity<>(postRequestBody, adminHeader), House.class);
+
+        Assertions.assertThat(saved.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(statistics.getEntityStatistics(House.class.getName()).getInsertCount()).isEqualTo(1);
+        Assertions.assertThat(statistics.getEntityUpdateCount()).isZero();
+        Assertions.assertThat(statistics.getCollectionLoadCount()).isZero();
+
+        statistics.clear();
+        HousePutRequestBody putRequestBody = HousePutRequestBody.builder().id(saved.getBody().getId()).projectName("Renamed house").engineerId(engineer.getId()).build();
+        ResponseEntity<Void> replaced = testRestTemplate.exchange("/houses", HttpMethod.PUT, new HttpEntity<>(putRequestBody, adminHeader), Void.class);
+
+        Assertions.assertThat(replaced.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        Assertions.assertThat(statistics.getEntityStatistics(House.class.getName()).getInsertCount()).isZero();
+        Assertions.assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        Assertions.assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    private long countStatements(String path){
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Assertions.assertThat(get(path).getStatusCode()).isEqualTo(HttpStatus.OK);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private ResponseEntity<String> get(String path){
+        return testRestTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(adminHeader), String.class);
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), jsonHeaders), String.class);
+
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), jsonHeaders), String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        return headers;
+    }
+}
@@ -0,0 +1,214 @@
+package project.house.builders.integration;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import project.house.builders.BuildersApplication;
+import project.house.builders.domain.House;
+import project.house.builders.repository.HouseRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Compares request handling on Tomcat's platform threads with api.threads.virtual, under a database whose every
+ * statement takes benchmark.db-delay longer. The pool has a connection per client, so the request threads are
+ * the limit. Prints the throughput and p99 latency of /houses/all and /houses/{id} for each mode. On Java 21 the
+ * virtual run also fails if a virtual thread stays pinned to its carrier for half the delay, which is how a
+ * synchronized block around a JDBC call would show. Run with mvn test -P benchmark; older runtimes only run
+ * the platform mode. The default in-memory H2 database never goes through the MySQL driver, so set
+ * benchmark.datasource-url (with benchmark.datasource-username and benchmark.datasource-password) to a MySQL
+ * database to check the production driver for pinning.
+ */
+@DisplayName("Benchmark of platform and virtual request threads")
+class ThreadModeBenchmark {
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final Duration DB_DELAY = Duration.ofMillis(Long.getLong("benchmark.db-delay", 20));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.duration", 10));
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final int HOUSES = 500;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String DATASOURCE_URL = System.getProperty("benchmark.datasource-url");
+
+    @Test
+    @DisplayName("platform and virtual request threads serve the house reads without errors")
+    void compareThreadModes() throws Exception {
+        Map<String, Result> results = new LinkedHashMap<>(run(false));
+        if(Runtime.version().feature() >= 21){
+            List<String> pinned;
+            try (Recording recording = new Recording()){
+                recording.enable(PINNED_EVENT).withThreshold(DB_DELAY.dividedBy(2)).withStackTrace();
+                recording.start();
+                results.putAll(run(true));
+                recording.stop();
+                pinned = pinnedStacks(recording);
+            }
+            Assertions.assertThat(pinned).as("virtual threads pinned to their carrier").isEmpty();
+        } else {
+            System.out.println("Virtual threads need Java 21, this is Java " + Runtime.version().feature() + "; only the platform mode ran.");
+        }
+
+        System.out.printf("%n%d clients, %d ms added to every statement, %d s per run%n", CONCURRENCY, DB_DELAY.toMillis(), DURATION.toSeconds());
+        System.out.printf("%-28s %10s %10s%n", "", "req/s", "p99 ms");
+        results.forEach((name, result) -> System.out.printf("%-28s %10.0f %10.1f%n", name, result.throughput(), result.p99Millis()));
+        Assertions.assertThat(results.values()).allSatisfy(result -> Assertions.assertThat(result.errors()).isZero());
+    }
+
+    private static Map<String, Result> run(boolean virtual) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BuildersApplication.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(new SlowDatabase(DB_DELAY)))
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + (DATASOURCE_URL != null ? DATASOURCE_URL : "jdbc:h2:mem:benchmark-" + mode + ";DB_CLOSE_DELAY=-1"),
+                        "--spring.datasource.username=" + System.getProperty("benchmark.datasource-username", DATASOURCE_URL != null ? "root" : "sa"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.datasource-password", DATASOURCE_URL != null ? "root" : ""),
+                        "--spring.datasource.hikari.maximum-pool-size=" + CONCURRENCY,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--api.security.password.strength=4",
+                        "--api.webhooks.poll-interval=1h",
+                        "--api.threads.virtual=" + virtual)){
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<Long> ids = context.getBean(HouseRepository.class).saveAll(IntStream.range(0, HOUSES)
+                            .mapToObj(i -> House.builder().projectName("Benchmark house " + i).build())
+                            .toList())
+                    .stream().map(House::getId).toList();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String token = token(client, port);
+
+            Map<String, Result> results = new LinkedHashMap<>();
+            List<URI> all = List.of(URI.create("http://localhost:" + port + "/houses/all"));
+            List<URI> byId = ids.stream().map(id -> URI.create("http://localhost:" + port + "/houses/" + id)).toList();
+            load(client, token, all, WARM_UP);
+            results.put(mode + " /houses/all", load(client, token, all, DURATION));
+            load(client, token, byId, WARM_UP);
+            results.put(mode + " /houses/{id}", load(client, token, byId, DURATION));
+            return results;
+        }
+    }
+
+    private static Result load(HttpClient client, String token, List<URI> uris, Duration duration) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        for(int i = 0; i < CONCURRENCY; i++){
+            clients.execute(() -> {
+                while(System.nanoTime() < end){
+                    HttpRequest request = HttpRequest.newBuilder(uris.get(ThreadLocalRandom.current().nextInt(uris.size())))
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if(status != 200) errors.incrementAndGet();
+                    } catch (Exception exception){
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - start);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(duration.plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        double p99 = sorted.length == 0 ? 0 : sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1_000_000.0;
+        return new Result(sorted.length / (double) duration.toSeconds(), p99, errors.get());
+    }
+
+    private static String token(HttpClient client, int port) throws Exception {
+        String credentials = "{\"login\":\"benchmark\",\"password\":\"benchmark\"}";
+        send(client, port, "/auth/register", "{\"login\":\"benchmark\",\"password\":\"benchmark\",\"role\":\"USER\"}");
+        return new JSONObject(send(client, port, "/auth/login", credentials)).getString("token");
+    }
+
+    private static String send(HttpClient client, int port, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static List<String> pinnedStacks(Recording recording) throws Exception {
+        Path file = Files.createTempFile("benchmark", ".jfr");
+        try {
+            recording.dump(file);
+            List<String> stacks = new ArrayList<>();
+            for(RecordedEvent event : RecordingFile.readAllEvents(file)){
+                if(!event.getEventType().getName().equals(PINNED_EVENT) || event.getStackTrace() == null) continue;
+                stacks.add(event.getDuration().toMillis() + " ms at " + event.getStackTrace().getFrames().stream()
+                        .limit(8)
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                        .toList());
+            }
+            return stacks;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private record Result(double throughput, double p99Millis, long errors) {
+    }
+
+    /**
+     * Adds the delay to every statement the application runs, the way a distant or loaded database would.
+     */
+    private record SlowDatabase(Duration delay) implements BeanPostProcessor {
+        private static final Set<Class<?>> WRAPPED = Set.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class);
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName){
+            return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource) : bean;
+        }
+
+        private Object wrap(Class<?> type, Object target){
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{ type }, (proxy, method, args) -> {
+                if(method.getName().startsWith("execute")) Thread.sleep(delay.toMillis());
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException exception){
+                    throw exception.getCause();
+                }
+                return result != null && WRAPPED.contains(method.getReturnType()) ? wrap(method.getReturnType(), result) : result;
+            });
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package project.house.builders.integration;
+
+import com.sun.net.httpserver.HttpServer;
+import org.assertj.core.api.Assertions;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import project.house.builders.service.WebhookDispatcher;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "api.webhooks.poll-interval=100ms")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Integration tests for webhook controller")
+class WebhookControllerIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+    private HttpServer receiver;
+    private BlockingQueue<String> received;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        received = new LinkedBlockingQueue<>();
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.createContext("/hook", exchange -> {
+            received.add(exchange.getRequestHeaders().getFirst(WebhookDispatcher.ENDPOINT_HEADER) + " " + new String(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        receiver.start();
+    }
+
+    @AfterEach
+    void tearDown(){
+        receiver.stop(0);
+    }
+
+    @Test
+    @DisplayName("a registered webhook receives the committed changes of its types made after it was registered")
+    void save_DeliversLaterChangesOfItsTypes_WhenSuccessful() throws Exception {
+        HttpHeaders headers = getAdminHeader();
+        post("/houses", "{\"projectName\":\"Before\"}", headers);
+        String url = "http://localhost:" + receiver.getAddress().getPort() + "/hook";
+        ResponseEntity<String> registered = testRestTemplate.exchange("/webhooks", HttpMethod.POST,
+                new HttpEntity<>("{\"url\":\"" + url + "\",\"secret\":\"s3cr3t\",\"types\":[\"HOUSE\"]}", json(headers)), String.class);
+        Assertions.assertThat(registered.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        JSONObject endpoint = new JSONObject(registered.getBody());
+        Assertions.assertThat(endpoint.has("secret")).isFalse();
+
+        post("/engineers", "{\"name\":\"Jack\"}", headers);
+        long houseId = new JSONObject(post("/houses", "{\"projectName\":\"Silva's house\"}", headers)).getLong("id");
+
+        String delivery = received.poll(10, TimeUnit.SECONDS);
+        Assertions.assertThat(delivery).startsWith(endpoint.getLong("id") + " ");
+        JSONArray changes = new JSONArray(delivery.substring(delivery.indexOf(' ') + 1));
+        Assertions.assertThat(changes.length()).isEqualTo(1);
+        Assertions.assertThat(changes.getJSONObject(0).getLong("entityId")).isEqualTo(houseId);
+        Assertions.assertThat(changes.getJSONObject(0).getString("entityType")).isEqualTo("HOUSE");
+    }
+
+    @Test
+    @DisplayName("save returns 403 when the URL is not an http URL")
+    void save_Returns403_WhenUrlIsNotHttp() throws JSONException {
+        ResponseEntity<String> response = testRestTemplate.exchange("/webhooks", HttpMethod.POST,
+                new HttpEntity<>("{\"url\":\"ftp://example.com/hook\"}", json(getAdminHeader())), String.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private static HttpHeaders json(HttpHeaders adminHeaders){
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(adminHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+    private String post(String url, String body, HttpHeaders adminHeaders){
+        return testRestTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(body, json(adminHeaders)), String.class).getBody();
+    }
+
+    private HttpHeaders getAdminHeader() throws JSONException {
+        //Registration
+        JSONObject registrationRequest = new JSONObject();
+        registrationRequest.put("login", "teste");
+        registrationRequest.put("password", "teste");
+        registrationRequest.put("role", "ADMIN");
+
+        HttpHeaders registrationHeaders = new HttpHeaders();
+        registrationHeaders.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(registrationRequest.toString(), registrationHeaders), String.class);
+
+        //Login
+        JSONObject loginRequest = new JSONObject();
+        loginRequest.put("login", "teste");
+        loginRequest.put("password", "teste");
+
+        HttpHeaders loginHeaders = new HttpHeaders();
+        loginHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> loginResponse = testRestTemplate.exchange("/auth/login", HttpMethod.POST, new HttpEntity<>(loginRequest.toString(), loginHeaders), String.class);
+
+        //Create a header for requests
+        HttpHeaders protectedEndpointHeaders = new HttpHeaders();
+        protectedEndpointHeaders.setBearerAuth(new JSONObject(loginResponse.getBody()).getString("token"));
+        return protectedEndpointHeaders;
+    }
+}
@@ -76,7 +76,7 @@ class ArchitectRepositoryTest {
     void save_ThrowConstraintViolationException_WhenNameIsEmpty(){
         Architect architectToBeSaved = new Architect();
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> architectRepository.save(architectToBeSaved))
+                .isThrownBy(() -> architectRepository.saveAndFlush(architectToBeSaved))
                 .withMessageContaining("Architect name cannot be empty");
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package project.house.builders.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import project.house.builders.domain.ChangeLogEntry;
+
+import java.time.Instant;
+import java.util.List;
+
+@DataJpaTest
+@DisplayName("Tests for change log entry repository")
+class ChangeLogEntryRepositoryTest {
+
+    @Autowired
+    private ChangeLogEntryRepository changeLogEntryRepository;
+
+    @Test
+    @DisplayName("findHeadsByEntityTypeIn returns the last id and the unsequenced count of each given type that has changes, ordered by type")
+    void findHeadsByEntityTypeIn_ReturnsHeadOfEachType_WhenSuccessful(){
+        changeLogEntryRepository.saveAll(List.of(
+                createEntry(1L, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(2L, ChangeLogEntry.EntityType.ENGINEER),
+                createEntry(3L, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(null, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(null, ChangeLogEntry.EntityType.ARCHITECT)));
+
+        Assertions.assertThat(changeLogEntryRepository.findHeadsByEntityTypeIn(List.of(ChangeLogEntry.EntityType.HOUSE, ChangeLogEntry.EntityType.ENGINEER)))
+                .containsExactly(new ChangeLogTypeHead(2L, 0L), new ChangeLogTypeHead(3L, 1L));
+        Assertions.assertThat(changeLogEntryRepository.findHeadsByEntityTypeIn(List.of(ChangeLogEntry.EntityType.ARCHITECT)))
+                .containsExactly(new ChangeLogTypeHead(0L, 1L));
+    }
+
+    @Test
+    @DisplayName("sequence gives the unsequenced entries of the range their entry id plus the offset, keeping their order")
+    void sequence_GivesUnsequencedEntriesOfRangeIds_WhenSuccessful(){
+        List<ChangeLogEntry> saved = changeLogEntryRepository.saveAll(List.of(
+                createEntry(1L, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(null, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(null, ChangeLogEntry.EntityType.ENGINEER),
+                createEntry(null, ChangeLogEntry.EntityType.HOUSE)));
+        changeLogEntryRepository.flush();
+        List<Long> unsequenced = changeLogEntryRepository.findUnsequencedEntryIds(PageRequest.of(0, 2));
+        Assertions.assertThat(unsequenced).containsExactly(saved.get(1).getEntryId(), saved.get(2).getEntryId());
+        long offset = 1 - unsequenced.get(0) + 1;
+
+        int sequenced = changeLogEntryRepository.sequence(unsequenced.get(0), unsequenced.get(1), offset);
+
+        Assertions.assertThat(sequenced).isEqualTo(2);
+        Assertions.assertThat(changeLogEntryRepository.findAll(Sort.by("entryId"))).extracting(ChangeLogEntry::getId)
+                .containsExactly(1L, 2L, 3L, null);
+    }
+
+    @Test
+    @DisplayName("deleteByIdBetween deletes the range except the ids to keep")
+    void deleteByIdBetween_DeletesRangeExceptKeptIds_WhenSuccessful(){
+        changeLogEntryRepository.saveAll(List.of(
+                createEntry(1L, ChangeLogEntry.EntityType.ARCHITECT),
+                createEntry(2L, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(3L, ChangeLogEntry.EntityType.HOUSE),
+                createEntry(4L, ChangeLogEntry.EntityType.HOUSE)));
+        changeLogEntryRepository.flush();
+
+        int deleted = changeLogEntryRepository.deleteByIdBetween(0L, 3L, changeLogEntryRepository.findLastIdOfEachEntityType());
+
+        Assertions.assertThat(deleted).isEqualTo(2);
+        Assertions.assertThat(changeLogEntryRepository.findAll()).extracting(ChangeLogEntry::getId).containsExactlyInAnyOrder(1L, 4L);
+    }
+
+    private static ChangeLogEntry createEntry(Long id, ChangeLogEntry.EntityType entityType){
+        return ChangeLogEntry.builder()
+                .id(id)
+                .entityType(entityType)
+                .entityId(1L)
+                .operation(ChangeLogEntry.Operation.UPSERT)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
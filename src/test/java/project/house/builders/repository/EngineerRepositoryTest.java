@@ -76,7 +76,18 @@ class EngineerRepositoryTest {
     void save_ThrowConstraintViolationException_WhenNameIsEmpty(){
         Engineer engineerToBeSaved = new Engineer();
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> engineerRepository.save(engineerToBeSaved))
+                .isThrownBy(() -> engineerRepository.saveAndFlush(engineerToBeSaved))
                 .withMessageContaining("Engineer name cannot be empty");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Find external ids maps each external id to its engineer id")
+    void findExternalIds_ReturnsOnlyEngineersWithExternalId_WhenSuccessful(){
+        Engineer withExternalId = engineerRepository.save(Engineer.builder().name("Roster").externalId("HR-1").build());
+        engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+
+        List<ExternalIdMapping> mappings = engineerRepository.findExternalIds();
+
+        Assertions.assertThat(mappings).containsExactly(new ExternalIdMapping("HR-1", withExternalId.getId()));
+    }
+}
@@ -1,25 +1,38 @@
 package project.house.builders.repository;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.ConstraintViolationException;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import project.house.builders.domain.Engineer;
 import project.house.builders.domain.House;
+import project.house.builders.responses.HouseResponse;
+import project.house.builders.util.EngineerCreator;
 import project.house.builders.util.HouseCreator;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 
-@DataJpaTest
+@DataJpaTest(properties = "api.metrics.hibernate-statistics=true")
 @DisplayName("Tests for house repository")
 class HouseRepositoryTest {
 
     @Autowired
     private HouseRepository houseRepository;
 
+    @Autowired
+    private EngineerRepository engineerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     @DisplayName("Save persists house when succesful")
     void save_PersistsHouse_WhenSuccessful(){
@@ -44,6 +57,22 @@ class HouseRepositoryTest {
         Assertions.assertThat(houseUpdated.getProjectName()).isEqualTo(savedHouse.getProjectName());
     }
 
+    @Test
+    @DisplayName("SaveAll inserts houses in JDBC batches when succesful")
+    void saveAll_InsertsHousesInBatches_WhenSuccessful(){
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<House> savedHouses = houseRepository.saveAll(IntStream.range(0, 1000)
+                .mapToObj(i -> House.builder().projectName("House " + i).build())
+                .toList());
+        houseRepository.flush();
+
+        Assertions.assertThat(savedHouses).extracting(House::getId).doesNotHaveDuplicates().isSorted();
+        Assertions.assertThat(statistics.getEntityInsertCount()).isEqualTo(1000);
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(20);
+    }
+
     @Test
     @DisplayName("Delete removes house when succesful")
     void delete_RemovesHouse_WhenSuccessful(){
@@ -73,12 +102,62 @@ class HouseRepositoryTest {
         Assertions.assertThat(houses).isNotNull().isEmpty();//Returns a list object, that is empty but not null.
     }
 
+    @Test
+    @DisplayName("Find responses by engineer ids returns the house columns and the foreign keys when successful")
+    void findResponsesByEngineerIdIn_ReturnsHouseResponses_WhenSuccessful(){
+        Engineer engineer = engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+        House houseToBeSaved = HouseCreator.createHouseToBeSaved();
+        houseToBeSaved.setEngineer(engineer);
+        House savedHouse = houseRepository.save(houseToBeSaved);
+        House houseWithoutEngineer = houseRepository.save(HouseCreator.createHouseToBeSaved());
+
+        List<HouseResponse> houses = houseRepository.findResponsesByEngineerIdIn(List.of(engineer.getId()));
+
+        Assertions.assertThat(houses).containsExactly(new HouseResponse(savedHouse.getId(), savedHouse.getProjectName(), engineer.getId(), null));
+        Assertions.assertThat(houseRepository.findResponseById(houseWithoutEngineer.getId()))
+                .contains(new HouseResponse(houseWithoutEngineer.getId(), houseWithoutEngineer.getProjectName(), null, null));
+    }
+
+    @Test
+    @DisplayName("Reassign engineer moves the locked houses of the engineer in one statement when successful")
+    void reassignEngineer_MovesLockedHousesOfEngineer_WhenSuccessful(){
+        Engineer leaving = engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+        Engineer replacement = engineerRepository.save(EngineerCreator.createEngineerToBeSaved());
+        House first = houseRepository.save(House.builder().projectName("First").engineer(leaving).build());
+        House second = houseRepository.save(House.builder().projectName("Second").engineer(leaving).build());
+        House other = houseRepository.save(House.builder().projectName("Other").build());
+
+        List<Long> ids = houseRepository.lockResponsesByEngineerId(leaving.getId()).stream().map(HouseResponse::id).toList();
+        int moved = houseRepository.reassignEngineer(ids, replacement);
+
+        Assertions.assertThat(ids).containsExactly(first.getId(), second.getId());
+        Assertions.assertThat(moved).isEqualTo(2);
+        Assertions.assertThat(houseRepository.findResponsesByEngineerIdIn(List.of(replacement.getId())))
+                .extracting(HouseResponse::id).containsExactly(first.getId(), second.getId());
+        Assertions.assertThat(houseRepository.findResponseById(other.getId())).get().extracting(HouseResponse::engineerId).isNull();
+        Assertions.assertThat(houseRepository.reassignEngineer(ids, null)).isEqualTo(2);
+        Assertions.assertThat(houseRepository.findResponsesByEngineerIdIn(List.of(replacement.getId()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Delete all by id in removes only the listed houses when successful")
+    void deleteAllByIdIn_RemovesListedHouses_WhenSuccessful(){
+        House first = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        House second = houseRepository.save(HouseCreator.createHouseToBeSaved());
+        House kept = houseRepository.save(HouseCreator.createHouseToBeSaved());
+
+        int deleted = houseRepository.deleteAllByIdIn(List.of(first.getId(), second.getId(), kept.getId() + 1000));
+
+        Assertions.assertThat(deleted).isEqualTo(2);
+        Assertions.assertThat(houseRepository.findAll()).extracting(House::getId).containsExactly(kept.getId());
+    }
+
     @Test
     @DisplayName("Save throw ConstraintViolationException when projectName is empty")
     void save_ThrowConstraintViolationException_WhenNameIsEmpty(){
         House houseToBeSaved = new House();
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> houseRepository.save(houseToBeSaved))
+                .isThrownBy(() -> houseRepository.saveAndFlush(houseToBeSaved))
                 .withMessageContaining("The house project must have a name or a nickname");
     }
 }
\ No newline at end of file
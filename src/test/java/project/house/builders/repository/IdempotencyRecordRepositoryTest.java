@@ -0,0 +1,96 @@
+package project.house.builders.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import project.house.builders.domain.IdempotencyRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+@DataJpaTest
+@DisplayName("Tests for idempotency record repository")
+class IdempotencyRecordRepositoryTest {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    @DisplayName("findByIdempotencyKeyAndCreatedAtAfter ignores records created before the limit")
+    void findByIdempotencyKeyAndCreatedAtAfter_IgnoresExpiredRecords(){
+        Instant now = Instant.now();
+        idempotencyRecordRepository.save(createRecord("fresh", now));
+        idempotencyRecordRepository.save(createRecord("expired", now.minus(Duration.ofDays(2))));
+
+        Instant limit = now.minus(Duration.ofDays(1));
+
+        Assertions.assertThat(idempotencyRecordRepository.findByIdempotencyKeyAndCreatedAtAfter("fresh", limit))
+                .get().extracting(IdempotencyRecord::getBody).isEqualTo("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThat(idempotencyRecordRepository.findByIdempotencyKeyAndCreatedAtAfter("expired", limit)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("deleteExpired removes only the records created before the limit")
+    void deleteExpired_RemovesOnlyExpiredRecords(){
+        Instant now = Instant.now();
+        idempotencyRecordRepository.save(createRecord("fresh", now));
+        idempotencyRecordRepository.save(createRecord("expired", now.minus(Duration.ofDays(2))));
+
+        int deleted = idempotencyRecordRepository.deleteExpired(now.minus(Duration.ofDays(1)));
+
+        Assertions.assertThat(deleted).isEqualTo(1);
+        Assertions.assertThat(idempotencyRecordRepository.findAll()).extracting(IdempotencyRecord::getIdempotencyKey).containsExactly("fresh");
+    }
+
+    @Test
+    @DisplayName("insertPending throws DataIntegrityViolationException when the key is already reserved")
+    void insertPending_ThrowsDataIntegrityViolationException_WhenKeyExists(){
+        Instant now = Instant.now();
+        idempotencyRecordRepository.insertPending("key", "hash", now);
+
+        Assertions.assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> idempotencyRecordRepository.insertPending("key", "other", now));
+    }
+
+    @Test
+    @DisplayName("reserveAbandoned takes over only stale pending records or expired responses")
+    void reserveAbandoned_TakesOverOnlyStalePendingOrExpiredRecords(){
+        Instant now = Instant.now();
+        idempotencyRecordRepository.insertPending("running", "hash", now);
+        idempotencyRecordRepository.insertPending("abandoned", "hash", now.minus(Duration.ofMinutes(5)));
+        idempotencyRecordRepository.save(createRecord("completed", now.minus(Duration.ofMinutes(5))));
+        idempotencyRecordRepository.save(createRecord("expired", now.minus(Duration.ofDays(2))));
+        Instant pendingBefore = now.minus(Duration.ofMinutes(1));
+        Instant expiredBefore = now.minus(Duration.ofDays(1));
+
+        Assertions.assertThat(idempotencyRecordRepository.reserveAbandoned("running", "new", pendingBefore, expiredBefore, now)).isZero();
+        Assertions.assertThat(idempotencyRecordRepository.reserveAbandoned("abandoned", "new", pendingBefore, expiredBefore, now)).isEqualTo(1);
+        Assertions.assertThat(idempotencyRecordRepository.reserveAbandoned("completed", "new", pendingBefore, expiredBefore, now)).isZero();
+        Assertions.assertThat(idempotencyRecordRepository.reserveAbandoned("expired", "new", pendingBefore, expiredBefore, now)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("deletePending removes a pending record but keeps a completed one")
+    void deletePending_RemovesOnlyPendingRecords(){
+        idempotencyRecordRepository.insertPending("pending", "hash", Instant.now());
+        idempotencyRecordRepository.save(createRecord("completed", Instant.now()));
+
+        Assertions.assertThat(idempotencyRecordRepository.deletePending("pending")).isEqualTo(1);
+        Assertions.assertThat(idempotencyRecordRepository.deletePending("completed")).isZero();
+    }
+
+    private static IdempotencyRecord createRecord(String key, Instant createdAt){
+        return IdempotencyRecord.builder()
+                .idempotencyKey(key)
+                .requestHash("hash")
+                .status(201)
+                .contentType("application/json")
+                .body("{\"id\":1}".getBytes(StandardCharsets.UTF_8))
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package project.house.builders.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import project.house.builders.domain.ImportJob;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@DataJpaTest
+@DisplayName("Tests for import job repository")
+class ImportJobRepositoryTest {
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Test
+    @DisplayName("updateStatusOfStale fails only running jobs whose heartbeat is older than the limit")
+    void updateStatusOfStale_FailsOnlyStaleRunningJobs(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        ImportJob live = importJobRepository.save(createJob("other-node", ImportJob.Status.RUNNING, now));
+        ImportJob stale = importJobRepository.save(createJob("other-node", ImportJob.Status.RUNNING, now.minus(Duration.ofMinutes(5))));
+        ImportJob completed = importJobRepository.save(createJob("other-node", ImportJob.Status.COMPLETED, now.minus(Duration.ofMinutes(5))));
+
+        int failed = importJobRepository.updateStatusOfStale(now.minus(Duration.ofMinutes(1)), ImportJob.Status.RUNNING, ImportJob.Status.FAILED, "stale", now);
+
+        Assertions.assertThat(failed).isEqualTo(1);
+        Assertions.assertThat(importJobRepository.findAll())
+                .extracting(ImportJob::getId, ImportJob::getStatus)
+                .containsExactlyInAnyOrder(
+                        Assertions.tuple(live.getId(), ImportJob.Status.RUNNING),
+                        Assertions.tuple(stale.getId(), ImportJob.Status.FAILED),
+                        Assertions.tuple(completed.getId(), ImportJob.Status.COMPLETED));
+    }
+
+    @Test
+    @DisplayName("updateStatusOfOwner fails only the running jobs of the given instance")
+    void updateStatusOfOwner_FailsOnlyJobsOfThatInstance(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        ImportJob own = importJobRepository.save(createJob("this-node", ImportJob.Status.RUNNING, now));
+        ImportJob other = importJobRepository.save(createJob("other-node", ImportJob.Status.RUNNING, now));
+
+        int failed = importJobRepository.updateStatusOfOwner("this-node", ImportJob.Status.RUNNING, ImportJob.Status.FAILED, "restart", now);
+
+        Assertions.assertThat(failed).isEqualTo(1);
+        Assertions.assertThat(importJobRepository.findById(own.getId())).get().extracting(ImportJob::getStatus).isEqualTo(ImportJob.Status.FAILED);
+        Assertions.assertThat(importJobRepository.findById(other.getId())).get().extracting(ImportJob::getStatus).isEqualTo(ImportJob.Status.RUNNING);
+    }
+
+    @Test
+    @DisplayName("updateStatusOfJob finishes the job only while the given instance runs it")
+    void updateStatusOfJob_FinishesJobOnlyWhileThatInstanceRunsIt(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        ImportJob own = importJobRepository.save(createJob("this-node", ImportJob.Status.RUNNING, now));
+        ImportJob takenOver = importJobRepository.save(createJob("other-node", ImportJob.Status.RUNNING, now));
+
+        Assertions.assertThat(importJobRepository.updateStatusOfJob(own.getId(), "this-node", ImportJob.Status.RUNNING, ImportJob.Status.COMPLETED, null, now)).isEqualTo(1);
+        Assertions.assertThat(importJobRepository.updateStatusOfJob(takenOver.getId(), "this-node", ImportJob.Status.RUNNING, ImportJob.Status.FAILED, "stopped", now)).isZero();
+
+        Assertions.assertThat(importJobRepository.findById(own.getId())).get()
+                .extracting(ImportJob::getStatus, ImportJob::getVersion)
+                .containsExactly(ImportJob.Status.COMPLETED, own.getVersion() + 1);
+        Assertions.assertThat(importJobRepository.findById(takenOver.getId())).get().extracting(ImportJob::getStatus).isEqualTo(ImportJob.Status.RUNNING);
+    }
+
+    @Test
+    @DisplayName("heartbeat refreshes only the running jobs of the given instance")
+    void heartbeat_RefreshesOnlyJobsOfThatInstance(){
+        Instant old = Instant.now().truncatedTo(ChronoUnit.MILLIS).minus(Duration.ofMinutes(5));
+        ImportJob own = importJobRepository.save(createJob("this-node", ImportJob.Status.RUNNING, old));
+        ImportJob other = importJobRepository.save(createJob("other-node", ImportJob.Status.RUNNING, old));
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        int refreshed = importJobRepository.heartbeat("this-node", ImportJob.Status.RUNNING, now);
+
+        Assertions.assertThat(refreshed).isEqualTo(1);
+        Assertions.assertThat(importJobRepository.findById(own.getId())).get().extracting(ImportJob::getHeartbeatAt).isEqualTo(now);
+        Assertions.assertThat(importJobRepository.findById(other.getId())).get().extracting(ImportJob::getHeartbeatAt).isEqualTo(old);
+    }
+
+    private static ImportJob createJob(String owner, ImportJob.Status status, Instant heartbeatAt){
+        return ImportJob.builder()
+                .type(ImportJob.Type.HOUSES)
+                .format(ImportJob.Format.CSV)
+                .status(status)
+                .fileName("houses.csv")
+                .createdAt(heartbeatAt)
+                .updatedAt(heartbeatAt)
+                .owner(owner)
+                .heartbeatAt(heartbeatAt)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package project.house.builders.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import project.house.builders.domain.WebhookEndpoint;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@DataJpaTest
+@DisplayName("Tests for webhook endpoint repository")
+class WebhookEndpointRepositoryTest {
+
+    @Autowired
+    private WebhookEndpointRepository webhookEndpointRepository;
+
+    @Test
+    @DisplayName("claim leases the endpoint to one instance until the lease expires")
+    void claim_LeasesEndpointToOneInstance_UntilLeaseExpires(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        WebhookEndpoint endpoint = webhookEndpointRepository.save(createEndpoint());
+
+        Assertions.assertThat(webhookEndpointRepository.claim(endpoint.getId(), "this-node", now, now.plus(Duration.ofMinutes(1)))).isEqualTo(1);
+        Assertions.assertThat(webhookEndpointRepository.claim(endpoint.getId(), "other-node", now.plusSeconds(30), now.plus(Duration.ofMinutes(2)))).isZero();
+        Assertions.assertThat(webhookEndpointRepository.claim(endpoint.getId(), "other-node", now.plus(Duration.ofMinutes(2)), now.plus(Duration.ofMinutes(3)))).isEqualTo(1);
+        Assertions.assertThat(webhookEndpointRepository.findById(endpoint.getId())).get().extracting(WebhookEndpoint::getLeaseOwner).isEqualTo("other-node");
+    }
+
+    @Test
+    @DisplayName("claim skips an endpoint that is waiting out a backoff")
+    void claim_SkipsEndpoint_WhenWaitingOutBackoff(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        WebhookEndpoint endpoint = createEndpoint();
+        endpoint.setNextAttemptAt(now.plusSeconds(10));
+        endpoint = webhookEndpointRepository.save(endpoint);
+
+        Assertions.assertThat(webhookEndpointRepository.claim(endpoint.getId(), "this-node", now, now.plus(Duration.ofMinutes(1)))).isZero();
+    }
+
+    @Test
+    @DisplayName("markDelivered moves the endpoint only forward and only for the instance holding the lease")
+    void markDelivered_MovesForward_OnlyForLeaseOwner(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        WebhookEndpoint endpoint = webhookEndpointRepository.save(createEndpoint());
+        webhookEndpointRepository.claim(endpoint.getId(), "this-node", now, now.plus(Duration.ofMinutes(1)));
+
+        Assertions.assertThat(webhookEndpointRepository.markDelivered(endpoint.getId(), "other-node", 20L, now, now.plus(Duration.ofMinutes(1)))).isZero();
+        Assertions.assertThat(webhookEndpointRepository.markDelivered(endpoint.getId(), "this-node", 20L, now, now.plus(Duration.ofMinutes(1)))).isEqualTo(1);
+        Assertions.assertThat(webhookEndpointRepository.markDelivered(endpoint.getId(), "this-node", 15L, now, now.plus(Duration.ofMinutes(1)))).isZero();
+        Assertions.assertThat(webhookEndpointRepository.findById(endpoint.getId())).get().extracting(WebhookEndpoint::getDeliveredUpTo).isEqualTo(20L);
+    }
+
+    @Test
+    @DisplayName("release frees the lease only for the instance holding it")
+    void release_FreesLease_OnlyForLeaseOwner(){
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        WebhookEndpoint endpoint = webhookEndpointRepository.save(createEndpoint());
+        webhookEndpointRepository.claim(endpoint.getId(), "this-node", now, now.plus(Duration.ofMinutes(1)));
+
+        Assertions.assertThat(webhookEndpointRepository.release(endpoint.getId(), "other-node")).isZero();
+        Assertions.assertThat(webhookEndpointRepository.release(endpoint.getId(), "this-node")).isEqualTo(1);
+        Assertions.assertThat(webhookEndpointRepository.claim(endpoint.getId(), "other-node", now, now.plus(Duration.ofMinutes(1)))).isEqualTo(1);
+    }
+
+    private static WebhookEndpoint createEndpoint(){
+        return WebhookEndpoint.builder()
+                .url("https://billing.internal/hooks/houses")
+                .deliveredUpTo(10L)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
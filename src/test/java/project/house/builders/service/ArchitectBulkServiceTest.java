@@ -0,0 +1,83 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.domain.Architect;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.requests.ArchitectUpsertRequestBody;
+import project.house.builders.responses.UpsertResult;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+@DisplayName("Tests for architect bulk service")
+class ArchitectBulkServiceTest {
+    private ArchitectRepository architectRepositoryMock;
+    private ArchitectBulkService architectBulkService;
+
+    @BeforeEach
+    void setUp(){
+        architectRepositoryMock = Mockito.mock(ArchitectRepository.class);
+        architectBulkService = new ArchitectBulkService(architectRepositoryMock, new PaginationService(50, 200, Duration.ofSeconds(30)), Mockito.mock(ChangeLog.class), 3);
+    }
+
+    @Test
+    @DisplayName("upsertAll inserts new architects, renames changed ones and skips the rest when successful")
+    void upsertAll_InsertsUpdatesAndSkips_WhenSuccessful(){
+        Architect renamed = Architect.builder().id(1L).externalId("HR-1").name("Old name").build();
+        Architect unchanged = Architect.builder().id(2L).externalId("HR-2").name("Same name").build();
+        BDDMockito.when(architectRepositoryMock.findByExternalIdIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(renamed, unchanged));
+
+        UpsertResult result = architectBulkService.upsertAll(List.of(
+                new ArchitectUpsertRequestBody("HR-1", "New name"),
+                new ArchitectUpsertRequestBody("HR-2", "Same name"),
+                new ArchitectUpsertRequestBody("HR-3", "Newcomer")));
+
+        Assertions.assertThat(result).isEqualTo(new UpsertResult(1, 1, 1));
+        Assertions.assertThat(renamed.getName()).isEqualTo("New name");
+        Mockito.verify(architectRepositoryMock).findByExternalIdIn(List.of("HR-1", "HR-2", "HR-3"));
+        Mockito.verify(architectRepositoryMock).saveAll(ArgumentMatchers.<List<Architect>>argThat(architects ->
+                architects.size() == 1 && architects.get(0).getExternalId().equals("HR-3")));
+    }
+
+    @Test
+    @DisplayName("upsertAll writes nothing when every architect is up to date")
+    void upsertAll_WritesNothing_WhenEveryArchitectIsUpToDate(){
+        BDDMockito.when(architectRepositoryMock.findByExternalIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(Architect.builder().id(1L).externalId("HR-1").name("Same name").build()));
+
+        UpsertResult result = architectBulkService.upsertAll(List.of(new ArchitectUpsertRequestBody("HR-1", "Same name")));
+
+        Assertions.assertThat(result).isEqualTo(new UpsertResult(0, 0, 1));
+        Mockito.verify(architectRepositoryMock, Mockito.never()).saveAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("upsertAll throws BadRequestException when an external id is missing or repeated")
+    void upsertAll_ThrowsBadRequestException_WhenExternalIdIsMissingOrRepeated(){
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> architectBulkService.upsertAll(List.of(new ArchitectUpsertRequestBody(" ", "Name"))));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> architectBulkService.upsertAll(List.of(new ArchitectUpsertRequestBody("HR-1", "Name"), new ArchitectUpsertRequestBody("HR-1", "Other"))))
+                .withMessageContaining("HR-1");
+        Mockito.verifyNoInteractions(architectRepositoryMock);
+    }
+
+    @Test
+    @DisplayName("upsertAll throws BadRequestException when the request is empty or too large")
+    void upsertAll_ThrowsBadRequestException_WhenRequestIsEmptyOrTooLarge(){
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> architectBulkService.upsertAll(Collections.emptyList()));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> architectBulkService.upsertAll(List.of(
+                        new ArchitectUpsertRequestBody("HR-1", "A"), new ArchitectUpsertRequestBody("HR-2", "B"),
+                        new ArchitectUpsertRequestBody("HR-3", "C"), new ArchitectUpsertRequestBody("HR-4", "D"))));
+    }
+}
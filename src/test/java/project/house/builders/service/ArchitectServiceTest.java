@@ -1,5 +1,8 @@
 package project.house.builders.service;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,14 +11,23 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import project.house.builders.domain.Architect;
 import project.house.builders.exception.BadRequestException;
 import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.ArchitectResponse;
+import project.house.builders.responses.HouseResponse;
 import project.house.builders.util.ArchitectCreator;
 import project.house.builders.util.ArchitectPostRequestBodyCreator;
 import project.house.builders.util.ArchitectPutRequestBodyCreator;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -30,12 +42,30 @@ public class ArchitectServiceTest {
     @Mock
     private ArchitectRepository architectRepositoryMock;
 
+    @Mock
+    private HouseRepository houseRepositoryMock;
+
+    @Spy
+    private PaginationService paginationService = new PaginationService(50, 200, Duration.ofSeconds(30));
+
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
 
     @BeforeEach
     void setUp() {
         List<Architect> architectList = new ArrayList<>(List.of(ArchitectCreator.createValidArchitect()));
 
-        BDDMockito.when(architectRepositoryMock.findAll()).thenReturn(architectList);
+        List<ArchitectResponse> architectResponseList = new ArrayList<>(List.of(ArchitectCreator.createValidArchitectResponse()));
+
+        BDDMockito.when(architectRepositoryMock.findResponsesByIdGreaterThan(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Pageable.class))).thenReturn(new SliceImpl<>(architectResponseList));
+        BDDMockito.when(houseRepositoryMock.findResponsesByArchitectIdIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(new HouseResponse(1L, "TestProject", null, 1L)));
+        BDDMockito.when(architectRepositoryMock.findResponseById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(ArchitectCreator.createValidArchitectResponse()));
+        BDDMockito.when(architectRepositoryMock.findResponsesByName(ArgumentMatchers.anyString())).thenReturn(architectResponseList);
         BDDMockito.when(architectRepositoryMock.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(ArchitectCreator.createValidArchitect()));
         BDDMockito.when(architectRepositoryMock.findByName(ArgumentMatchers.anyString())).thenReturn(architectList);
         BDDMockito.when(architectRepositoryMock.save(ArgumentMatchers.any(Architect.class))).thenReturn(ArchitectCreator.createValidArchitect());
@@ -46,27 +76,27 @@ public class ArchitectServiceTest {
     @DisplayName("listAll returns list of architects when successful")
     void listAll_ReturnsListOfArchitect_WhenSuccessful() {
         String expectedName = ArchitectCreator.createValidArchitect().getName();
-        List<Architect> architectList = architectService.listAll();
+        List<ArchitectResponse> architectList = architectService.listAll(null, null, null).content();
 
         org.assertj.core.api.Assertions.assertThat(architectList).isNotNull();
         org.assertj.core.api.Assertions.assertThat(architectList).isNotEmpty().hasSize(1);
-        org.assertj.core.api.Assertions.assertThat(architectList.get(0).getName()).isEqualTo(expectedName);
+        org.assertj.core.api.Assertions.assertThat(architectList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("findByIdOrThrowBadRequestException returns architect when successful")
     void findByIdOrThrowBadRequestException_ReturnsArchitect_WhenSuccessful() {
         Long expectedId = ArchitectCreator.createValidArchitect().getId();
-        Architect architect = architectService.findByIdOrThrowBadRequestException(1);
+        ArchitectResponse architect = architectService.findByIdOrThrowBadRequestException(1);
 
         org.assertj.core.api.Assertions.assertThat(architect).isNotNull();
-        org.assertj.core.api.Assertions.assertThat(architect.getId()).isEqualTo(expectedId);
+        org.assertj.core.api.Assertions.assertThat(architect.id()).isEqualTo(expectedId);
     }
 
     @Test
     @DisplayName("findByIdOrThrowBadRequestException throws BadRequestException when architect is not found")
     void findByIdOrThrowBadRequestException_ThrowsBadRequestException_WhenArchitectIsNotFound() {
-        BDDMockito.when(architectRepositoryMock.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        BDDMockito.when(architectRepositoryMock.findResponseById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
                 .isThrownBy(() -> architectService.findByIdOrThrowBadRequestException(1))
@@ -77,19 +107,19 @@ public class ArchitectServiceTest {
     @DisplayName("FindByName returns list of architect when successful")
     void findByName_ReturnsListOfArchitect_WhenSuccessful() {
         String expectedName = ArchitectCreator.createValidArchitect().getName();
-        List<Architect> architectList = architectService.findByName("test");
+        List<ArchitectResponse> architectList = architectService.findByName("test");
 
         org.assertj.core.api.Assertions.assertThat(architectList).isNotNull();
         org.assertj.core.api.Assertions.assertThat(architectList).isNotEmpty().hasSize(1);
-        org.assertj.core.api.Assertions.assertThat(architectList.get(0).getName()).isEqualTo(expectedName);
+        org.assertj.core.api.Assertions.assertThat(architectList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("FindByName returns an empty list of architect when architect is not found")
     void findByName_ReturnsEmptyList_WhenArchitectIsNotFound() {
-        BDDMockito.when(architectRepositoryMock.findByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
+        BDDMockito.when(architectRepositoryMock.findResponsesByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
 
-        List<Architect> architectList = architectService.findByName("test");
+        List<ArchitectResponse> architectList = architectService.findByName("test");
 
         org.assertj.core.api.Assertions.assertThat(architectList).isNotNull().isEmpty();
     }
@@ -106,14 +136,36 @@ public class ArchitectServiceTest {
     @Test
     @DisplayName("replace updates architect when successful")
     void replace_UpdatesArchitect_WhenSuccessful() {
-        org.assertj.core.api.Assertions.assertThatCode(() -> architectService.replace(ArchitectPutRequestBodyCreator.createArchitectPutRequestBody()))
+        org.assertj.core.api.Assertions.assertThatCode(() -> architectService.replace(ArchitectPutRequestBodyCreator.createArchitectPutRequestBody(), null))
                 .doesNotThrowAnyException();
     }
 
     @Test
     @DisplayName("delete removes architect when successful")
     void delete_RemovesArchitect_WhenSuccessful() {
-        org.assertj.core.api.Assertions.assertThatCode(() -> architectService.delete(1))
+        org.assertj.core.api.Assertions.assertThatCode(() -> architectService.delete(1, null))
                 .doesNotThrowAnyException();
     }
+
+    @Test
+    @DisplayName("patch changes the name of the loaded architect when successful")
+    void patch_ChangesName_WhenSuccessful() {
+        Architect architect = ArchitectCreator.createValidArchitect();
+        BDDMockito.when(architectRepositoryMock.findById(1L)).thenReturn(Optional.of(architect));
+
+        architectService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("name", "Patched")), null);
+
+        org.assertj.core.api.Assertions.assertThat(architect.getName()).isEqualTo("Patched");
+        Mockito.verify(architectRepositoryMock, Mockito.never()).save(ArgumentMatchers.any(Architect.class));
+    }
+
+    @Test
+    @DisplayName("patch throws BadRequestException when the name is cleared or an unknown field is sent")
+    void patch_ThrowsBadRequestException_WhenNameIsClearedOrFieldIsUnknown() {
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> architectService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().putNull("name")), null));
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> architectService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("id", 2)), null))
+                .withMessageContaining("id");
+    }
 }
@@ -0,0 +1,82 @@
+package project.house.builders.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import project.house.builders.user.User;
+import project.house.builders.user.UserRepository;
+import project.house.builders.user.UserRole;
+
+import java.time.Duration;
+
+@DisplayName("Tests for authorization service")
+class AuthorizationServiceTest {
+    private UserRepository userRepositoryMock;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthorizationService authorizationService;
+
+    @BeforeEach
+    void setUp(){
+        userRepositoryMock = Mockito.mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        BDDMockito.when(userRepositoryMock.findByLogin("teste")).thenReturn(new User("teste", "password", UserRole.USER));
+        authorizationService = new AuthorizationService(userRepositoryMock, meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername queries the repository once while the user is cached")
+    void loadUserByUsername_QueriesRepositoryOnce_WhenUserIsCached(){
+        UserDetails first = authorizationService.loadUserByUsername("teste");
+        UserDetails second = authorizationService.loadUserByUsername("teste");
+
+        Assertions.assertThat(first).isSameAs(second);
+        Assertions.assertThat(first.getUsername()).isEqualTo("teste");
+        Mockito.verify(userRepositoryMock, Mockito.times(1)).findByLogin("teste");
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername queries the repository again after the user is evicted")
+    void loadUserByUsername_QueriesRepositoryAgain_WhenUserIsEvicted(){
+        authorizationService.loadUserByUsername("teste");
+        authorizationService.evict("teste");
+        authorizationService.loadUserByUsername("teste");
+
+        Mockito.verify(userRepositoryMock, Mockito.times(2)).findByLogin("teste");
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername throws UsernameNotFoundException when user is not found")
+    void loadUserByUsername_ThrowsUsernameNotFoundException_WhenUserIsNotFound(){
+        Assertions.assertThatExceptionOfType(UsernameNotFoundException.class)
+                .isThrownBy(() -> authorizationService.loadUserByUsername("unknown"));
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername records cache hits and misses")
+    void loadUserByUsername_RecordsCacheHitsAndMisses(){
+        authorizationService.loadUserByUsername("teste");
+        authorizationService.loadUserByUsername("teste");
+
+        Assertions.assertThat(meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("updatePassword saves the new hash and evicts the cached user")
+    void updatePassword_SavesNewHashAndEvictsUser_WhenSuccessful(){
+        authorizationService.loadUserByUsername("teste");
+
+        UserDetails updated = authorizationService.updatePassword(new User("teste", "password", UserRole.USER), "newHash");
+        authorizationService.loadUserByUsername("teste");
+
+        Assertions.assertThat(updated.getPassword()).isEqualTo("newHash");
+        Mockito.verify(userRepositoryMock).save(BDDMockito.any(User.class));
+        Mockito.verify(userRepositoryMock, Mockito.times(3)).findByLogin("teste");
+    }
+}
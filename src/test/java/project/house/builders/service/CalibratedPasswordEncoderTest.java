@@ -0,0 +1,46 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+@DisplayName("Tests for calibrated password encoder")
+class CalibratedPasswordEncoderTest {
+
+    @Test
+    @DisplayName("calibrate returns the minimum strength when the target latency is too low")
+    void calibrate_ReturnsMinStrength_WhenTargetIsTooLow(){
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.calibrate(Duration.ZERO, 4, 8);
+
+        Assertions.assertThat(encoder.getStrength()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("calibrate returns the maximum strength when the target latency is very high")
+    void calibrate_ReturnsMaxStrength_WhenTargetIsVeryHigh(){
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.calibrate(Duration.ofHours(1), 4, 6);
+
+        Assertions.assertThat(encoder.getStrength()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("upgradeEncoding returns true when the stored hash has a lower or higher strength")
+    void upgradeEncoding_ReturnsTrue_WhenStrengthDiffers(){
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+
+        Assertions.assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        Assertions.assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("upgradeEncoding returns false when the stored hash has the same strength")
+    void upgradeEncoding_ReturnsFalse_WhenStrengthMatches(){
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+
+        Assertions.assertThat(encoder.upgradeEncoding(encoder.encode("password"))).isFalse();
+        Assertions.assertThat(encoder.matches("password", new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+    }
+}
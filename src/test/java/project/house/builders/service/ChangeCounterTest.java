@@ -0,0 +1,58 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogTypeHead;
+
+import java.util.List;
+
+@DisplayName("Tests for change counter")
+class ChangeCounterTest {
+    private ChangeLogEntryRepository changeLogEntryRepositoryMock;
+    private ChangeCounter changeCounter;
+
+    @BeforeEach
+    void setUp(){
+        changeLogEntryRepositoryMock = Mockito.mock(ChangeLogEntryRepository.class);
+        changeCounter = new ChangeCounter(changeLogEntryRepositoryMock);
+    }
+
+    @Test
+    @DisplayName("token is built from the last change log id of each of its types")
+    void token_IsBuiltFromLastChangeLogIds_WhenSuccessful(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findHeadsByEntityTypeIn(List.of(ChangeLogEntry.EntityType.ENGINEER, ChangeLogEntry.EntityType.HOUSE)))
+                .thenReturn(List.of(new ChangeLogTypeHead(7L, 0L), new ChangeLogTypeHead(12L, 0L)));
+        BDDMockito.when(changeLogEntryRepositoryMock.findHeadsByEntityTypeIn(List.of(ChangeLogEntry.EntityType.HOUSE)))
+                .thenReturn(List.of(new ChangeLogTypeHead(12L, 0L)), List.of(new ChangeLogTypeHead(13L, 0L)));
+
+        Assertions.assertThat(changeCounter.token(Engineer.class, House.class)).isEqualTo("c7-12");
+        Assertions.assertThat(changeCounter.token(House.class)).isEqualTo("c12");
+        Assertions.assertThat(changeCounter.token(House.class)).isEqualTo("c13");
+    }
+
+    @Test
+    @DisplayName("token changes as soon as a change commits, before it has an id")
+    void token_Changes_WhenChangesAreNotSequencedYet(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findHeadsByEntityTypeIn(List.of(ChangeLogEntry.EntityType.HOUSE)))
+                .thenReturn(List.of(new ChangeLogTypeHead(12L, 0L)), List.of(new ChangeLogTypeHead(12L, 2L)));
+
+        Assertions.assertThat(changeCounter.token(House.class)).isEqualTo("c12");
+        Assertions.assertThat(changeCounter.token(House.class)).isEqualTo("c12+2");
+    }
+
+    @Test
+    @DisplayName("token is empty of ids when its types have no changes")
+    void token_HasNoIds_WhenTypesHaveNoChanges(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findHeadsByEntityTypeIn(List.of(ChangeLogEntry.EntityType.HOUSE))).thenReturn(List.of());
+
+        Assertions.assertThat(changeCounter.token(House.class)).isEqualTo("c");
+    }
+}
@@ -0,0 +1,147 @@
+package project.house.builders.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.responses.ChangeEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+@DisplayName("Tests for change event hub")
+class ChangeEventHubTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ChangeLog changeLogMock;
+    private ChangeLogSequencer changeLogSequencerMock;
+    private ChangeEventHub changeEventHub;
+
+    @BeforeEach
+    void setUp(){
+        meterRegistry = new SimpleMeterRegistry();
+        changeLogMock = Mockito.mock(ChangeLog.class);
+        changeLogSequencerMock = Mockito.mock(ChangeLogSequencer.class);
+        changeEventHub = new ChangeEventHub(changeLogMock, changeLogSequencerMock, new PaginationService(50, 200, Duration.ofSeconds(30)), meterRegistry,
+                1, 2, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown(){
+        changeEventHub.shutdown();
+    }
+
+    @Test
+    @DisplayName("filters match the entity type and the engineers and architects related to a house")
+    void filter_MatchesTypeAndRelatedIds(){
+        ChangeEvent house = new ChangeEvent(1L, ChangeLogEntry.EntityType.HOUSE, 7L, ChangeLogEntry.Operation.UPSERT, Set.of(3L, 5L), Set.of(4L));
+        ChangeEvent engineer = new ChangeEvent(2L, ChangeLogEntry.EntityType.ENGINEER, 3L, ChangeLogEntry.Operation.DELETE, Set.of(), Set.of());
+
+        Assertions.assertThat(ChangeEventHub.Filter.ALL.matches(house)).isTrue();
+        Assertions.assertThat(new ChangeEventHub.Filter(Set.of(ChangeLogEntry.EntityType.ENGINEER), null, null).matches(house)).isFalse();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, 5L, null).matches(house)).isTrue();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, 6L, null).matches(house)).isFalse();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, 3L, 4L).matches(house)).isTrue();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, 3L, 9L).matches(house)).isFalse();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, 3L, null).matches(engineer)).isTrue();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, 7L, null).matches(engineer)).isFalse();
+        Assertions.assertThat(new ChangeEventHub.Filter(null, null, 3L).matches(engineer)).isFalse();
+    }
+
+    @Test
+    @DisplayName("a subscriber that falls behind is dropped while the others keep their subscription")
+    void publish_DropsSubscriber_WhenItsBufferIsFull(){
+        SseEmitter slow = changeEventHub.subscribe(ChangeEventHub.Filter.ALL);
+        SseEmitter engineersOnly = changeEventHub.subscribe(new ChangeEventHub.Filter(Set.of(ChangeLogEntry.EntityType.ENGINEER), null, null));
+
+        // Sending locks the emitter, so holding its lock stalls the sender like a client that stopped reading. The
+        // stalled sender takes at most one event out of the one event buffer, so the third event drops the subscriber.
+        synchronized (slow){
+            changeEventHub.publish(houseEvent(1L));
+            changeEventHub.publish(houseEvent(2L));
+            changeEventHub.publish(houseEvent(3L));
+
+            Assertions.assertThat(changeEventHub.subscriberCount()).isEqualTo(1);
+        }
+        Assertions.assertThat(engineersOnly).isNotNull();
+        Assertions.assertThat(meterRegistry.get("changes.events.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a subscriber only receives the changes after the end of the feed when it subscribed")
+    void publish_SkipsChangesBeforeSubscription_WhenSuccessful(){
+        BDDMockito.when(changeLogSequencerMock.sequenceAll()).thenReturn(3L);
+        SseEmitter subscriber = changeEventHub.subscribe(ChangeEventHub.Filter.ALL);
+
+        // The stalled sender would drop the subscriber on the third event it is given, as above.
+        synchronized (subscriber){
+            changeEventHub.publish(houseEvent(1L));
+            changeEventHub.publish(houseEvent(2L));
+            changeEventHub.publish(houseEvent(3L));
+
+            Assertions.assertThat(changeEventHub.subscriberCount()).isEqualTo(1);
+        }
+        Assertions.assertThat(meterRegistry.get("changes.events.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("poll publishes each committed change once, whichever instance committed it")
+    void poll_PublishesEachCommittedChangeOnce(){
+        SseEmitter subscriber = changeEventHub.subscribe(ChangeEventHub.Filter.ALL);
+        BDDMockito.when(changeLogMock.changesAfter(0L, ChangeEventHub.CHANGES_PER_POLL))
+                .thenReturn(List.of(entry(1L), entry(2L), entry(3L)));
+
+        // The subscriber buffer holds one event and the stalled sender takes at most one more, so the third change drops it.
+        synchronized (subscriber){
+            changeEventHub.poll();
+            changeEventHub.poll();
+        }
+
+        Mockito.verify(changeLogMock).changesAfter(0L, ChangeEventHub.CHANGES_PER_POLL);
+        Mockito.verify(changeLogMock).changesAfter(3L, ChangeEventHub.CHANGES_PER_POLL);
+        Assertions.assertThat(meterRegistry.get("changes.events.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("change events carry the engineers and architects a house had and has")
+    void of_CarriesCurrentAndPreviousRelatedIds(){
+        ChangeLogEntry moved = entry(3L);
+        moved.setEngineerId(5L);
+        moved.setPreviousEngineerId(3L);
+        moved.setArchitectId(4L);
+        moved.setPreviousArchitectId(4L);
+
+        Assertions.assertThat(ChangeEvent.of(moved)).isEqualTo(new ChangeEvent(3L, ChangeLogEntry.EntityType.HOUSE, 3L, ChangeLogEntry.Operation.UPSERT, Set.of(3L, 5L), Set.of(4L)));
+    }
+
+    @Test
+    @DisplayName("subscribe throws ServiceUnavailableException when the subscriber limit is reached")
+    void subscribe_ThrowsServiceUnavailableException_WhenLimitIsReached(){
+        changeEventHub.subscribe(ChangeEventHub.Filter.ALL);
+        changeEventHub.subscribe(ChangeEventHub.Filter.ALL);
+
+        Assertions.assertThatExceptionOfType(project.house.builders.exception.ServiceUnavailableException.class)
+                .isThrownBy(() -> changeEventHub.subscribe(ChangeEventHub.Filter.ALL));
+    }
+
+    private static ChangeLogEntry entry(long id){
+        return ChangeLogEntry.builder()
+                .id(id)
+                .entityType(ChangeLogEntry.EntityType.HOUSE)
+                .entityId(id)
+                .operation(ChangeLogEntry.Operation.UPSERT)
+                .changedAt(Instant.now())
+                .build();
+    }
+
+    private static ChangeEvent houseEvent(long sequence){
+        return new ChangeEvent(sequence, ChangeLogEntry.EntityType.HOUSE, sequence, ChangeLogEntry.Operation.UPSERT, Set.of(), Set.of());
+    }
+}
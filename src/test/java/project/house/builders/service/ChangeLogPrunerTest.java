@@ -0,0 +1,78 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogHeadRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@DisplayName("Tests for change log pruner")
+class ChangeLogPrunerTest {
+    private ChangeLogEntryRepository changeLogEntryRepositoryMock;
+    private ChangeLogHeadRepository changeLogHeadRepositoryMock;
+    private ChangeLogPruner changeLogPruner;
+
+    @BeforeEach
+    void setUp(){
+        changeLogEntryRepositoryMock = Mockito.mock(ChangeLogEntryRepository.class);
+        BDDMockito.when(changeLogEntryRepositoryMock.deleteByIdBetween(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyCollection()))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(0);
+                    long upTo = invocation.getArgument(1);
+                    Collection<Long> keep = invocation.getArgument(2);
+                    return (int) (upTo - after - keep.stream().filter(id -> id > after && id <= upTo).count());
+                });
+        changeLogHeadRepositoryMock = Mockito.mock(ChangeLogHeadRepository.class);
+        changeLogPruner = new ChangeLogPruner(changeLogEntryRepositoryMock, changeLogHeadRepositoryMock, Mockito.mock(PlatformTransactionManager.class),
+                Duration.ofDays(30), Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("prune raises the pruned watermark, then deletes the expired entries one range of ids at a time")
+    void prune_DeletesExpiredEntriesInRanges_WhenSuccessful(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findFirstId()).thenReturn(1L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastIdOfEachEntityType()).thenReturn(List.of(30_000L, 29_000L));
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastIdChangedBefore(ArgumentMatchers.any())).thenReturn(15_000L);
+
+        long deleted = changeLogPruner.prune();
+
+        Assertions.assertThat(deleted).isEqualTo(15_000L);
+        InOrder inOrder = Mockito.inOrder(changeLogHeadRepositoryMock, changeLogEntryRepositoryMock);
+        inOrder.verify(changeLogHeadRepositoryMock).raisePrunedUpTo(15_000L);
+        inOrder.verify(changeLogEntryRepositoryMock).deleteByIdBetween(0L, ChangeLogPruner.IDS_PER_DELETE, List.of(30_000L, 29_000L));
+        inOrder.verify(changeLogEntryRepositoryMock).deleteByIdBetween(ChangeLogPruner.IDS_PER_DELETE, 15_000L, List.of(30_000L, 29_000L));
+    }
+
+    @Test
+    @DisplayName("prune keeps the newest entry of each entity type even when every entry expired")
+    void prune_KeepsNewestEntryOfEachType_WhenEveryEntryExpired(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findFirstId()).thenReturn(1L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastIdOfEachEntityType()).thenReturn(List.of(20L, 4L));
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastIdChangedBefore(ArgumentMatchers.any())).thenReturn(20L);
+
+        Assertions.assertThat(changeLogPruner.prune()).isEqualTo(18L);
+        Mockito.verify(changeLogEntryRepositoryMock).deleteByIdBetween(0L, 20L, List.of(20L, 4L));
+    }
+
+    @Test
+    @DisplayName("prune deletes nothing when no entry expired")
+    void prune_DeletesNothing_WhenNoEntryExpired(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findFirstId()).thenReturn(1L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastIdOfEachEntityType()).thenReturn(List.of(20L));
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastIdChangedBefore(ArgumentMatchers.any())).thenReturn(0L);
+
+        Assertions.assertThat(changeLogPruner.prune()).isZero();
+        Mockito.verifyNoInteractions(changeLogHeadRepositoryMock);
+        Mockito.verify(changeLogEntryRepositoryMock, Mockito.never()).deleteByIdBetween(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyCollection());
+    }
+}
@@ -0,0 +1,95 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogHeadRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+@DisplayName("Tests for change log sequencer")
+class ChangeLogSequencerTest {
+    private ChangeLogEntryRepository changeLogEntryRepositoryMock;
+    private ChangeLogHeadRepository changeLogHeadRepositoryMock;
+    private ChangeLogSequencer changeLogSequencer;
+
+    @BeforeEach
+    void setUp(){
+        changeLogEntryRepositoryMock = Mockito.mock(ChangeLogEntryRepository.class);
+        changeLogHeadRepositoryMock = Mockito.mock(ChangeLogHeadRepository.class);
+        changeLogSequencer = new ChangeLogSequencer(changeLogEntryRepositoryMock, changeLogHeadRepositoryMock,
+                Mockito.mock(PlatformTransactionManager.class), Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("sequence gives the committed entries the positions after the locked head, in row id order, and moves the head past them")
+    void sequence_GivesPositionsAfterHead_WhenEntriesAreCommitted(){
+        BDDMockito.when(changeLogHeadRepositoryMock.lockLastId()).thenReturn(40L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findUnsequencedEntryIds(ArgumentMatchers.any())).thenReturn(List.of(105L, 107L, 230L));
+
+        Assertions.assertThat(changeLogSequencer.sequence()).isEqualTo(3);
+
+        InOrder inOrder = Mockito.inOrder(changeLogHeadRepositoryMock, changeLogEntryRepositoryMock);
+        inOrder.verify(changeLogHeadRepositoryMock).lockLastId();
+        inOrder.verify(changeLogEntryRepositoryMock).sequence(105L, 230L, -64L);
+        inOrder.verify(changeLogHeadRepositoryMock).advance(126L);
+    }
+
+    @Test
+    @DisplayName("sequence leaves the head alone when every committed entry has a position")
+    void sequence_LeavesHead_WhenNothingToSequence(){
+        BDDMockito.when(changeLogHeadRepositoryMock.lockLastId()).thenReturn(40L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findUnsequencedEntryIds(ArgumentMatchers.any())).thenReturn(List.of());
+
+        Assertions.assertThat(changeLogSequencer.sequence()).isZero();
+        Mockito.verify(changeLogEntryRepositoryMock, Mockito.never()).sequence(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+        Mockito.verify(changeLogHeadRepositoryMock, Mockito.never()).advance(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("sequenceAll sequences until a pass comes back short and returns the head")
+    void sequenceAll_ReturnsHead_WhenEveryCommittedEntryIsSequenced(){
+        List<Long> fullPass = LongStream.rangeClosed(1, ChangeLogSequencer.ENTRIES_PER_PASS).boxed().toList();
+        BDDMockito.when(changeLogHeadRepositoryMock.lockLastId()).thenReturn(0L, (long) ChangeLogSequencer.ENTRIES_PER_PASS);
+        BDDMockito.when(changeLogEntryRepositoryMock.findUnsequencedEntryIds(ArgumentMatchers.any())).thenReturn(fullPass, List.of(1_001L));
+        BDDMockito.when(changeLogHeadRepositoryMock.findLastId()).thenReturn(1_001L);
+
+        Assertions.assertThat(changeLogSequencer.sequenceAll()).isEqualTo(1_001L);
+        Mockito.verify(changeLogHeadRepositoryMock, Mockito.times(2)).lockLastId();
+        Mockito.verify(changeLogEntryRepositoryMock).sequence(1_001L, 1_001L, 0L);
+    }
+
+    @Test
+    @DisplayName("sequenceExisting keeps the row ids of a change log written before positions, and moves the head past them")
+    void sequenceExisting_KeepsRowIds_WhenNoEntryHasAPosition(){
+        BDDMockito.when(changeLogHeadRepositoryMock.lockLastId()).thenReturn(0L);
+        BDDMockito.when(changeLogEntryRepositoryMock.existsByIdNotNull()).thenReturn(false);
+        BDDMockito.when(changeLogEntryRepositoryMock.findLastEntryId()).thenReturn(500L);
+
+        changeLogSequencer.sequenceExisting();
+
+        Mockito.verify(changeLogEntryRepositoryMock).sequenceAsEntryIds();
+        Mockito.verify(changeLogHeadRepositoryMock).advance(500L);
+    }
+
+    @Test
+    @DisplayName("sequenceExisting does nothing once an entry has a position")
+    void sequenceExisting_DoesNothing_WhenEntriesHavePositions(){
+        BDDMockito.when(changeLogHeadRepositoryMock.lockLastId()).thenReturn(40L);
+        BDDMockito.when(changeLogEntryRepositoryMock.existsByIdNotNull()).thenReturn(true);
+
+        changeLogSequencer.sequenceExisting();
+
+        Mockito.verify(changeLogEntryRepositoryMock, Mockito.never()).sequenceAsEntryIds();
+        Mockito.verify(changeLogHeadRepositoryMock, Mockito.never()).advance(ArgumentMatchers.anyLong());
+    }
+}
@@ -0,0 +1,160 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import jakarta.persistence.EntityManager;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.domain.Engineer;
+import project.house.builders.domain.House;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ChangeLogEntryRepository;
+import project.house.builders.repository.ChangeLogHeadRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@DisplayName("Tests for change log")
+class ChangeLogTest {
+    private ChangeLogEntryRepository changeLogEntryRepositoryMock;
+    private EntityManager entityManagerMock;
+    private PaginationService paginationService;
+    private ChangeLogHeadRepository changeLogHeadRepositoryMock;
+    private ChangeLog changeLog;
+
+    @BeforeEach
+    void setUp(){
+        changeLogEntryRepositoryMock = Mockito.mock(ChangeLogEntryRepository.class);
+        changeLogHeadRepositoryMock = Mockito.mock(ChangeLogHeadRepository.class);
+        entityManagerMock = Mockito.mock(EntityManager.class);
+        paginationService = new PaginationService(50, 200, Duration.ofSeconds(30));
+        changeLog = new ChangeLog(changeLogEntryRepositoryMock, changeLogHeadRepositoryMock, entityManagerMock,
+                Mockito.mock(PlatformTransactionManager.class), paginationService);
+    }
+
+    @Test
+    @DisplayName("changes made in a transaction are written before it commits without a position, keeping the last change of each entity")
+    void upserted_WritesLastChangeOfEachEntityBeforeCommit_WhenTransactionIsActive(){
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changeLog.upserted(House.class, List.of(1L, 2L));
+            changeLog.upserted(Engineer.class, List.of(1L));
+            changeLog.deleted(House.class, List.of(1L));
+
+            Mockito.verifyNoInteractions(entityManagerMock);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ArgumentCaptor<ChangeLogEntry> entries = ArgumentCaptor.forClass(ChangeLogEntry.class);
+        Mockito.verify(entityManagerMock, Mockito.times(3)).persist(entries.capture());
+        Assertions.assertThat(entries.getAllValues())
+                .extracting(ChangeLogEntry::getId, ChangeLogEntry::getEntityType, ChangeLogEntry::getEntityId, ChangeLogEntry::getOperation)
+                .containsExactly(
+                        Assertions.tuple(null, ChangeLogEntry.EntityType.HOUSE, 2L, ChangeLogEntry.Operation.UPSERT),
+                        Assertions.tuple(null, ChangeLogEntry.EntityType.ENGINEER, 1L, ChangeLogEntry.Operation.UPSERT),
+                        Assertions.tuple(null, ChangeLogEntry.EntityType.HOUSE, 1L, ChangeLogEntry.Operation.DELETE));
+        Mockito.verifyNoInteractions(changeLogHeadRepositoryMock);
+        Assertions.assertThat(TransactionSynchronizationManager.hasResource(changeLog)).isFalse();
+    }
+
+    @Test
+    @DisplayName("changes made without a transaction are written right away")
+    void upserted_WritesRightAway_WhenNoTransactionIsActive(){
+        changeLog.upserted(Engineer.class, List.of(5L));
+
+        Mockito.verify(entityManagerMock).persist(ArgumentMatchers.argThat((ChangeLogEntry entry) -> entry.getEntityId() == 5L && entry.getChangedAt() != null));
+    }
+
+    @Test
+    @DisplayName("the changes of a house are written with the engineer and architect it had and has")
+    void housesUpserted_WritesRelatedIds_WhenHouseMoved(){
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changeLog.housesUpserted(List.of(HouseChange.of(1L, 3L, 4L)));
+            changeLog.housesUpserted(List.of(HouseChange.of(1L, 5L, 4L)));
+            changeLog.upserted(Engineer.class, List.of(5L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ArgumentCaptor<ChangeLogEntry> entries = ArgumentCaptor.forClass(ChangeLogEntry.class);
+        Mockito.verify(entityManagerMock, Mockito.times(2)).persist(entries.capture());
+        Assertions.assertThat(entries.getAllValues())
+                .extracting(ChangeLogEntry::getEngineerId, ChangeLogEntry::getArchitectId, ChangeLogEntry::getPreviousEngineerId, ChangeLogEntry::getPreviousArchitectId)
+                .containsExactly(Assertions.tuple(5L, 4L, 3L, 4L), Assertions.tuple(null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("changesSince returns the changes after the cursor and the cursor of the last change returned")
+    void changesSince_ReturnsChangesAndLastCursor_WhenSuccessful(){
+        List<ChangeLogEntry> entries = List.of(entry(6L), entry(7L));
+        BDDMockito.when(changeLogEntryRepositoryMock.findByIdGreaterThan(ArgumentMatchers.eq(5L), ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(entries));
+
+        ResultPage<ChangeLogEntry> result = changeLog.changesSince(paginationService.encodeCursor(5L), null);
+
+        Assertions.assertThat(result.content()).extracting(ChangeLogEntry::getId).containsExactly(6L, 7L);
+        Assertions.assertThat(paginationService.decodeCursor(result.nextCursor())).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("changesSince throws BadRequestException when the cursor is below the pruned watermark, even when the next entry was kept")
+    void changesSince_ThrowsBadRequestException_WhenCursorIsRightBelowKeptEntry(){
+        BDDMockito.when(changeLogHeadRepositoryMock.findPrunedUpTo()).thenReturn(9L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findByIdGreaterThan(ArgumentMatchers.eq(8L), ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(List.of(entry(9L), entry(10L))));
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> changeLog.changesSince(paginationService.encodeCursor(8L), null));
+    }
+
+    @Test
+    @DisplayName("changesSince returns the changes when the cursor is at the pruned watermark, even after a gap")
+    void changesSince_ReturnsChanges_WhenCursorIsAtPrunedWatermark(){
+        BDDMockito.when(changeLogHeadRepositoryMock.findPrunedUpTo()).thenReturn(9L);
+        BDDMockito.when(changeLogEntryRepositoryMock.findByIdGreaterThan(ArgumentMatchers.eq(9L), ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(List.of(entry(14L))));
+
+        Assertions.assertThat(changeLog.changesSince(paginationService.encodeCursor(9L), null).content())
+                .extracting(ChangeLogEntry::getId)
+                .containsExactly(14L);
+    }
+
+    @Test
+    @DisplayName("changesSince returns the same cursor when nothing changed")
+    void changesSince_ReturnsSameCursor_WhenNothingChanged(){
+        BDDMockito.when(changeLogEntryRepositoryMock.findByIdGreaterThan(ArgumentMatchers.eq(5L), ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        ResultPage<ChangeLogEntry> result = changeLog.changesSince(paginationService.encodeCursor(5L), null);
+
+        Assertions.assertThat(result.content()).isEmpty();
+        Assertions.assertThat(paginationService.decodeCursor(result.nextCursor())).isEqualTo(5L);
+    }
+
+    private static ChangeLogEntry entry(long id){
+        return ChangeLogEntry.builder()
+                .id(id)
+                .entityType(ChangeLogEntry.EntityType.HOUSE)
+                .entityId(id)
+                .operation(ChangeLogEntry.Operation.UPSERT)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.domain.Engineer;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.requests.EngineerUpsertRequestBody;
+import project.house.builders.responses.UpsertResult;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+@DisplayName("Tests for engineer bulk service")
+class EngineerBulkServiceTest {
+    private EngineerRepository engineerRepositoryMock;
+    private EngineerBulkService engineerBulkService;
+
+    @BeforeEach
+    void setUp(){
+        engineerRepositoryMock = Mockito.mock(EngineerRepository.class);
+        engineerBulkService = new EngineerBulkService(engineerRepositoryMock, new PaginationService(50, 200, Duration.ofSeconds(30)), Mockito.mock(ChangeLog.class), 3);
+    }
+
+    @Test
+    @DisplayName("upsertAll inserts new engineers, renames changed ones and skips the rest when successful")
+    void upsertAll_InsertsUpdatesAndSkips_WhenSuccessful(){
+        Engineer renamed = Engineer.builder().id(1L).externalId("HR-1").name("Old name").build();
+        Engineer unchanged = Engineer.builder().id(2L).externalId("HR-2").name("Same name").build();
+        BDDMockito.when(engineerRepositoryMock.findByExternalIdIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(renamed, unchanged));
+
+        UpsertResult result = engineerBulkService.upsertAll(List.of(
+                new EngineerUpsertRequestBody("HR-1", "New name"),
+                new EngineerUpsertRequestBody("HR-2", "Same name"),
+                new EngineerUpsertRequestBody("HR-3", "Newcomer")));
+
+        Assertions.assertThat(result).isEqualTo(new UpsertResult(1, 1, 1));
+        Assertions.assertThat(renamed.getName()).isEqualTo("New name");
+        Mockito.verify(engineerRepositoryMock).findByExternalIdIn(List.of("HR-1", "HR-2", "HR-3"));
+        Mockito.verify(engineerRepositoryMock).saveAll(ArgumentMatchers.<List<Engineer>>argThat(engineers ->
+                engineers.size() == 1 && engineers.get(0).getExternalId().equals("HR-3")));
+    }
+
+    @Test
+    @DisplayName("upsertAll writes nothing when every engineer is up to date")
+    void upsertAll_WritesNothing_WhenEveryEngineerIsUpToDate(){
+        BDDMockito.when(engineerRepositoryMock.findByExternalIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(Engineer.builder().id(1L).externalId("HR-1").name("Same name").build()));
+
+        UpsertResult result = engineerBulkService.upsertAll(List.of(new EngineerUpsertRequestBody("HR-1", "Same name")));
+
+        Assertions.assertThat(result).isEqualTo(new UpsertResult(0, 0, 1));
+        Mockito.verify(engineerRepositoryMock, Mockito.never()).saveAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("upsertAll throws BadRequestException when an external id is missing or repeated")
+    void upsertAll_ThrowsBadRequestException_WhenExternalIdIsMissingOrRepeated(){
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> engineerBulkService.upsertAll(List.of(new EngineerUpsertRequestBody(" ", "Name"))));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> engineerBulkService.upsertAll(List.of(new EngineerUpsertRequestBody("HR-1", "Name"), new EngineerUpsertRequestBody("HR-1", "Other"))))
+                .withMessageContaining("HR-1");
+        Mockito.verifyNoInteractions(engineerRepositoryMock);
+    }
+
+    @Test
+    @DisplayName("upsertAll throws BadRequestException when the request is empty or too large")
+    void upsertAll_ThrowsBadRequestException_WhenRequestIsEmptyOrTooLarge(){
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> engineerBulkService.upsertAll(Collections.emptyList()));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> engineerBulkService.upsertAll(List.of(
+                        new EngineerUpsertRequestBody("HR-1", "A"), new EngineerUpsertRequestBody("HR-2", "B"),
+                        new EngineerUpsertRequestBody("HR-3", "C"), new EngineerUpsertRequestBody("HR-4", "D"))));
+    }
+}
@@ -1,5 +1,8 @@
 package project.house.builders.service;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,14 +11,23 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import project.house.builders.domain.Engineer;
 import project.house.builders.exception.BadRequestException;
 import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.EngineerResponse;
+import project.house.builders.responses.HouseResponse;
 import project.house.builders.util.EngineerCreator;
 import project.house.builders.util.EngineerPostRequestBodyCreator;
 import project.house.builders.util.EngineerPutRequestBodyCreator;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -30,12 +42,30 @@ public class EngineerServiceTest {
     @Mock
     private EngineerRepository engineerRepositoryMock;
 
+    @Mock
+    private HouseRepository houseRepositoryMock;
+
+    @Spy
+    private PaginationService paginationService = new PaginationService(50, 200, Duration.ofSeconds(30));
+
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
 
     @BeforeEach
     void setUp() {
         List<Engineer> engineerList = new ArrayList<>(List.of(EngineerCreator.createValidEngineer()));
 
-        BDDMockito.when(engineerRepositoryMock.findAll()).thenReturn(engineerList);
+        List<EngineerResponse> engineerResponseList = new ArrayList<>(List.of(EngineerCreator.createValidEngineerResponse()));
+
+        BDDMockito.when(engineerRepositoryMock.findResponsesByIdGreaterThan(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Pageable.class))).thenReturn(new SliceImpl<>(engineerResponseList));
+        BDDMockito.when(houseRepositoryMock.findResponsesByEngineerIdIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(new HouseResponse(1L, "TestProject", 1L, null)));
+        BDDMockito.when(engineerRepositoryMock.findResponseById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(EngineerCreator.createValidEngineerResponse()));
+        BDDMockito.when(engineerRepositoryMock.findResponsesByName(ArgumentMatchers.anyString())).thenReturn(engineerResponseList);
         BDDMockito.when(engineerRepositoryMock.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(EngineerCreator.createValidEngineer()));
         BDDMockito.when(engineerRepositoryMock.findByName(ArgumentMatchers.anyString())).thenReturn(engineerList);
         BDDMockito.when(engineerRepositoryMock.save(ArgumentMatchers.any(Engineer.class))).thenReturn(EngineerCreator.createValidEngineer());
@@ -46,27 +76,27 @@ public class EngineerServiceTest {
     @DisplayName("listAll returns list of engineers when successful")
     void listAll_ReturnsListOfEngineer_WhenSuccessful() {
         String expectedName = EngineerCreator.createValidEngineer().getName();
-        List<Engineer> engineerList = engineerService.listAll();
+        List<EngineerResponse> engineerList = engineerService.listAll(null, null, null).content();
 
         org.assertj.core.api.Assertions.assertThat(engineerList).isNotNull();
         org.assertj.core.api.Assertions.assertThat(engineerList).isNotEmpty().hasSize(1);
-        org.assertj.core.api.Assertions.assertThat(engineerList.get(0).getName()).isEqualTo(expectedName);
+        org.assertj.core.api.Assertions.assertThat(engineerList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("findByIdOrThrowBadRequestException returns engineer when successful")
     void findByIdOrThrowBadRequestException_ReturnsEngineer_WhenSuccessful() {
         Long expectedId = EngineerCreator.createValidEngineer().getId();
-        Engineer engineer = engineerService.findByIdOrThrowBadRequestException(1);
+        EngineerResponse engineer = engineerService.findByIdOrThrowBadRequestException(1);
 
         org.assertj.core.api.Assertions.assertThat(engineer).isNotNull();
-        org.assertj.core.api.Assertions.assertThat(engineer.getId()).isEqualTo(expectedId);
+        org.assertj.core.api.Assertions.assertThat(engineer.id()).isEqualTo(expectedId);
     }
 
     @Test
     @DisplayName("findByIdOrThrowBadRequestException throws BadRequestException when engineer is not found")
     void findByIdOrThrowBadRequestException_ThrowsBadRequestException_WhenEngineerIsNotFound() {
-        BDDMockito.when(engineerRepositoryMock.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        BDDMockito.when(engineerRepositoryMock.findResponseById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
                 .isThrownBy(() -> engineerService.findByIdOrThrowBadRequestException(1))
@@ -77,19 +107,19 @@ public class EngineerServiceTest {
     @DisplayName("FindByName returns list of engineer when successful")
     void findByName_ReturnsListOfEngineer_WhenSuccessful() {
         String expectedName = EngineerCreator.createValidEngineer().getName();
-        List<Engineer> engineerList = engineerService.findByName("test");
+        List<EngineerResponse> engineerList = engineerService.findByName("test");
 
         org.assertj.core.api.Assertions.assertThat(engineerList).isNotNull();
         org.assertj.core.api.Assertions.assertThat(engineerList).isNotEmpty().hasSize(1);
-        org.assertj.core.api.Assertions.assertThat(engineerList.get(0).getName()).isEqualTo(expectedName);
+        org.assertj.core.api.Assertions.assertThat(engineerList.get(0).name()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("FindByName returns an empty list of engineer when engineer is not found")
     void findByName_ReturnsEmptyList_WhenEngineerIsNotFound() {
-        BDDMockito.when(engineerRepositoryMock.findByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
+        BDDMockito.when(engineerRepositoryMock.findResponsesByName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
 
-        List<Engineer> engineerList = engineerService.findByName("test");
+        List<EngineerResponse> engineerList = engineerService.findByName("test");
 
         org.assertj.core.api.Assertions.assertThat(engineerList).isNotNull().isEmpty();
     }
@@ -106,14 +136,45 @@ public class EngineerServiceTest {
     @Test
     @DisplayName("replace updates engineer when successful")
     void replace_UpdatesEngineer_WhenSuccessful() {
-        org.assertj.core.api.Assertions.assertThatCode(() -> engineerService.replace(EngineerPutRequestBodyCreator.createEngineerPutRequestBody()))
+        org.assertj.core.api.Assertions.assertThatCode(() -> engineerService.replace(EngineerPutRequestBodyCreator.createEngineerPutRequestBody(), null))
                 .doesNotThrowAnyException();
     }
 
     @Test
     @DisplayName("delete removes engineer when successful")
     void delete_RemovesEngineer_WhenSuccessful() {
-        org.assertj.core.api.Assertions.assertThatCode(() -> engineerService.delete(1))
+        org.assertj.core.api.Assertions.assertThatCode(() -> engineerService.delete(1, null))
                 .doesNotThrowAnyException();
     }
+
+    @Test
+    @DisplayName("listAll attaches the houses of each engineer from a single query")
+    void listAll_AttachesHousesOfEachEngineer_WhenSuccessful() {
+        List<EngineerResponse> engineerList = engineerService.listAll(null, null, null).content();
+
+        org.assertj.core.api.Assertions.assertThat(engineerList.get(0).houses()).extracting(HouseResponse::projectName).containsExactly("TestProject");
+        Mockito.verify(houseRepositoryMock, Mockito.times(1)).findResponsesByEngineerIdIn(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("patch changes the name of the loaded engineer when successful")
+    void patch_ChangesName_WhenSuccessful() {
+        Engineer engineer = EngineerCreator.createValidEngineer();
+        BDDMockito.when(engineerRepositoryMock.findById(1L)).thenReturn(Optional.of(engineer));
+
+        engineerService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("name", "Patched")), null);
+
+        org.assertj.core.api.Assertions.assertThat(engineer.getName()).isEqualTo("Patched");
+        Mockito.verify(engineerRepositoryMock, Mockito.never()).save(ArgumentMatchers.any(Engineer.class));
+    }
+
+    @Test
+    @DisplayName("patch throws BadRequestException when the name is cleared or an unknown field is sent")
+    void patch_ThrowsBadRequestException_WhenNameIsClearedOrFieldIsUnknown() {
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> engineerService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().putNull("name")), null));
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> engineerService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("id", 2)), null))
+                .withMessageContaining("id");
+    }
 }
@@ -0,0 +1,63 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.house.builders.exception.PreconditionFailedException;
+
+@DisplayName("Tests for entity version")
+class EntityVersionTest {
+
+    @Test
+    @DisplayName("eTag quotes the version")
+    void eTag_QuotesVersion(){
+        Assertions.assertThat(EntityVersion.eTag(3)).isEqualTo("\"3\"");
+    }
+
+    @Test
+    @DisplayName("checkIfMatch passes when the header is absent, a wildcard, or names the current version")
+    void checkIfMatch_Passes_WhenHeaderIsAbsentWildcardOrCurrent(){
+        Assertions.assertThatCode(() -> {
+            EntityVersion.checkIfMatch(null, 3);
+            EntityVersion.checkIfMatch("*", 3);
+            EntityVersion.checkIfMatch("\"3\"", 3);
+            EntityVersion.checkIfMatch("\"1\", \"3\"", 3);
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("checkIfMatch throws PreconditionFailedException when only a weak tag names the current version")
+    void checkIfMatch_ThrowsPreconditionFailedException_WhenTagIsWeak(){
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> EntityVersion.checkIfMatch("W/\"3\"", 3));
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> EntityVersion.checkIfMatch("\"1\", W/\"3\"", 3));
+    }
+
+    @Test
+    @DisplayName("checkIfMatch throws PreconditionFailedException when the header names another version")
+    void checkIfMatch_ThrowsPreconditionFailedException_WhenVersionIsStale(){
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> EntityVersion.checkIfMatch("\"2\"", 3));
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> EntityVersion.checkIfMatch("3", 3));
+    }
+
+    @Test
+    @DisplayName("checkIfMatch compares only the version of a tag that carries a change token")
+    void checkIfMatch_ComparesOnlyVersion_WhenTagCarriesToken(){
+        Assertions.assertThatCode(() -> EntityVersion.checkIfMatch(EntityVersion.eTag(3, "abc-7"), 3)).doesNotThrowAnyException();
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> EntityVersion.checkIfMatch(EntityVersion.eTag(2, "abc-7"), 3));
+    }
+
+    @Test
+    @DisplayName("matches accepts weak tags, lists and wildcards, and rejects other tags")
+    void matches_ComparesIfNoneMatchWithETag(){
+        Assertions.assertThat(EntityVersion.matches("\"3\"", "\"3\"")).isTrue();
+        Assertions.assertThat(EntityVersion.matches("\"1\", W/\"3\"", "\"3\"")).isTrue();
+        Assertions.assertThat(EntityVersion.matches("*", "\"3\"")).isTrue();
+        Assertions.assertThat(EntityVersion.matches("\"2\"", "\"3\"")).isFalse();
+        Assertions.assertThat(EntityVersion.matches(null, "\"3\"")).isFalse();
+    }
+}
@@ -0,0 +1,156 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.domain.House;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.repository.ArchitectRepository;
+import project.house.builders.repository.EngineerRepository;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.responses.AffectedRows;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.HouseResponse;
+import project.house.builders.util.ArchitectCreator;
+import project.house.builders.util.EngineerCreator;
+import project.house.builders.util.HousePostRequestBodyCreator;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("Tests for house bulk service")
+class HouseBulkServiceTest {
+    private HouseRepository houseRepositoryMock;
+    private EngineerRepository engineerRepositoryMock;
+    private ArchitectRepository architectRepositoryMock;
+    private ChangeLog changeLogMock;
+    private HouseBulkService houseBulkService;
+
+    @BeforeEach
+    void setUp(){
+        houseRepositoryMock = Mockito.mock(HouseRepository.class);
+        engineerRepositoryMock = Mockito.mock(EngineerRepository.class);
+        architectRepositoryMock = Mockito.mock(ArchitectRepository.class);
+        changeLogMock = Mockito.mock(ChangeLog.class);
+        houseBulkService = new HouseBulkService(houseRepositoryMock, engineerRepositoryMock, architectRepositoryMock,
+                new PaginationService(50, 200, Duration.ofSeconds(30)), changeLogMock, 3);
+
+        BDDMockito.when(engineerRepositoryMock.findAllById(ArgumentMatchers.any())).thenReturn(List.of(EngineerCreator.createValidEngineer()));
+        BDDMockito.when(architectRepositoryMock.findAllById(ArgumentMatchers.any())).thenReturn(List.of(ArchitectCreator.createValidArchitect()));
+        AtomicLong ids = new AtomicLong();
+        BDDMockito.when(houseRepositoryMock.saveAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<House> houses = invocation.getArgument(0);
+            houses.forEach(house -> house.setId(ids.incrementAndGet()));
+            return houses;
+        });
+    }
+
+    @Test
+    @DisplayName("saveAll loads each referenced parent type once and saves the valid houses when successful")
+    void saveAll_LoadsParentsOnceAndSavesValidHouses_WhenSuccessful(){
+        List<BulkItemResult> results = houseBulkService.saveAll(List.of(
+                HousePostRequestBodyCreator.createHousePostRequestBodyEngineerAndArchitect(),
+                HousePostRequestBodyCreator.createHousePostRequestBodyEngineerOnly(),
+                HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName()), false);
+
+        Assertions.assertThat(results).containsExactly(BulkItemResult.created(0, 1L), BulkItemResult.created(1, 2L), BulkItemResult.created(2, 3L));
+        Mockito.verify(engineerRepositoryMock).findAllById(List.of(1L));
+        Mockito.verify(architectRepositoryMock).findAllById(List.of(1L));
+        Mockito.verify(houseRepositoryMock).saveAll(ArgumentMatchers.argThat(houses -> houses.iterator().next().getEngineer() != null));
+    }
+
+    @Test
+    @DisplayName("saveAll rejects only the invalid items when the request is not atomic")
+    void saveAll_RejectsOnlyInvalidItems_WhenNotAtomic(){
+        HousePostRequestBody unknownEngineer = HousePostRequestBody.builder().projectName("House").engineerId(99L).build();
+        HousePostRequestBody withoutName = HousePostRequestBody.builder().architectId(1L).build();
+
+        List<BulkItemResult> results = houseBulkService.saveAll(List.of(
+                unknownEngineer, HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName(), withoutName), false);
+
+        Assertions.assertThat(results).containsExactly(
+                BulkItemResult.rejected(0, "Engineer not found"),
+                BulkItemResult.created(1, 1L),
+                BulkItemResult.rejected(2, "The house project must have a name or a nickname"));
+    }
+
+    @Test
+    @DisplayName("saveAll saves nothing when the request is atomic and an item is rejected")
+    void saveAll_SavesNothing_WhenAtomicAndItemIsRejected(){
+        HousePostRequestBody unknownArchitect = HousePostRequestBody.builder().projectName("House").architectId(99L).build();
+
+        List<BulkItemResult> results = houseBulkService.saveAll(List.of(
+                HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName(), unknownArchitect), true);
+
+        Assertions.assertThat(results).containsExactly(BulkItemResult.skipped(0), BulkItemResult.rejected(1, "Architect not found"));
+        Mockito.verify(houseRepositoryMock, Mockito.never()).saveAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("saveAll throws BadRequestException when the request is empty or too large")
+    void saveAll_ThrowsBadRequestException_WhenRequestIsEmptyOrTooLarge(){
+        HousePostRequestBody housePostRequestBody = HousePostRequestBodyCreator.createHousePostRequestBodyOnlyWithName();
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseBulkService.saveAll(Collections.emptyList(), false));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseBulkService.saveAll(Collections.nCopies(4, housePostRequestBody), false));
+    }
+
+    @Test
+    @DisplayName("reassignEngineer moves the locked houses to the other engineer, or unassigns them when there is none")
+    void reassignEngineer_MovesOrUnassignsHouses_WhenSuccessful(){
+        BDDMockito.when(engineerRepositoryMock.existsById(2L)).thenReturn(true);
+        BDDMockito.when(engineerRepositoryMock.getReferenceById(2L)).thenReturn(EngineerCreator.createValidEngineer());
+        BDDMockito.when(houseRepositoryMock.reassignEngineer(ArgumentMatchers.eq(List.of(5L)), ArgumentMatchers.any())).thenReturn(1);
+        BDDMockito.when(houseRepositoryMock.lockResponsesByEngineerId(1L)).thenReturn(List.of(new HouseResponse(5L, "Test", 1L, 7L, 0L)));
+
+        Assertions.assertThat(houseBulkService.reassignEngineer(1L, 2L)).isEqualTo(new AffectedRows(1));
+        Assertions.assertThat(houseBulkService.reassignEngineer(1L, null)).isEqualTo(new AffectedRows(1));
+        Mockito.verify(changeLogMock).housesUpserted(List.of(new HouseChange(5L, 2L, 7L, 1L, 7L)));
+        Mockito.verify(changeLogMock).housesUpserted(List.of(new HouseChange(5L, null, 7L, 1L, 7L)));
+        Mockito.verify(houseRepositoryMock).reassignEngineer(List.of(5L), null);
+    }
+
+    @Test
+    @DisplayName("reassignEngineer records and updates nothing when the engineer has no houses")
+    void reassignEngineer_DoesNothing_WhenEngineerHasNoHouses(){
+        BDDMockito.when(houseRepositoryMock.lockResponsesByEngineerId(1L)).thenReturn(List.of());
+
+        Assertions.assertThat(houseBulkService.reassignEngineer(1L, null)).isEqualTo(new AffectedRows(0));
+        Mockito.verifyNoInteractions(changeLogMock);
+        Mockito.verify(houseRepositoryMock, Mockito.never()).reassignEngineer(ArgumentMatchers.anyCollection(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("reassignArchitect throws BadRequestException and records nothing when the new architect does not exist")
+    void reassignArchitect_ThrowsBadRequestException_WhenArchitectDoesNotExist(){
+        BDDMockito.when(architectRepositoryMock.existsById(2L)).thenReturn(false);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseBulkService.reassignArchitect(1L, 2L))
+                .withMessageContaining("Architect not found");
+        Mockito.verify(houseRepositoryMock, Mockito.never()).lockResponsesByArchitectId(ArgumentMatchers.anyLong());
+        Mockito.verify(houseRepositoryMock, Mockito.never()).reassignArchitect(ArgumentMatchers.anyCollection(), ArgumentMatchers.any());
+        Mockito.verifyNoInteractions(changeLogMock);
+    }
+
+    @Test
+    @DisplayName("deleteAll deletes the houses in one statement and rejects requests over the limit")
+    void deleteAll_DeletesInOneStatement_AndRejectsRequestsOverLimit(){
+        BDDMockito.when(houseRepositoryMock.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(2);
+        BDDMockito.when(houseRepositoryMock.findResponsesByIdIn(List.of(1L, 2L))).thenReturn(List.of(new HouseResponse(1L, "Test", 3L, null, 0L)));
+
+        Assertions.assertThat(houseBulkService.deleteAll(List.of(1L, 2L))).isEqualTo(new AffectedRows(2));
+        Mockito.verify(changeLogMock).housesDeleted(List.of(HouseChange.of(1L, 3L, null)));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseBulkService.deleteAll(List.of(1L, 2L, 3L, 4L)));
+    }
+}
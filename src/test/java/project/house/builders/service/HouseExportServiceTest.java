@@ -0,0 +1,74 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.repository.HouseRepository;
+import project.house.builders.responses.HouseResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+@DisplayName("Tests for house export service")
+class HouseExportServiceTest {
+    private HouseRepository houseRepositoryMock;
+    private HouseExportService houseExportService;
+
+    @BeforeEach
+    void setUp(){
+        houseRepositoryMock = Mockito.mock(HouseRepository.class);
+        houseExportService = new HouseExportService(houseRepositoryMock, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("exportTo writes one JSON object per line when successful")
+    void exportTo_WritesOneLinePerHouse_WhenSuccessful() throws IOException {
+        HouseResponse first = new HouseResponse(1L, "First", 5L, null);
+        HouseResponse second = new HouseResponse(2L, "Second", null, null);
+        BDDMockito.when(houseRepositoryMock.streamAllForExport()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long exported = houseExportService.exportTo(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertThat(exported).isEqualTo(2);
+        Assertions.assertThat(lines).hasSize(2);
+        Assertions.assertThat(lines[0]).contains("\"projectName\":\"First\"").contains("\"engineer\":5");
+        Assertions.assertThat(lines[1]).contains("\"projectName\":\"Second\"");
+    }
+
+    @Test
+    @DisplayName("exportTo does not flush the output after every house")
+    void exportTo_DoesNotFlushAfterEveryHouse_WhenSuccessful() throws IOException {
+        BDDMockito.when(houseRepositoryMock.streamAllForExport())
+                .thenReturn(Stream.of(new HouseResponse(1L, "First", null, null), new HouseResponse(2L, "Second", null, null)));
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush(){
+                flushes.incrementAndGet();
+            }
+        };
+
+        houseExportService.exportTo(outputStream);
+
+        Assertions.assertThat(flushes).hasValueLessThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("exportTo writes nothing when there are no houses")
+    void exportTo_WritesNothing_WhenThereAreNoHouses() throws IOException {
+        BDDMockito.when(houseRepositoryMock.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        Assertions.assertThat(houseExportService.exportTo(outputStream)).isZero();
+        Assertions.assertThat(outputStream.size()).isZero();
+    }
+}
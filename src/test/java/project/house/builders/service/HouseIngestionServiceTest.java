@@ -0,0 +1,99 @@
+package project.house.builders.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.exception.BadRequestException;
+import project.house.builders.exception.ServiceUnavailableException;
+import project.house.builders.requests.HousePostRequestBody;
+import project.house.builders.responses.BulkItemResult;
+import project.house.builders.responses.IngestionTicket;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@DisplayName("Tests for house ingestion service")
+class HouseIngestionServiceTest {
+    private HouseBulkService houseBulkServiceMock;
+    private SimpleMeterRegistry meterRegistry;
+    private HouseIngestionService houseIngestionService;
+
+    @BeforeEach
+    void setUp(){
+        houseBulkServiceMock = Mockito.mock(HouseBulkService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        houseIngestionService = new HouseIngestionService(houseBulkServiceMock, meterRegistry, 2, 10,
+                Duration.ofMillis(10), Duration.ofMinutes(1), 100, Duration.ofSeconds(3));
+        BDDMockito.when(houseBulkServiceMock.saveAll(ArgumentMatchers.anyList(), ArgumentMatchers.eq(false))).thenAnswer(invocation -> {
+            List<HousePostRequestBody> bodies = invocation.getArgument(0);
+            return IntStream.range(0, bodies.size())
+                    .mapToObj(i -> bodies.get(i).getProjectName().isEmpty()
+                            ? BulkItemResult.rejected(i, "The house project must have a name or a nickname")
+                            : BulkItemResult.created(i, 100L + i))
+                    .toList();
+        });
+    }
+
+    @Test
+    @DisplayName("drain writes the queued houses in one batch and records the outcome of each ticket")
+    void drain_WritesQueuedHousesInOneBatch_WhenSuccessful() throws InterruptedException {
+        IngestionTicket created = houseIngestionService.submit(house("First"));
+        IngestionTicket rejected = houseIngestionService.submit(house(""));
+
+        Assertions.assertThat(created.status()).isEqualTo(IngestionTicket.Status.QUEUED);
+        Assertions.assertThat(meterRegistry.get("houses.ingestion.queue.depth").gauge().value()).isEqualTo(2);
+
+        Assertions.assertThat(houseIngestionService.drain()).isEqualTo(2);
+
+        Mockito.verify(houseBulkServiceMock, Mockito.times(1)).saveAll(ArgumentMatchers.anyList(), ArgumentMatchers.eq(false));
+        Assertions.assertThat(houseIngestionService.findTicketOrThrowBadRequestException(created.ticket()))
+                .isEqualTo(IngestionTicket.created(created.ticket(), 100L));
+        Assertions.assertThat(houseIngestionService.findTicketOrThrowBadRequestException(rejected.ticket()).status())
+                .isEqualTo(IngestionTicket.Status.REJECTED);
+        Assertions.assertThat(meterRegistry.get("houses.ingestion.flush.latency").timer().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("houses.ingestion.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("submit throws ServiceUnavailableException when the queue is full")
+    void submit_ThrowsServiceUnavailableException_WhenQueueIsFull(){
+        houseIngestionService.submit(house("First"));
+        houseIngestionService.submit(house("Second"));
+
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> houseIngestionService.submit(house("Third")))
+                .satisfies(exception -> Assertions.assertThat(exception.getRetryAfterSeconds()).isEqualTo(3));
+        Assertions.assertThat(meterRegistry.get("houses.ingestion.refused").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("drain writes each house alone when the batch fails, so only the failing house is rejected")
+    void drain_WritesEachHouseAlone_WhenBatchFails() throws InterruptedException {
+        BDDMockito.when(houseBulkServiceMock.saveAll(ArgumentMatchers.argThat(bodies -> bodies.size() > 1 || bodies.get(0).getProjectName().equals("Broken")), ArgumentMatchers.eq(false)))
+                .thenThrow(new IllegalStateException("Constraint violated"));
+        IngestionTicket broken = houseIngestionService.submit(house("Broken"));
+        IngestionTicket fine = houseIngestionService.submit(house("Fine"));
+
+        houseIngestionService.drain();
+
+        Assertions.assertThat(houseIngestionService.findTicketOrThrowBadRequestException(broken.ticket()).status()).isEqualTo(IngestionTicket.Status.REJECTED);
+        Assertions.assertThat(houseIngestionService.findTicketOrThrowBadRequestException(fine.ticket()).status()).isEqualTo(IngestionTicket.Status.CREATED);
+    }
+
+    @Test
+    @DisplayName("findTicketOrThrowBadRequestException throws BadRequestException when the ticket is unknown")
+    void findTicketOrThrowBadRequestException_ThrowsBadRequestException_WhenTicketIsUnknown(){
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseIngestionService.findTicketOrThrowBadRequestException("unknown"));
+    }
+
+    private static HousePostRequestBody house(String projectName){
+        return HousePostRequestBody.builder().projectName(projectName).build();
+    }
+}
@@ -1,12 +1,17 @@
 package project.house.builders.service;
 
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import project.house.builders.domain.Architect;
 import project.house.builders.domain.Engineer;
@@ -16,10 +21,13 @@ import project.house.builders.repository.ArchitectRepository;
 import project.house.builders.repository.EngineerRepository;
 import project.house.builders.repository.HouseRepository;
 import project.house.builders.requests.HousePutRequestBody;
+import project.house.builders.requests.MergePatch;
+import project.house.builders.responses.HouseResponse;
 import project.house.builders.util.HouseCreator;
 import project.house.builders.util.HousePostRequestBodyCreator;
 import project.house.builders.util.HousePutRequestBodyCreator;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +42,16 @@ public class HouseServiceTest {
     @Mock
     private HouseRepository houseRepositoryMock;
 
+    @Spy
+    private PaginationService paginationService = new PaginationService(50, 200, Duration.ofSeconds(30));
+
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @Mock
     private EngineerRepository engineerRepository;
 
@@ -50,7 +68,11 @@ public class HouseServiceTest {
     void setUp(){
         List<House> houseList = new ArrayList<>(List.of(HouseCreator.createValidHouse()));
 
-        BDDMockito.when(houseRepositoryMock.findAll()).thenReturn(houseList);
+        List<HouseResponse> houseResponseList = new ArrayList<>(List.of(HouseCreator.createValidHouseResponse()));
+
+        BDDMockito.when(houseRepositoryMock.findResponsesByIdGreaterThan(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Pageable.class))).thenReturn(new SliceImpl<>(houseResponseList));
+        BDDMockito.when(houseRepositoryMock.findResponseById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(HouseCreator.createValidHouseResponse()));
+        BDDMockito.when(houseRepositoryMock.findResponsesByProjectName(ArgumentMatchers.anyString())).thenReturn(houseResponseList);
         BDDMockito.when(houseRepositoryMock.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(HouseCreator.createValidHouse()));
         BDDMockito.when(houseRepositoryMock.findByProjectName(ArgumentMatchers.anyString())).thenReturn(houseList);
         BDDMockito.when(houseRepositoryMock.save(ArgumentMatchers.any(House.class))).thenReturn(HouseCreator.createValidHouse());
@@ -70,20 +92,33 @@ public class HouseServiceTest {
         Architect existingArchitect = Architect.builder().name("Existing Architect").id(1L).houses(new ArrayList<>()).build();
 
 
-        Mockito.when(engineerRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(existingEngineer));
-        Mockito.when(architectRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(existingArchitect));
+        Mockito.when(engineerRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(engineerRepository.getReferenceById(1L)).thenReturn(existingEngineer);
+        Mockito.when(architectRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(architectRepository.getReferenceById(1L)).thenReturn(existingArchitect);
 
         House savedHouse = houseService.save(HousePostRequestBodyCreator.createHousePostRequestBodyEngineerAndArchitect());
 
-        Mockito.verify(engineerRepository, Mockito.times(1)).findById(1L);
-
         Assertions.assertNotNull(savedHouse.getId());
         Assertions.assertEquals("TestProject", savedHouse.getProjectName());
+        Assertions.assertEquals(savedHouse.getEngineer(), existingEngineer);
+        Assertions.assertEquals(savedHouse.getArchitect(), existingArchitect);
+
+        Assertions.assertTrue(existingEngineer.getHouses().isEmpty());
+        Mockito.verify(engineerRepository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+        Mockito.verify(engineerRepository, Mockito.never()).save(ArgumentMatchers.any(Engineer.class));
+        Mockito.verify(architectRepository, Mockito.never()).save(ArgumentMatchers.any(Architect.class));
+    }
 
-        Mockito.verify(engineerRepository, Mockito.times(1)).findById(1L);
+    @Test
+    @DisplayName("save throws BadRequestException and saves nothing when the engineer does not exist")
+    void save_ThrowsBadRequestException_WhenEngineerDoesNotExist(){
+        Mockito.when(engineerRepository.existsById(1L)).thenReturn(false);
 
-        Assertions.assertTrue(existingEngineer.getHouses().contains(savedHouse));
-        Assertions.assertEquals(savedHouse.getEngineer(), existingEngineer);
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseService.save(HousePostRequestBodyCreator.createHousePostRequestBodyEngineerOnly()))
+                .withMessageContaining("Engineer not found");
+        Mockito.verify(houseRepositoryMock, Mockito.never()).save(ArgumentMatchers.any(House.class));
     }
 
     @Test
@@ -108,14 +143,15 @@ public class HouseServiceTest {
                 .build();
 
         Mockito.when(houseRepositoryMock.findById(houseId)).thenReturn(Optional.of(existingHouse));
-        Mockito.when(houseRepositoryMock.save(Mockito.any(House.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(houseRepositoryMock.saveAndFlush(Mockito.any(House.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        houseService.replace(requestBody);
+        houseService.replace(requestBody, null);
 
         // Then
         ArgumentCaptor<House> houseCaptor = ArgumentCaptor.forClass(House.class);
-        Mockito.verify(houseRepositoryMock).save(houseCaptor.capture());
+        Mockito.verify(houseRepositoryMock).saveAndFlush(houseCaptor.capture());
         House updatedHouse = houseCaptor.getValue();
+        Assertions.assertSame(existingHouse, updatedHouse);
         Assertions.assertEquals(requestBody.getId(), updatedHouse.getId());
         Assertions.assertEquals(requestBody.getProjectName(), updatedHouse.getProjectName());
     }
@@ -125,27 +161,27 @@ public class HouseServiceTest {
     @DisplayName("listAll returns list of houses when successful")
     void listAll_ReturnsListOfHouse_WhenSuccessful(){
         String expectedName = HouseCreator.createValidHouse().getProjectName();
-        List<House> houseList = houseService.listAll();
+        List<HouseResponse> houseList = houseService.listAll(null, null, null).content();
 
         org.assertj.core.api.Assertions.assertThat(houseList).isNotNull();
         org.assertj.core.api.Assertions.assertThat(houseList).isNotEmpty().hasSize(1);
-        org.assertj.core.api.Assertions.assertThat(houseList.get(0).getProjectName()).isEqualTo(expectedName);
+        org.assertj.core.api.Assertions.assertThat(houseList.get(0).projectName()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("findByIdOrThrowBadRequestException returns house when successful")
     void findByIdOrThrowBadRequestException_ReturnsHouse_WhenSuccessful(){
         Long expectedId = HouseCreator.createValidHouse().getId();
-        House house = houseService.findByIdOrThrowBadRequestException(1);
+        HouseResponse house = houseService.findByIdOrThrowBadRequestException(1);
 
         org.assertj.core.api.Assertions.assertThat(house).isNotNull();
-        org.assertj.core.api.Assertions.assertThat(house.getId()).isEqualTo(expectedId);
+        org.assertj.core.api.Assertions.assertThat(house.id()).isEqualTo(expectedId);
     }
 
     @Test
     @DisplayName("findByIdOrThrowBadRequestException throws BadRequestException when house is not found")
     void findByIdOrThrowBadRequestException_ThrowsBadRequestException_WhenHouseIsNotFound(){
-        BDDMockito.when(houseRepositoryMock.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        BDDMockito.when(houseRepositoryMock.findResponseById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
                 .isThrownBy(() -> houseService.findByIdOrThrowBadRequestException(1))
@@ -156,19 +192,19 @@ public class HouseServiceTest {
     @DisplayName("FindByName returns list of house when successful")
     void findByName_ReturnsListOfHouse_WhenSuccessful(){
         String expectedName = HouseCreator.createValidHouse().getProjectName();
-        List<House> houseList = houseService.findByName("test");
+        List<HouseResponse> houseList = houseService.findByName("test");
 
         org.assertj.core.api.Assertions.assertThat(houseList).isNotNull();
         org.assertj.core.api.Assertions.assertThat(houseList).isNotEmpty().hasSize(1);
-        org.assertj.core.api.Assertions.assertThat(houseList.get(0).getProjectName()).isEqualTo(expectedName);
+        org.assertj.core.api.Assertions.assertThat(houseList.get(0).projectName()).isEqualTo(expectedName);
     }
 
     @Test
     @DisplayName("FindByName returns an empty list of house when house is not found")
     void findByName_ReturnsEmptyList_WhenHouseIsNotFound(){
-        BDDMockito.when(houseRepositoryMock.findByProjectName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
+        BDDMockito.when(houseRepositoryMock.findResponsesByProjectName(ArgumentMatchers.anyString())).thenReturn(Collections.emptyList()); //Override the mockito.when
 
-        List<House> houseList = houseService.findByName("test");
+        List<HouseResponse> houseList = houseService.findByName("test");
 
         org.assertj.core.api.Assertions.assertThat(houseList).isNotNull().isEmpty();
     }
@@ -191,14 +227,46 @@ public class HouseServiceTest {
     @Test
     @DisplayName("replace updates house when successful")
     void replace_UpdatesHouse_WhenSuccessful(){
-        org.assertj.core.api.Assertions.assertThatCode(() -> houseService.replace(HousePutRequestBodyCreator.createHousePutRequestBodyOnlyWithName()))
+        org.assertj.core.api.Assertions.assertThatCode(() -> houseService.replace(HousePutRequestBodyCreator.createHousePutRequestBodyOnlyWithName(), null))
                 .doesNotThrowAnyException();
     }
 
     @Test
     @DisplayName("delete removes house when successful")
     void delete_RemovesHouse_WhenSuccessful(){
-        org.assertj.core.api.Assertions.assertThatCode(() -> houseService.delete(1))
+        org.assertj.core.api.Assertions.assertThatCode(() -> houseService.delete(1, null))
                 .doesNotThrowAnyException();
+        Mockito.verify(changeLog).housesDeleted(List.of(HouseChange.of(HouseCreator.createValidHouse())));
+    }
+
+    @Test
+    @DisplayName("patch changes only the fields sent when successful")
+    void patch_ChangesOnlyFieldsSent_WhenSuccessful(){
+        Engineer engineer = Engineer.builder().name("Engineer").id(1L).build();
+        Architect architect = Architect.builder().name("Architect").id(1L).build();
+        House house = House.builder().id(1L).projectName("Original").engineer(engineer).architect(architect).build();
+        BDDMockito.when(houseRepositoryMock.findById(1L)).thenReturn(Optional.of(house));
+
+        houseService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("projectName", "Patched").putNull("architect")), null);
+
+        org.assertj.core.api.Assertions.assertThat(house.getProjectName()).isEqualTo("Patched");
+        org.assertj.core.api.Assertions.assertThat(house.getEngineer()).isSameAs(engineer);
+        org.assertj.core.api.Assertions.assertThat(house.getArchitect()).isNull();
+        Mockito.verifyNoInteractions(engineerRepository, architectRepository);
+    }
+
+    @Test
+    @DisplayName("patch throws BadRequestException when the result is invalid or the engineer does not exist")
+    void patch_ThrowsBadRequestException_WhenResultIsInvalidOrEngineerDoesNotExist(){
+        Mockito.when(engineerRepository.existsById(2L)).thenReturn(false);
+
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("projectName", "")), null))
+                .withMessageContaining("The house project must have a name or a nickname");
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("engineer", 2)), null))
+                .withMessageContaining("Engineer not found");
+        org.assertj.core.api.Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> houseService.patch(1, new MergePatch(JsonNodeFactory.instance.objectNode().put("engineer", "two")), null));
     }
 }
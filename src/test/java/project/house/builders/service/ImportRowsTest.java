@@ -0,0 +1,64 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.house.builders.domain.ImportJob;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@DisplayName("Tests for import rows")
+class ImportRowsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("read returns one map per CSV line, keyed by the header")
+    void read_ReturnsRowsByHeader_WhenFileIsCsv() throws IOException {
+        MappingIterator<Map<String, String>> rows = read(ImportJob.Format.CSV, "externalId,name\nHR-1,Jack\nHR-2,\"Smith, John\"\n");
+
+        Assertions.assertThat(rows.readAll()).containsExactly(
+                Map.of("externalId", "HR-1", "name", "Jack"),
+                Map.of("externalId", "HR-2", "name", "Smith, John"));
+    }
+
+    @Test
+    @DisplayName("read returns one map per element of a JSON array, with numbers as text")
+    void read_ReturnsRowsOfArray_WhenFileIsJson() throws IOException {
+        MappingIterator<Map<String, String>> rows = read(ImportJob.Format.JSON, "[{\"projectName\":\"A\",\"engineerExternalId\":12},{\"projectName\":\"B\"}]");
+
+        Assertions.assertThat(rows.nextValue()).containsEntry("projectName", "A").containsEntry("engineerExternalId", "12");
+        Assertions.assertThat(rows.nextValue()).containsExactly(Map.entry("projectName", "B"));
+        Assertions.assertThat(rows.hasNextValue()).isFalse();
+    }
+
+    @Test
+    @DisplayName("read returns the rows before a malformed one, then fails")
+    void read_FailsAtMalformedRow_WhenJsonIsTruncated() throws IOException {
+        MappingIterator<Map<String, String>> rows = read(ImportJob.Format.JSON, "[{\"projectName\":\"A\"},{\"projectName\":");
+
+        Assertions.assertThat(rows.nextValue()).containsEntry("projectName", "A");
+        Assertions.assertThatExceptionOfType(IOException.class).isThrownBy(() -> {
+            rows.hasNextValue();
+            rows.nextValue();
+        });
+    }
+
+    @Test
+    @DisplayName("value trims the text and treats blanks as missing")
+    void value_ReturnsNull_WhenValueIsBlank(){
+        Map<String, String> row = Map.of("name", "  Jack ", "externalId", " ");
+
+        Assertions.assertThat(ImportRows.value(row, "name")).isEqualTo("Jack");
+        Assertions.assertThat(ImportRows.value(row, "externalId")).isNull();
+        Assertions.assertThat(ImportRows.value(row, "projectName")).isNull();
+    }
+
+    private MappingIterator<Map<String, String>> read(ImportJob.Format format, String content) throws IOException {
+        return ImportRows.read(objectMapper, format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
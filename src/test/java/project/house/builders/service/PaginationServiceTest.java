@@ -0,0 +1,94 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.house.builders.domain.House;
+import project.house.builders.exception.BadRequestException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Tests for pagination service")
+class PaginationServiceTest {
+    private final PaginationService paginationService = new PaginationService(2, 5, Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("decodeCursor returns the id encoded by encodeCursor")
+    void decodeCursor_ReturnsEncodedId_WhenSuccessful(){
+        Assertions.assertThat(paginationService.decodeCursor(paginationService.encodeCursor(42L))).isEqualTo(42L);
+        Assertions.assertThat(paginationService.decodeCursor(null)).isZero();
+    }
+
+    @Test
+    @DisplayName("decodeCursor throws BadRequestException when the cursor is not valid")
+    void decodeCursor_ThrowsBadRequestException_WhenCursorIsInvalid(){
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> paginationService.decodeCursor("not a cursor"));
+    }
+
+    @Test
+    @DisplayName("keysetPageable uses the default size and caps the requested size")
+    void keysetPageable_CapsSize_WhenSizeIsTooLarge(){
+        Assertions.assertThat(paginationService.keysetPageable(null).getPageSize()).isEqualTo(2);
+        Assertions.assertThat(paginationService.keysetPageable(1000).getPageSize()).isEqualTo(5);
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> paginationService.keysetPageable(0));
+    }
+
+    @Test
+    @DisplayName("keysetPage returns a cursor to the last id only when there is a next page")
+    void keysetPage_ReturnsNextCursor_WhenHasNext(){
+        List<House> houses = List.of(House.builder().id(3L).build(), House.builder().id(7L).build());
+
+        ResultPage<House> page = paginationService.keysetPage(new SliceImpl<>(houses, PageRequest.of(0, 2), true), House::getId);
+        ResultPage<House> lastPage = paginationService.keysetPage(new SliceImpl<>(houses, PageRequest.of(0, 2), false), House::getId);
+
+        Assertions.assertThat(paginationService.decodeCursor(page.nextCursor())).isEqualTo(7L);
+        Assertions.assertThat(page.headers().getFirst(ResultPage.NEXT_CURSOR_HEADER)).isEqualTo(page.nextCursor());
+        Assertions.assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("offsetPage counts once until the count is evicted")
+    void offsetPage_CountsOnce_UntilEvicted(){
+        AtomicInteger counts = new AtomicInteger();
+        SliceImpl<House> slice = new SliceImpl<>(List.of(House.builder().id(1L).build()));
+
+        paginationService.offsetPage(slice, House.class, () -> counts.incrementAndGet() * 10L);
+        ResultPage<House> page = paginationService.offsetPage(slice, House.class, () -> counts.incrementAndGet() * 10L);
+        paginationService.evictCount(House.class);
+        ResultPage<House> afterEviction = paginationService.offsetPage(slice, House.class, () -> counts.incrementAndGet() * 10L);
+
+        Assertions.assertThat(page.totalCount()).isEqualTo(10L);
+        Assertions.assertThat(afterEviction.totalCount()).isEqualTo(20L);
+        Assertions.assertThat(page.headers().getFirst(ResultPage.TOTAL_COUNT_HEADER)).isEqualTo("10");
+    }
+
+    @Test
+    @DisplayName("evictCount keeps the count until the transaction commits")
+    void evictCount_KeepsCount_UntilTransactionCommits(){
+        AtomicInteger counts = new AtomicInteger();
+        SliceImpl<House> slice = new SliceImpl<>(List.of(House.builder().id(1L).build()));
+        paginationService.offsetPage(slice, House.class, () -> counts.incrementAndGet() * 10L);
+
+        ResultPage<House> beforeCommit;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            paginationService.evictCount(House.class);
+            beforeCommit = paginationService.offsetPage(slice, House.class, () -> counts.incrementAndGet() * 10L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ResultPage<House> afterCommit = paginationService.offsetPage(slice, House.class, () -> counts.incrementAndGet() * 10L);
+
+        Assertions.assertThat(beforeCommit.totalCount()).isEqualTo(10L);
+        Assertions.assertThat(afterCommit.totalCount()).isEqualTo(20L);
+    }
+}
@@ -0,0 +1,71 @@
+package project.house.builders.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.house.builders.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("Tests for password hashing executor")
+class PasswordHashingExecutorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void setUp(){
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingExecutor = new PasswordHashingExecutor(meterRegistry, 1, 1, Duration.ofSeconds(3));
+    }
+
+    @AfterEach
+    void tearDown(){
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("submit runs the task and records its latency")
+    void submit_RunsTaskAndRecordsLatency_WhenSuccessful() throws Exception {
+        String result = passwordHashingExecutor.submit(() -> "hash").get(5, TimeUnit.SECONDS);
+
+        Assertions.assertThat(result).isEqualTo("hash");
+        Assertions.assertThat(meterRegistry.get("auth.hash.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("submit throws ServiceUnavailableException when the workers and the queue are full")
+    void submit_ThrowsServiceUnavailableException_WhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = passwordHashingExecutor.submit(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "running";
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = passwordHashingExecutor.submit(() -> "queued");
+
+        Assertions.assertThat(meterRegistry.get("auth.hash.queue.depth").gauge().value()).isEqualTo(1);
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> passwordHashingExecutor.submit(() -> "rejected"))
+                .satisfies(exception -> Assertions.assertThat(exception.getRetryAfterSeconds()).isEqualTo(3));
+
+        release.countDown();
+        Assertions.assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("running");
+        Assertions.assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
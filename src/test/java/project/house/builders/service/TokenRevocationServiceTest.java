@@ -0,0 +1,58 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import project.house.builders.user.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@DisplayName("Tests for token revocation service")
+class TokenRevocationServiceTest {
+    private UserRepository userRepositoryMock;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp(){
+        userRepositoryMock = Mockito.mock(UserRepository.class);
+        BDDMockito.when(userRepositoryMock.findActiveTokenVersionByLogin("teste")).thenReturn(Optional.of(2L));
+        BDDMockito.when(userRepositoryMock.findActiveTokenVersionByLogin("disabled")).thenReturn(Optional.empty());
+        tokenRevocationService = new TokenRevocationService(userRepositoryMock, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("isRevoked returns false when the token has the current user version")
+    void isRevoked_ReturnsFalse_WhenVersionIsCurrent(){
+        Assertions.assertThat(tokenRevocationService.isRevoked("teste", 2)).isFalse();
+    }
+
+    @Test
+    @DisplayName("isRevoked returns true when the user version changed")
+    void isRevoked_ReturnsTrue_WhenVersionChanged(){
+        Assertions.assertThat(tokenRevocationService.isRevoked("teste", 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("isRevoked returns true when the user is disabled or missing")
+    void isRevoked_ReturnsTrue_WhenUserIsDisabled(){
+        Assertions.assertThat(tokenRevocationService.isRevoked("disabled", 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("isRevoked queries the repository once until the user is evicted")
+    void isRevoked_QueriesRepositoryOnce_UntilEvicted(){
+        tokenRevocationService.isRevoked("teste", 2);
+        tokenRevocationService.isRevoked("teste", 2);
+        Mockito.verify(userRepositoryMock, Mockito.times(1)).findActiveTokenVersionByLogin("teste");
+
+        BDDMockito.when(userRepositoryMock.findActiveTokenVersionByLogin("teste")).thenReturn(Optional.of(3L));
+        tokenRevocationService.evict("teste");
+
+        Assertions.assertThat(tokenRevocationService.isRevoked("teste", 2)).isTrue();
+        Mockito.verify(userRepositoryMock, Mockito.times(2)).findActiveTokenVersionByLogin("teste");
+    }
+}
@@ -0,0 +1,64 @@
+package project.house.builders.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Tests for verified token cache")
+class VerifiedTokenCacheTest {
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100);
+
+    @Test
+    @DisplayName("get verifies a token only once while it is cached")
+    void get_VerifiesTokenOnlyOnce_WhenTokenIsCached(){
+        AtomicInteger verifications = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            VerifiedToken verifiedToken = verifiedTokenCache.get("token", token -> {
+                verifications.incrementAndGet();
+                return createVerifiedToken(Instant.now().plus(1, ChronoUnit.HOURS));
+            });
+            Assertions.assertThat(verifiedToken).isNotNull();
+            Assertions.assertThat(verifiedToken.subject()).isEqualTo("teste");
+        }
+
+        Assertions.assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("get returns null and caches nothing when the token is invalid")
+    void get_ReturnsNull_WhenTokenIsInvalid(){
+        AtomicInteger verifications = new AtomicInteger();
+
+        Assertions.assertThat(verifiedTokenCache.get("invalid", token -> {
+            verifications.incrementAndGet();
+            return null;
+        })).isNull();
+        Assertions.assertThat(verifiedTokenCache.get("invalid", token -> {
+            verifications.incrementAndGet();
+            return null;
+        })).isNull();
+
+        Assertions.assertThat(verifications).hasValue(2);
+        Assertions.assertThat(verifiedTokenCache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("get returns null when the token is already expired")
+    void get_ReturnsNull_WhenTokenIsExpired(){
+        VerifiedToken verifiedToken = verifiedTokenCache.get("expired", token -> createVerifiedToken(Instant.now().minusSeconds(1)));
+
+        Assertions.assertThat(verifiedToken).isNull();
+        Assertions.assertThat(verifiedTokenCache.size()).isZero();
+    }
+
+    private static VerifiedToken createVerifiedToken(Instant expiresAt){
+        return new VerifiedToken("teste", List.of(new SimpleGrantedAuthority("ROLE_USER")), 0, expiresAt);
+    }
+}
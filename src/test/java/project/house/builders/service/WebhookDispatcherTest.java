@@ -0,0 +1,175 @@
+package project.house.builders.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import project.house.builders.domain.ChangeLogEntry;
+import project.house.builders.domain.WebhookEndpoint;
+import project.house.builders.repository.WebhookEndpointRepository;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Tests for webhook dispatcher")
+class WebhookDispatcherTest {
+    private HttpServer receiver;
+    private AtomicInteger receiverStatus;
+    private BlockingQueue<String> received;
+    private WebhookEndpointRepository webhookEndpointRepositoryMock;
+    private ChangeLog changeLogMock;
+    private WebhookDispatcher webhookDispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receiverStatus = new AtomicInteger(204);
+        received = new LinkedBlockingQueue<>();
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.createContext("/hook", exchange -> {
+            received.add(exchange.getRequestHeaders().getFirst(WebhookDispatcher.SIGNATURE_HEADER) + " " + new String(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(receiverStatus.get(), -1);
+            exchange.close();
+        });
+        receiver.start();
+        webhookEndpointRepositoryMock = Mockito.mock(WebhookEndpointRepository.class);
+        changeLogMock = Mockito.mock(ChangeLog.class);
+        webhookDispatcher = new WebhookDispatcher(webhookEndpointRepositoryMock, changeLogMock, new ObjectMapper().findAndRegisterModules(),
+                Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 3, 1, Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofMinutes(1), Duration.ofMinutes(1));
+        BDDMockito.when(webhookEndpointRepositoryMock.markDelivered(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        webhookDispatcher.shutdown();
+        receiver.stop(0);
+    }
+
+    @Test
+    @DisplayName("deliver posts the matching changes in signed batches and moves the endpoint past all of them")
+    void deliver_PostsMatchingChangesInBatches_WhenEndpointAccepts() throws Exception {
+        WebhookEndpoint endpoint = endpoint(Set.of(ChangeLogEntry.EntityType.HOUSE));
+        BDDMockito.when(changeLogMock.changesAfter(ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+                .thenReturn(List.of(entry(11L, ChangeLogEntry.EntityType.HOUSE), entry(12L, ChangeLogEntry.EntityType.ENGINEER), entry(13L, ChangeLogEntry.EntityType.HOUSE)));
+        BDDMockito.when(changeLogMock.changesAfter(ArgumentMatchers.eq(13L), ArgumentMatchers.any()))
+                .thenReturn(List.of(entry(14L, ChangeLogEntry.EntityType.ENGINEER)));
+
+        webhookDispatcher.deliver(endpoint);
+
+        String delivery = received.take();
+        Assertions.assertThat(received).isEmpty();
+        String body = delivery.substring(delivery.indexOf(' ') + 1);
+        Assertions.assertThat(delivery).startsWith("sha256=" + WebhookDispatcher.sign("s3cr3t", body.getBytes()));
+        Assertions.assertThat(new ObjectMapper().readTree(body).findValuesAsText("entityId")).containsExactly("11", "13");
+        Mockito.verify(webhookEndpointRepositoryMock).markDelivered(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.eq(13L), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(webhookEndpointRepositoryMock).markDelivered(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.eq(14L), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("deliver keeps the position and schedules a retry when the endpoint fails")
+    void deliver_SchedulesRetry_WhenEndpointFails(){
+        receiverStatus.set(503);
+        WebhookEndpoint endpoint = endpoint(Set.of());
+        endpoint.setFailures(2);
+        BDDMockito.when(changeLogMock.changesAfter(ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+                .thenReturn(List.of(entry(11L, ChangeLogEntry.EntityType.HOUSE)));
+        Instant before = Instant.now();
+
+        webhookDispatcher.deliver(endpoint);
+
+        Mockito.verify(webhookEndpointRepositoryMock, Mockito.never()).markDelivered(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(webhookEndpointRepositoryMock).markFailed(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.eq(3),
+                ArgumentMatchers.argThat(next -> !next.isBefore(before.plusSeconds(4))), ArgumentMatchers.contains("503"));
+    }
+
+    @Test
+    @DisplayName("deliver stops without moving on when the lease was lost to another instance")
+    void deliver_Stops_WhenLeaseIsLost() throws Exception {
+        BDDMockito.when(webhookEndpointRepositoryMock.markDelivered(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(0);
+        List<ChangeLogEntry> batch = List.of(entry(11L, ChangeLogEntry.EntityType.HOUSE), entry(12L, ChangeLogEntry.EntityType.HOUSE), entry(13L, ChangeLogEntry.EntityType.HOUSE));
+        BDDMockito.when(changeLogMock.changesAfter(ArgumentMatchers.eq(10L), ArgumentMatchers.any())).thenReturn(batch);
+
+        webhookDispatcher.deliver(endpoint(Set.of()));
+
+        received.take();
+        Mockito.verify(changeLogMock, Mockito.never()).changesAfter(ArgumentMatchers.eq(13L), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("claimAndDeliver sends nothing when another instance holds the endpoint")
+    void claimAndDeliver_SendsNothing_WhenEndpointIsLeasedElsewhere(){
+        BDDMockito.when(webhookEndpointRepositoryMock.claim(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(0);
+
+        webhookDispatcher.claimAndDeliver(1L);
+
+        Mockito.verify(webhookEndpointRepositoryMock, Mockito.never()).findById(ArgumentMatchers.any());
+        Mockito.verify(webhookEndpointRepositoryMock, Mockito.never()).release(ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verifyNoInteractions(changeLogMock);
+    }
+
+    @Test
+    @DisplayName("claimAndDeliver delivers from the stored position and releases the lease afterwards")
+    void claimAndDeliver_DeliversAndReleases_WhenClaimed() throws Exception {
+        BDDMockito.when(webhookEndpointRepositoryMock.claim(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(1);
+        BDDMockito.when(webhookEndpointRepositoryMock.findById(1L)).thenReturn(Optional.of(endpoint(Set.of())));
+        BDDMockito.when(changeLogMock.changesAfter(ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+                .thenReturn(List.of(entry(11L, ChangeLogEntry.EntityType.HOUSE)));
+
+        webhookDispatcher.claimAndDeliver(1L);
+
+        received.take();
+        InOrder inOrder = Mockito.inOrder(webhookEndpointRepositoryMock);
+        inOrder.verify(webhookEndpointRepositoryMock).claim(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        inOrder.verify(webhookEndpointRepositoryMock).markDelivered(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.eq(11L), ArgumentMatchers.any(), ArgumentMatchers.any());
+        inOrder.verify(webhookEndpointRepositoryMock).release(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("backoff doubles with every failure up to the maximum")
+    void backoff_DoublesUpToMaximum(){
+        Assertions.assertThat(webhookDispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        Assertions.assertThat(webhookDispatcher.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        Assertions.assertThat(webhookDispatcher.backoff(50)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    private WebhookEndpoint endpoint(Set<ChangeLogEntry.EntityType> types){
+        return WebhookEndpoint.builder()
+                .id(1L)
+                .url("http://localhost:" + receiver.getAddress().getPort() + "/hook")
+                .secret("s3cr3t")
+                .types(types)
+                .deliveredUpTo(10L)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private static ChangeLogEntry entry(long id, ChangeLogEntry.EntityType entityType){
+        return ChangeLogEntry.builder()
+                .id(id)
+                .entityType(entityType)
+                .entityId(id)
+                .operation(ChangeLogEntry.Operation.UPSERT)
+                .changedAt(Instant.now())
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package project.house.builders.util;
 
 import project.house.builders.domain.Architect;
+import project.house.builders.responses.ArchitectResponse;
 
 public class ArchitectCreator {
     public static Architect createValidArchitect(){
@@ -22,4 +23,8 @@ public class ArchitectCreator {
                 .id(1L)
                 .build();
     }
+
+    public static ArchitectResponse createValidArchitectResponse(){
+        return new ArchitectResponse("ArchitectTest", 1L);
+    }
 }
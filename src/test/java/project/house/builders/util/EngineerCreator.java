@@ -1,6 +1,7 @@
 package project.house.builders.util;
 
 import project.house.builders.domain.Engineer;
+import project.house.builders.responses.EngineerResponse;
 
 public class EngineerCreator {
     public static Engineer createValidEngineer(){
@@ -22,4 +23,8 @@ public class EngineerCreator {
                 .id(1L)
                 .build();
     }
+
+    public static EngineerResponse createValidEngineerResponse(){
+        return new EngineerResponse("EngineerTest", 1L);
+    }
 }
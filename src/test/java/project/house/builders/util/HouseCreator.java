@@ -1,6 +1,7 @@
 package project.house.builders.util;
 
 import project.house.builders.domain.House;
+import project.house.builders.responses.HouseResponse;
 
 public class HouseCreator {
     public static House createValidHouse(){
@@ -22,4 +23,8 @@ public class HouseCreator {
                 .id(1L)
                 .build();
     }
+
+    public static HouseResponse createValidHouseResponse(){
+        return new HouseResponse(1L, "TestProject", null, null);
+    }
 }